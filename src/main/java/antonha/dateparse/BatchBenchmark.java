@@ -0,0 +1,111 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a column of same-shaped timestamps, like those in a bulk request, in batches of different sizes.
+ *
+ * Every invocation parses all TIMESTAMPS timestamps, split up in batches. The score is thus ns per timestamp.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    private static final int TIMESTAMPS = 65536;
+
+    @Param({"16", "256", "4096", "65536"})
+    public int batchSize;
+
+    private byte[] data;
+    private int[][] offsets;
+    private int[][] lengths;
+    private String[] strings;
+    private long[] out;
+    private byte[] status;
+
+    @Setup
+    public void setUp() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSX")
+            .withZone(ZoneOffset.UTC);
+        Random random = new Random(0);
+        long start = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        offsets = new int[TIMESTAMPS / batchSize][batchSize];
+        lengths = new int[TIMESTAMPS / batchSize][batchSize];
+        strings = new String[TIMESTAMPS];
+        for (int i = 0; i < TIMESTAMPS; i++) {
+            strings[i] = formatter.format(Instant.ofEpochMilli(start + random.nextInt(Integer.MAX_VALUE)));
+            byte[] row = strings[i].getBytes(StandardCharsets.UTF_8);
+            offsets[i / batchSize][i % batchSize] = bytes.size();
+            lengths[i / batchSize][i % batchSize] = row.length;
+            bytes.writeBytes(row);
+        }
+        data = bytes.toByteArray();
+        out = new long[batchSize];
+        status = new byte[batchSize];
+        if (!BatchDateParser.isVectorized()) {
+            System.err.println("Vector API not available, batches will be parsed with the scalar parser");
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long benchBatch() {
+        long sum = 0;
+        for (int batch = 0; batch < offsets.length; batch++) {
+            BatchDateParser.parseToEpochMillis(data, offsets[batch], lengths[batch], batchSize, out, status);
+            sum += out[batchSize - 1];
+        }
+        return sum;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long benchBatchScalar() {
+        long sum = 0;
+        for (int batch = 0; batch < offsets.length; batch++) {
+            BatchDateParser.parse(data, offsets[batch], lengths[batch], batchSize, out, status, false);
+            sum += out[batchSize - 1];
+        }
+        return sum;
+    }
+
+    /*
+     * One timestamp at a time, the way it is done without the batch API.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    @OperationsPerInvocation(TIMESTAMPS)
+    public long benchCharParserPerRow() {
+        long sum = 0;
+        for (int i = 0; i < TIMESTAMPS; i++) {
+            sum += CharDateParser.parseToEpochMillis(strings[i]);
+        }
+        return sum;
+    }
+}
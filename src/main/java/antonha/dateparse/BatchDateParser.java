@@ -0,0 +1,177 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DateTimeException;
+import java.util.Arrays;
+
+/**
+ * Parses many date strings at once into a column of epoch millis, with a status per row.
+ *
+ * Bulk requests tend to have thousands of timestamps with the exact same shape, like 2023-01-01T23:38:34.000Z. Rows
+ * with that shape are parsed with the Vector API, if it is available. Everything else goes through
+ * CharDateParser.parseToEpochMillis, so the result for every row is the same as parsing it on its own.
+ *
+ * The Vector API is an incubator module in Java 17, so it is only used if the JVM is started with
+ * --add-modules jdk.incubator.vector. Without it, all rows are parsed with the scalar parser. VectorDateKernel is the
+ * only class compiled with the module, and it is loaded by name, so nothing else depends on it.
+ */
+public class BatchDateParser {
+
+    /**
+     * The row was parsed, and its epoch millis written to the output column.
+     */
+    public static final byte OK = 0;
+
+    /**
+     * The row is not a date, CharDateParser.parse would return null.
+     */
+    public static final byte NO_DATE = 1;
+
+    /**
+     * The row looks like a date but has invalid values, such as 2023-02-30. CharDateParser.parse would throw.
+     */
+    public static final byte INVALID = 2;
+
+    private static final byte PENDING = -1;
+
+    /**
+     * Parses the rows it can and marks them OK. The rest are left PENDING for the scalar parser to decide.
+     */
+    interface Kernel {
+
+        /**
+         * @return true if the kernel is faster than the scalar parser on this hardware.
+         */
+        boolean isSupported();
+
+        void parse(byte[] data, int[] offsets, int[] lengths, int count, long[] out, byte[] status);
+    }
+
+    //Null if the module is not present, in which case the class can't be loaded.
+    private static final Kernel VECTOR_KERNEL = loadVectorKernel();
+
+    private static final boolean VECTOR_ENABLED = VECTOR_KERNEL != null && VECTOR_KERNEL.isSupported();
+
+    private BatchDateParser() {
+    }
+
+    /**
+     * Parses count rows of UTF-8 bytes. Row i is the bytes from offsets[i] of length lengths[i] in data. Its epoch
+     * millis are written to out[i] and its status to status[i]. The value in out is undefined for rows that are not
+     * OK.
+     */
+    public static void parseToEpochMillis(
+        byte[] data, int[] offsets, int[] lengths, int count,
+        long[] out, byte[] status
+    ) {
+        if (VECTOR_ENABLED) {
+            parse(data, offsets, lengths, count, out, status, true);
+        } else {
+            parse(data, offsets, lengths, count, out, status, false);
+        }
+    }
+
+    /**
+     * Parses the first count date strings, see the byte variant. This is always done row by row.
+     */
+    public static void parseToEpochMillis(CharSequence[] dateStrings, int count, long[] out, byte[] status) {
+        ParseEvents.BatchParse event = begin();
+        for (int i = 0; i < count; i++) {
+            CharSequence dateString = dateStrings[i];
+            try {
+                long millis = CharDateParser.parseToEpochMillis(dateString, 0, dateString.length());
+                out[i] = millis;
+                status[i] = millis == CharDateParser.NO_DATE ? NO_DATE : OK;
+            } catch (DateTimeException e) {
+                status[i] = INVALID;
+            }
+        }
+        commit(event, status, count, false);
+    }
+
+    /**
+     * @return true if rows are parsed with the Vector API.
+     */
+    public static boolean isVectorized() {
+        return VECTOR_ENABLED;
+    }
+
+    //Package private, so that the benchmarks and tests can compare with and without vectors. Rows are parsed with
+    //vectors even if they are emulated, but not if the module is missing.
+    static void parse(
+        byte[] data, int[] offsets, int[] lengths, int count,
+        long[] out, byte[] status, boolean vectorize
+    ) {
+        vectorize = vectorize && VECTOR_KERNEL != null;
+        ParseEvents.BatchParse event = begin();
+        if (vectorize) {
+            Arrays.fill(status, 0, count, PENDING);
+            VECTOR_KERNEL.parse(data, offsets, lengths, count, out, status);
+        }
+        for (int i = 0; i < count; i++) {
+            if (vectorize && status[i] != PENDING) {
+                continue;
+            }
+            try {
+                long millis = CharDateParser.parseToEpochMillis(data, offsets[i], lengths[i]);
+                out[i] = millis;
+                status[i] = millis == CharDateParser.NO_DATE ? NO_DATE : OK;
+            } catch (DateTimeException e) {
+                status[i] = INVALID;
+            }
+        }
+        commit(event, status, count, vectorize);
+    }
+
+    /**
+     * @return the started event, or null if Flight Recorder is not initialized.
+     */
+    private static ParseEvents.BatchParse begin() {
+        if (!ParseEvents.recording()) {
+            return null;
+        }
+        ParseEvents.BatchParse event = new ParseEvents.BatchParse();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(ParseEvents.BatchParse event, byte[] status, int count, boolean vectorized) {
+        if (event == null || !event.shouldCommit()) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            if (status[i] == NO_DATE) {
+                event.noDate++;
+            } else if (status[i] == INVALID) {
+                event.invalid++;
+            }
+        }
+        event.rows = count;
+        event.vectorized = vectorized;
+        event.commit();
+    }
+
+    private static Kernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (Kernel) Class.forName("antonha.dateparse.VectorDateKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -17,6 +17,8 @@ package antonha.dateparse;
 import com.ethlo.time.ITU;
 import org.openjdk.jmh.annotations.*;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -44,6 +46,23 @@ public class Benchmark {
     })
     public String dateString;
 
+    /*
+     * The date string as it would look in a bulk request: UTF-8 bytes, in the middle of a document.
+     */
+    private String document;
+    private byte[] documentBytes;
+    private ByteBuffer directDocument;
+    private int dateOffset;
+    private final ParsedDate parsedDate = new ParsedDate();
+
+    @Setup
+    public void setUp() {
+        document = "{\"@timestamp\":\"" + dateString + "\",\"message\":\"hello\"}";
+        dateOffset = document.indexOf(dateString);
+        documentBytes = document.getBytes(StandardCharsets.UTF_8);
+        directDocument = ByteBuffer.allocateDirect(documentBytes.length).put(documentBytes).flip();
+    }
+
 
     @org.openjdk.jmh.annotations.Benchmark()
     public TemporalAccessor benchESParse() {
@@ -55,6 +74,32 @@ public class Benchmark {
         return ElasticsearchParsers.doParseStrict(dateString);
     }
 
+    /*
+     * The same as benchESParse, with the Format created once and the ParsePosition reused.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESParseCachedFormat() {
+        return ElasticsearchParsers.doParseCachedFormat(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchESParseEpochMillis() {
+        return DateParsers.toInstant(ElasticsearchParsers.doParse(dateString)).toEpochMilli();
+    }
+
+    /*
+     * The same epoch millis as benchESParseEpochMillis, from fields that are parsed but never resolved.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchESParseUnresolvedEpochMillis() {
+        return ElasticsearchParsers.doParseToEpochMillis(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchStrictCharParser() {
+        return StrictCharDateParser.parse(dateString);
+    }
+
     private static final Pattern pattern = Pattern.compile("([0-9]{4})-([0-9]{2})-([0-9]{2})T([0-9]{2}):([0-9]{2}):([0-9]){2}.?([0-9]+)Z");
 
     /*
@@ -91,6 +136,53 @@ public class Benchmark {
         return CharDateParser.parse(dateString);
     }
 
+    /*
+     * What ingest has to do without the byte overloads: decode the field to a String, then parse it.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserDecodedBytes() {
+        return CharDateParser.parse(new String(documentBytes, dateOffset, dateString.length(), StandardCharsets.UTF_8));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserBytes() {
+        return CharDateParser.parse(documentBytes, dateOffset, dateString.length());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserDirectBuffer() {
+        return CharDateParser.parse(directDocument, dateOffset, dateString.length());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserCharSequence() {
+        return CharDateParser.parse(document, dateOffset, dateString.length());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserEpochMillis() {
+        return CharDateParser.parseToEpochMillis(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserBytesEpochMillis() {
+        return CharDateParser.parseToEpochMillis(documentBytes, dateOffset, dateString.length());
+    }
+
+    /*
+     * Parsing into a reused ParsedDate keeps the precision without allocating a TemporalAccessor.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public ParsedDate benchCharParserParsedDate() {
+        CharDateParser.parseInto(documentBytes, dateOffset, dateString.length(), parsedDate);
+        return parsedDate;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserEpochNanos() {
+        return CharDateParser.parseToEpochNanos(dateString);
+    }
+
     //
     @org.openjdk.jmh.annotations.Benchmark
     public TemporalAccessor benchITUParser() {
@@ -14,7 +14,9 @@
  */
 package antonha.dateparse;
 
+import java.nio.ByteBuffer;
 import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -25,160 +27,988 @@ import java.time.temporal.TemporalAccessor;
 /**
  * Date parser which is based on charAt() to demonstrate that it is possible to parse dates faster than the Java
  * parsers.
+ *
+ * Besides Strings, the parser can read directly from UTF-8 encoded bytes (byte arrays and ByteBuffers) and from ranges
+ * of CharSequences. This lets ingest code parse a timestamp where it is, without first decoding it into a new String.
+ * All the variants parse exactly the same way, since they share everything except the code that reads characters.
+ *
+ * When only the epoch value is needed, which is what Elasticsearch stores, parseToEpochMillis, parseToEpochNanos and
+ * parseToDateNanos compute it straight from the parsed fields. Dates without a zone are treated as UTC. For UTC and
+ * offsets, nothing at all is allocated.
 
  * I'm not terribly proud of this code, but it is not that bad either. And it seems to work, based on tests. I would
  * want some more eyes on it before using it in production, though.
  */
 public class CharDateParser {
 
+    /**
+     * Longer direct buffers than this are copied to a new array instead of the per-thread scratch array.
+     */
+    private static final int SCRATCH_SIZE = 64;
+
+    /**
+     * Returned by the epoch methods when the input is not a date, where parse would return null. No date that this
+     * parser can parse is this far from the epoch in millis. In nanos it is 1677-09-21T00:12:43.145224192Z, which the
+     * nanos methods treat as out of range.
+     */
+    public static final long NO_DATE = Long.MIN_VALUE;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
     public static TemporalAccessor parse(String dateString) {
+        return parse(dateString, 0, dateString.length());
+    }
 
-        //Year
-        if(dateString.length() < 4) {
+    public static TemporalAccessor parse(CharSequence dateString) {
+        return parse(dateString, 0, dateString.length());
+    }
+
+    /**
+     * Parses the date string found in the given range of a CharSequence, without creating a substring.
+     */
+    public static TemporalAccessor parse(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
             return null;
         }
-        char y0 = dateString.charAt(0);
-        int y1 = charToInt(dateString.charAt(1));
-        int y2 = charToInt(dateString.charAt(2));
-        int y3 = charToInt(dateString.charAt(3));
-        if(y0 < '0' || y0 > '9' || y1 < 0 || y1 > 9 || y2 < 0 || y2 > 9 || y3 < 0 || y3 > 9) {
+        if (!DateFields.hasTime(fields)) {
+            return toTemporalAccessor(fields, 0, null);
+        }
+        int zoneStart = offset + DateFields.zoneStart(fields);
+        return toTemporalAccessor(
+            fields,
+            parseFraction(text, offset, fields),
+            parseZone(text, zoneStart, offset + length)
+        );
+    }
+
+    /**
+     * Parses a date string from UTF-8 (or ASCII) encoded bytes, without decoding them to a String.
+     */
+    public static TemporalAccessor parse(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return null;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toTemporalAccessor(fields, 0, null);
+        }
+        int zoneStart = offset + DateFields.zoneStart(fields);
+        return toTemporalAccessor(
+            fields,
+            parseFraction(bytes, offset, fields),
+            parseZone(bytes, zoneStart, offset + length)
+        );
+    }
+
+    /**
+     * Parses the remaining bytes of the buffer, from position to limit, as UTF-8. The position of the buffer is not
+     * changed.
+     */
+    public static TemporalAccessor parse(ByteBuffer buffer) {
+        return parse(buffer, buffer.position(), buffer.remaining());
+    }
+
+    /**
+     * Parses the given range of the buffer as UTF-8, using absolute indexes. Heap buffers are read in place. Direct
+     * buffers are copied to a small per-thread array first, since reading them one byte at a time is slower than the
+     * copy.
+     */
+    public static TemporalAccessor parse(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return parse(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return parse(copyOf(buffer, index, length), 0, length);
+    }
+
+    /**
+     * Parses the date string into a ParsedDate owned by the caller, which keeps which fields the date string had.
+     * Reusing the ParsedDate, nothing is allocated. Throws DateTimeException for invalid dates, just like parse.
+     *
+     * @return false if parse would have returned null, the ParsedDate is then unchanged.
+     */
+    public static boolean parseInto(CharSequence dateString, ParsedDate date) {
+        return parseInto(dateString, 0, dateString.length(), date);
+    }
+
+    public static boolean parseInto(CharSequence text, int offset, int length, ParsedDate date) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return false;
+        }
+        if (!DateFields.hasTime(fields)) {
+            date.set(fields, 0, null);
+            return true;
+        }
+        int nanos = parseFraction(text, offset, fields);
+        date.set(fields, nanos, parseZone(text, offset + DateFields.zoneStart(fields), offset + length));
+        return true;
+    }
+
+    public static boolean parseInto(byte[] bytes, int offset, int length, ParsedDate date) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return false;
+        }
+        if (!DateFields.hasTime(fields)) {
+            date.set(fields, 0, null);
+            return true;
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        date.set(fields, nanos, parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length));
+        return true;
+    }
+
+    public static boolean parseInto(ByteBuffer buffer, int index, int length, ParsedDate date) {
+        if (buffer.hasArray()) {
+            return parseInto(buffer.array(), buffer.arrayOffset() + index, length, date);
+        }
+        return parseInto(copyOf(buffer, index, length), 0, length, date);
+    }
+
+    /**
+     * Parses the date string the way the upper bound of a range query is parsed: missing fields get their last value
+     * instead of their first, so 2023-01 is 2023-01-31T23:59:59.999999999. Without a fraction the nanos are
+     * 999999999, a fraction is used as it is. Always gives a LocalDateTime or a ZonedDateTime.
+     */
+    public static TemporalAccessor parseRoundUp(CharSequence dateString) {
+        return parseRoundUp(dateString, 0, dateString.length());
+    }
+
+    public static TemporalAccessor parseRoundUp(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return null;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toTemporalAccessor(DateFields.roundUp(fields), ROUND_UP_NANOS, null);
+        }
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toTemporalAccessor(DateFields.roundUp(fields), roundUpFraction(text, offset, fields), zone);
+    }
+
+    public static TemporalAccessor parseRoundUp(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
             return null;
         }
+        if (!DateFields.hasTime(fields)) {
+            return toTemporalAccessor(DateFields.roundUp(fields), ROUND_UP_NANOS, null);
+        }
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toTemporalAccessor(DateFields.roundUp(fields), roundUpFraction(bytes, offset, fields), zone);
+    }
+
+    /**
+     * Like parseRoundUp, but to milliseconds since the epoch, which is what a range query needs.
+     *
+     * @return the epoch millis, or NO_DATE if parseRoundUp would have returned null.
+     */
+    public static long parseToEpochMillisRoundUp(CharSequence dateString) {
+        return parseToEpochMillisRoundUp(dateString, 0, dateString.length());
+    }
+
+    public static long parseToEpochMillisRoundUp(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(DateFields.roundUp(fields), null) * 1000 + ROUND_UP_NANOS / 1_000_000;
+        }
+        int nanos = roundUpFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(DateFields.roundUp(fields), zone) * 1000 + nanos / 1_000_000;
+    }
+
+    public static long parseToEpochMillisRoundUp(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(DateFields.roundUp(fields), null) * 1000 + ROUND_UP_NANOS / 1_000_000;
+        }
+        int nanos = roundUpFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(DateFields.roundUp(fields), zone) * 1000 + nanos / 1_000_000;
+    }
+
+    /**
+     * Parses the date string to milliseconds since the epoch, the same as converting the result of parse to an
+     * Instant. Throws DateTimeException for invalid dates, just like parse.
+     *
+     * @return the epoch millis, or NO_DATE if parse would have returned null.
+     */
+    public static long parseToEpochMillis(CharSequence dateString) {
+        return parseToEpochMillis(dateString, 0, dateString.length());
+    }
+
+    public static long parseToEpochMillis(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(fields, null) * 1000;
+        }
+        int nanos = parseFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(fields, zone) * 1000 + nanos / 1_000_000;
+    }
+
+    public static long parseToEpochMillis(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(fields, null) * 1000;
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(fields, zone) * 1000 + nanos / 1_000_000;
+    }
+
+    public static long parseToEpochMillis(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return parseToEpochMillis(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return parseToEpochMillis(copyOf(buffer, index, length), 0, length);
+    }
+
+    /**
+     * Parses the date string to nanoseconds since the epoch. Only dates after 1677-09-21T00:12:43.145224192Z, which is
+     * NO_DATE, and up to 2262-04-11T23:47:16.854775807Z fit, for other dates an ArithmeticException is thrown.
+     *
+     * @return the epoch nanos, or NO_DATE if parse would have returned null.
+     */
+    public static long parseToEpochNanos(CharSequence dateString) {
+        return parseToEpochNanos(dateString, 0, dateString.length());
+    }
+
+    public static long parseToEpochNanos(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toParsedEpochNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toParsedEpochNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long parseToEpochNanos(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toParsedEpochNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toParsedEpochNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long parseToEpochNanos(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return parseToEpochNanos(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return parseToEpochNanos(copyOf(buffer, index, length), 0, length);
+    }
+
+    /**
+     * Parses the date string to nanoseconds since the epoch the way a date_nanos field stores it, with every fraction
+     * digit kept. Unlike parseToEpochNanos, only dates from 1970-01-01T00:00:00Z to 2262-04-11T23:47:16.854775807Z
+     * are accepted. Others throw the same IllegalArgumentException as Elasticsearch, invalid dates a
+     * DateTimeException.
+     *
+     * @return the epoch nanos, or NO_DATE if parse would have returned null.
+     */
+    public static long parseToDateNanos(CharSequence dateString) {
+        return parseToDateNanos(dateString, 0, dateString.length());
+    }
+
+    public static long parseToDateNanos(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toDateNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toDateNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long parseToDateNanos(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return NO_DATE;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toDateNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toDateNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long parseToDateNanos(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return parseToDateNanos(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return parseToDateNanos(copyOf(buffer, index, length), 0, length);
+    }
+
+    /**
+     * Like parseToEpochMillis, but invalid dates give a status instead of a DateTimeException. Dirty data is then no
+     * more expensive than clean data, since no exception, stack trace or message is created.
+     *
+     * @return the epoch millis, or a status if ParseStatus.isError is true for the result.
+     */
+    public static long tryParseToEpochMillis(CharSequence dateString) {
+        return tryParseToEpochMillis(dateString, 0, dateString.length());
+    }
+
+    public static long tryParseToEpochMillis(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        long status = ParseStatus.check(fields);
+        if (status != ParseStatus.VALID) {
+            return status;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(fields, null) * 1000;
+        }
+        int nanos = parseFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(fields, zone) * 1000 + nanos / 1_000_000;
+    }
+
+    public static long tryParseToEpochMillis(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        long status = ParseStatus.check(fields);
+        if (status != ParseStatus.VALID) {
+            return status;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return toEpochSecond(fields, null) * 1000;
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return toEpochSecond(fields, zone) * 1000 + nanos / 1_000_000;
+    }
+
+    public static long tryParseToEpochMillis(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return tryParseToEpochMillis(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return tryParseToEpochMillis(copyOf(buffer, index, length), 0, length);
+    }
+
+    /**
+     * Like parseToEpochNanos, but with a status instead of a DateTimeException or an ArithmeticException. Since
+     * statuses are the longs closest to Long.MIN_VALUE, the first 18 minutes or so that epoch nanos can represent,
+     * from 1677-09-21T00:12:43.145224192Z, are OUT_OF_RANGE too.
+     *
+     * @return the epoch nanos, or a status if ParseStatus.isError is true for the result.
+     */
+    public static long tryParseToEpochNanos(CharSequence dateString) {
+        return tryParseToEpochNanos(dateString, 0, dateString.length());
+    }
+
+    public static long tryParseToEpochNanos(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        long status = ParseStatus.check(fields);
+        if (status != ParseStatus.VALID) {
+            return status;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return tryToEpochNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(text, offset, fields);
+        ZoneId zone = parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        return tryToEpochNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long tryParseToEpochNanos(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        long status = ParseStatus.check(fields);
+        if (status != ParseStatus.VALID) {
+            return status;
+        }
+        if (!DateFields.hasTime(fields)) {
+            return tryToEpochNanos(toEpochSecond(fields, null), 0);
+        }
+        int nanos = parseFraction(bytes, offset, fields);
+        ZoneId zone = parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return tryToEpochNanos(toEpochSecond(fields, zone), nanos);
+    }
+
+    public static long tryParseToEpochNanos(ByteBuffer buffer, int index, int length) {
+        if (buffer.hasArray()) {
+            return tryParseToEpochNanos(buffer.array(), buffer.arrayOffset() + index, length);
+        }
+        return tryParseToEpochNanos(copyOf(buffer, index, length), 0, length);
+    }
+
+    private static byte[] copyOf(ByteBuffer buffer, int index, int length) {
+        byte[] bytes = length <= SCRATCH_SIZE ? Scratch.BYTES.get() : new byte[length];
+        buffer.get(index, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * Only direct buffers need the scratch array. In a holder, so that the lambda is not bootstrapped when the class
+     * is initialized, which is the most expensive part of that on a cold JVM.
+     */
+    private static final class Scratch {
+        private static final ThreadLocal<byte[]> BYTES = ThreadLocal.withInitial(() -> new byte[SCRATCH_SIZE]);
+    }
+
+    /*
+     * The scanners below find the fields of the date string, and the precision of it. The rules are the same as for
+     * strict_date_optional_time: As soon as something unexpected is found, the date is what has been parsed so far.
+     *
+     * The two scanners are identical except for how they read characters. Please keep them that way.
+     */
+
+    static long scan(CharSequence dateString, int offset, int length) {
+
+        //Year
+        if(length < 4) {
+            return DateFields.NONE;
+        }
+        char y0 = dateString.charAt(offset);
+        int y1 = charToInt(dateString.charAt(offset + 1));
+        int y2 = charToInt(dateString.charAt(offset + 2));
+        int y3 = charToInt(dateString.charAt(offset + 3));
+        if(y0 < '0' || y0 > '9' || y1 < 0 || y1 > 9 || y2 < 0 || y2 > 9 || y3 < 0 || y3 > 9) {
+            return DateFields.NONE;
+        }
         int year = charToInt(y0) * 1000 + y1 * 100 + y2 * 10 + y3;
 
 
         //Month - first check if there are months
-        if(dateString.length() == 4 || dateString.charAt(4) != '-') {
-            return LocalDate.of(year, 1, 1);
+        if(length == 4 || dateString.charAt(offset + 4) != '-' || length < 7) {
+            return DateFields.pack(DateFields.YEAR, year, 1, 1, 0, 0, 0, 0);
         }
-        int m0 = charToInt(dateString.charAt(5));
-        int m1 = charToInt(dateString.charAt(6));
+        int m0 = charToInt(dateString.charAt(offset + 5));
+        int m1 = charToInt(dateString.charAt(offset + 6));
         if(m0 < 0 || m0 > 1 || m1 < 0 || m1 > 9) {
-            return LocalDate.of(year, 1, 1);
+            return DateFields.pack(DateFields.YEAR, year, 1, 1, 0, 0, 0, 0);
         }
         int month = m0 * 10 + m1;
 
         //Day: first check if there are days
-        if(dateString.length() == 7 || dateString.charAt(7) != '-') {
-            return LocalDate.of(year, month, 1);
+        if(length == 7 || dateString.charAt(offset + 7) != '-' || length < 10) {
+            return DateFields.pack(DateFields.MONTH, year, month, 1, 0, 0, 0, 0);
         }
-        int d0 = charToInt(dateString.charAt(8));
-        int d1 = charToInt(dateString.charAt(9));
+        int d0 = charToInt(dateString.charAt(offset + 8));
+        int d1 = charToInt(dateString.charAt(offset + 9));
         if(d0 < 0 || d0 > 3 || d1 < 0 || d1 > 9) {
-            return LocalDate.of(year, month, 1);
+            return DateFields.pack(DateFields.MONTH, year, month, 1, 0, 0, 0, 0);
         }
         int day = d0 * 10 + d1;
 
         //Hour: first check if there are hours
-        if(dateString.length() == 10 || dateString.charAt(10) != 'T') {
-            return LocalDate.of(year, month, day);
+        if(length == 10 || dateString.charAt(offset + 10) != 'T' || length < 13) {
+            return DateFields.pack(DateFields.DAY, year, month, day, 0, 0, 0, 0);
         }
-        int h0 = charToInt(dateString.charAt(11));
-        int h1 = charToInt(dateString.charAt(12));
+        int h0 = charToInt(dateString.charAt(offset + 11));
+        int h1 = charToInt(dateString.charAt(offset + 12));
         if(h0 < 0 || h0 > 9 || h1 < 0 || h1 > 9) {
-            return LocalDate.of(year, month, day);
+            return DateFields.pack(DateFields.DAY, year, month, day, 0, 0, 0, 0);
         }
         int hour = h0 * 10 + h1;
 
         //Minute: first check if there are minutes
-        if(dateString.length() == 13 || dateString.charAt(13) != ':') {
-            return withZone(
-                year, month, day, hour, 0, 0, 0,
-                dateString, 13
-            );
-        }
-        int mi0 = charToInt(dateString.charAt(14));
-        int mi1 = charToInt(dateString.charAt(15));
+        if(length == 13 || dateString.charAt(offset + 13) != ':' || length < 16) {
+            return DateFields.pack(DateFields.HOUR, year, month, day, hour, 0, 0, 0);
+        }
+        int mi0 = charToInt(dateString.charAt(offset + 14));
+        int mi1 = charToInt(dateString.charAt(offset + 15));
         if(mi0 < 0 || mi0 > 5 || mi1 < 0 || mi1 > 9) {
-            return withZone(
-                year, month, day, hour, 0, 0, 0,
-                dateString, 13
-            );
+            return DateFields.pack(DateFields.HOUR, year, month, day, hour, 0, 0, 0);
         }
         int minute = mi0 * 10 + mi1;
 
         //Second: first check if there are seconds
-        if(dateString.length() == 16 || dateString.charAt(16) != ':') {
-            return withZone(
-                year, month, day, hour, minute, 0, 0,
-                dateString, 16
-            );
-        }
-        int s0 = charToInt(dateString.charAt(17));
-        int s1 = charToInt(dateString.charAt(18));
+        if(length == 16 || dateString.charAt(offset + 16) != ':' || length < 19) {
+            return DateFields.pack(DateFields.MINUTE, year, month, day, hour, minute, 0, 0);
+        }
+        int s0 = charToInt(dateString.charAt(offset + 17));
+        int s1 = charToInt(dateString.charAt(offset + 18));
         if(s0 < 0 || s0 > 5 || s1 < 0 || s1 > 9) {
-            return withZone(
-                year, month, day, hour, minute, 0, 0,
-                dateString, 16
-            );
+            return DateFields.pack(DateFields.MINUTE, year, month, day, hour, minute, 0, 0);
         }
         int second = s0 * 10 + s1;
 
         //Nanos: first check if there are second fractions
-        if(dateString.length() == 19 || dateString.charAt(19) != '.') {
-            return withZone(
-                year, month, day, hour, minute, second, 0,
-                dateString, 19
-            );
-        }
-
-        //Second fractions can be of length 1-9, so we first scan through them and then increase based on number
-        //of parsed digits
-        int nanos = 0;
-        int pos = 20;
-        while (pos < dateString.length()) {
-            int num = charToInt(dateString.charAt(pos));
+        if(length == 19 || dateString.charAt(offset + 19) != '.') {
+            return DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        }
+
+        //Second fractions can be of length 1-9. Only count them here, they are read when needed.
+        int end = Math.min(length, DateFields.FRACTION_START + DateFields.MAX_FRACTION_DIGITS);
+        int pos = DateFields.FRACTION_START;
+        while (pos < end) {
+            int num = charToInt(dateString.charAt(offset + pos));
             if(num < 0 || num > 9) {
                 break;
             }
-            nanos = nanos * 10 + num;
             pos++;
         }
-        int j = pos - 20;
-        while(j < 9 ) {
-            nanos *= 10;
-            j++;
-        }
-        return withZone(
-            year, month, day, hour, minute, second, nanos,
-            dateString, pos
+        return DateFields.pack(
+            DateFields.FRACTION, year, month, day, hour, minute, second,
+            pos - DateFields.FRACTION_START
         );
     }
 
-    //Taking in the date string here with position, rather than a substring, lets us avoid allocating a new String.
-    private static TemporalAccessor withZone(
-        int year, int month, int day,
-        int hour, int minute, int second, int nanos,
-        String dateString, int pos
-    ) {
-        if (pos == dateString.length()) {
-            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    static long scan(byte[] dateString, int offset, int length) {
+        //The common case of a full date time is scanned 8 bytes at a time. The rest is scanned as below.
+        if (SwarScanner.ENABLED && length >= 19) {
+            long fields = SwarScanner.scan(dateString, offset, length);
+            if (fields != DateFields.NONE) {
+                return fields;
+            }
+        }
+
+        //Year
+        if(length < 4) {
+            return DateFields.NONE;
+        }
+        byte y0 = dateString[offset];
+        int y1 = byteToInt(dateString[offset + 1]);
+        int y2 = byteToInt(dateString[offset + 2]);
+        int y3 = byteToInt(dateString[offset + 3]);
+        if(y0 < '0' || y0 > '9' || y1 < 0 || y1 > 9 || y2 < 0 || y2 > 9 || y3 < 0 || y3 > 9) {
+            return DateFields.NONE;
+        }
+        int year = byteToInt(y0) * 1000 + y1 * 100 + y2 * 10 + y3;
+
+
+        //Month - first check if there are months
+        if(length == 4 || dateString[offset + 4] != '-' || length < 7) {
+            return DateFields.pack(DateFields.YEAR, year, 1, 1, 0, 0, 0, 0);
+        }
+        int m0 = byteToInt(dateString[offset + 5]);
+        int m1 = byteToInt(dateString[offset + 6]);
+        if(m0 < 0 || m0 > 1 || m1 < 0 || m1 > 9) {
+            return DateFields.pack(DateFields.YEAR, year, 1, 1, 0, 0, 0, 0);
+        }
+        int month = m0 * 10 + m1;
+
+        //Day: first check if there are days
+        if(length == 7 || dateString[offset + 7] != '-' || length < 10) {
+            return DateFields.pack(DateFields.MONTH, year, month, 1, 0, 0, 0, 0);
+        }
+        int d0 = byteToInt(dateString[offset + 8]);
+        int d1 = byteToInt(dateString[offset + 9]);
+        if(d0 < 0 || d0 > 3 || d1 < 0 || d1 > 9) {
+            return DateFields.pack(DateFields.MONTH, year, month, 1, 0, 0, 0, 0);
+        }
+        int day = d0 * 10 + d1;
+
+        //Hour: first check if there are hours
+        if(length == 10 || dateString[offset + 10] != 'T' || length < 13) {
+            return DateFields.pack(DateFields.DAY, year, month, day, 0, 0, 0, 0);
+        }
+        int h0 = byteToInt(dateString[offset + 11]);
+        int h1 = byteToInt(dateString[offset + 12]);
+        if(h0 < 0 || h0 > 9 || h1 < 0 || h1 > 9) {
+            return DateFields.pack(DateFields.DAY, year, month, day, 0, 0, 0, 0);
+        }
+        int hour = h0 * 10 + h1;
+
+        //Minute: first check if there are minutes
+        if(length == 13 || dateString[offset + 13] != ':' || length < 16) {
+            return DateFields.pack(DateFields.HOUR, year, month, day, hour, 0, 0, 0);
+        }
+        int mi0 = byteToInt(dateString[offset + 14]);
+        int mi1 = byteToInt(dateString[offset + 15]);
+        if(mi0 < 0 || mi0 > 5 || mi1 < 0 || mi1 > 9) {
+            return DateFields.pack(DateFields.HOUR, year, month, day, hour, 0, 0, 0);
+        }
+        int minute = mi0 * 10 + mi1;
+
+        //Second: first check if there are seconds
+        if(length == 16 || dateString[offset + 16] != ':' || length < 19) {
+            return DateFields.pack(DateFields.MINUTE, year, month, day, hour, minute, 0, 0);
+        }
+        int s0 = byteToInt(dateString[offset + 17]);
+        int s1 = byteToInt(dateString[offset + 18]);
+        if(s0 < 0 || s0 > 5 || s1 < 0 || s1 > 9) {
+            return DateFields.pack(DateFields.MINUTE, year, month, day, hour, minute, 0, 0);
+        }
+        int second = s0 * 10 + s1;
+
+        //Nanos: first check if there are second fractions
+        if(length == 19 || dateString[offset + 19] != '.') {
+            return DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        }
+
+        //Second fractions can be of length 1-9. Only count them here, they are read when needed.
+        int end = Math.min(length, DateFields.FRACTION_START + DateFields.MAX_FRACTION_DIGITS);
+        int pos = DateFields.FRACTION_START;
+        while (pos < end) {
+            int num = byteToInt(dateString[offset + pos]);
+            if(num < 0 || num > 9) {
+                break;
+            }
+            pos++;
         }
-        ZoneId zone = parseZone(dateString, pos);
-        if (zone != null) {
-            return ZonedDateTime.of(
-                year, month, day, hour, minute, second, nanos,
-                zone
-            );
-        } else {
-            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        return DateFields.pack(
+            DateFields.FRACTION, year, month, day, hour, minute, second,
+            pos - DateFields.FRACTION_START
+        );
+    }
+
+    private static final int ROUND_UP_NANOS = 999_999_999;
+
+    //A dot without digits is no fraction for java.time, so it is rounded up too.
+    private static int roundUpFraction(CharSequence dateString, int offset, long fields) {
+        return DateFields.fractionDigits(fields) == 0 ? ROUND_UP_NANOS : parseFraction(dateString, offset, fields);
+    }
+
+    private static int roundUpFraction(byte[] dateString, int offset, long fields) {
+        return DateFields.fractionDigits(fields) == 0 ? ROUND_UP_NANOS : parseFraction(dateString, offset, fields);
+    }
+
+    static int parseFraction(CharSequence dateString, int offset, long fields) {
+        int digits = DateFields.fractionDigits(fields);
+        int fraction = 0;
+        for (int i = 0; i < digits; i++) {
+            fraction = fraction * 10 + charToInt(dateString.charAt(offset + DateFields.FRACTION_START + i));
         }
+        return DateFields.scaleFraction(fraction, digits);
     }
 
-    private static ZoneId parseZone(String dateString, int pos) {
-        //Fast-track for UTC, since we don't need to create a substring.
-        //Would love to have slices in Java.
-        if(dateString.charAt(pos) == 'Z') {
-            return ZoneOffset.UTC;
+    static int parseFraction(byte[] dateString, int offset, long fields) {
+        int digits = DateFields.fractionDigits(fields);
+        int fraction = 0;
+        for (int i = 0; i < digits; i++) {
+            fraction = fraction * 10 + byteToInt(dateString[offset + DateFields.FRACTION_START + i]);
         }
+        return DateFields.scaleFraction(fraction, digits);
+    }
+
+    static TemporalAccessor toTemporalAccessor(long fields, int nanos, ZoneId zone) {
         try {
-            return ZoneId.of(dateString.substring(pos));
+            int year = DateFields.year(fields);
+            int month = DateFields.month(fields);
+            int day = DateFields.day(fields);
+            if (!DateFields.hasTime(fields)) {
+                return LocalDate.of(year, month, day);
+            }
+            int hour = DateFields.hour(fields);
+            int minute = DateFields.minute(fields);
+            int second = DateFields.second(fields);
+            if (zone != null) {
+                return ZonedDateTime.of(
+                    year, month, day, hour, minute, second, nanos,
+                    zone
+                );
+            } else {
+                return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+            }
         } catch (DateTimeException e) {
+            ParseEvents.invalidDate(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Epoch seconds for the fields in the given zone, where no zone means UTC. Region zones are looked up in their
+     * ZoneTransitionTable, only dates after the end of the table need java.time objects to find the offset.
+     */
+    static long toEpochSecond(long fields, ZoneId zone) {
+        DateFields.validate(fields);
+        long localEpochSecond = DateFields.localEpochSecond(fields);
+        if (zone == null) {
+            return localEpochSecond;
+        }
+        if (zone instanceof ZoneOffset) {
+            return localEpochSecond - ((ZoneOffset) zone).getTotalSeconds();
+        }
+        long epochSecond = ZoneTransitionTable.of(zone).toEpochSecond(localEpochSecond);
+        if (epochSecond != ZoneTransitionTable.NOT_COVERED) {
+            return epochSecond;
+        }
+        //The fraction does not change which offset is picked, transitions are on whole seconds.
+        return ZonedDateTime.of(
+            DateFields.year(fields), DateFields.month(fields), DateFields.day(fields),
+            DateFields.hour(fields), DateFields.minute(fields), DateFields.second(fields), 0,
+            zone
+        ).toEpochSecond();
+    }
+
+    //The first and last second that epoch nanos can represent, and how far into them they go.
+    private static final long MIN_NANOS_SECOND = Math.floorDiv(Long.MIN_VALUE, NANOS_PER_SECOND);
+    private static final long MIN_NANOS_NANO = Math.floorMod(Long.MIN_VALUE, NANOS_PER_SECOND);
+    private static final long MAX_NANOS_SECOND = Math.floorDiv(Long.MAX_VALUE, NANOS_PER_SECOND);
+    private static final long MAX_NANOS_NANO = Math.floorMod(Long.MAX_VALUE, NANOS_PER_SECOND);
+
+    private static boolean fitsInEpochNanos(long epochSecond, int nanos) {
+        return !(epochSecond < MIN_NANOS_SECOND || (epochSecond == MIN_NANOS_SECOND && nanos < MIN_NANOS_NANO)
+            || epochSecond > MAX_NANOS_SECOND || (epochSecond == MAX_NANOS_SECOND && nanos > MAX_NANOS_NANO));
+    }
+
+    /**
+     * The range is checked before multiplying, since the seconds of the first dates that fit overflow on their own.
+     */
+    static long toEpochNanos(long epochSecond, int nanos) {
+        if (!fitsInEpochNanos(epochSecond, nanos)) {
+            throw new ArithmeticException("long overflow");
+        }
+        return epochSecond * NANOS_PER_SECOND + nanos;
+    }
+
+    private static long toParsedEpochNanos(long epochSecond, int nanos) {
+        long epochNanos = toEpochNanos(epochSecond, nanos);
+        if (epochNanos == NO_DATE) {
+            throw new ArithmeticException("long overflow");
+        }
+        return epochNanos;
+    }
+
+    private static long tryToEpochNanos(long epochSecond, int nanos) {
+        if (!fitsInEpochNanos(epochSecond, nanos)) {
+            return ParseStatus.error(ParseStatus.OUT_OF_RANGE, 0);
+        }
+        long epochNanos = epochSecond * NANOS_PER_SECOND + nanos;
+        //The first minutes of 1677-09-21 that fit in a long look like statuses, so they can't be returned.
+        return ParseStatus.isError(epochNanos) ? ParseStatus.error(ParseStatus.OUT_OF_RANGE, 0) : epochNanos;
+    }
+
+    /**
+     * The checks of DateUtils.toLong in Elasticsearch, without the Instant. The nanos are never negative, so a date is
+     * before the epoch exactly when its epoch second is. The Instant is only created for the message.
+     */
+    static long toDateNanos(long epochSecond, int nanos) {
+        if (epochSecond < 0) {
+            throw new IllegalArgumentException("date[" + Instant.ofEpochSecond(epochSecond, nanos)
+                + "] is before the epoch in 1970 and cannot be stored in nanosecond resolution");
+        }
+        if (epochSecond > MAX_NANOS_SECOND || (epochSecond == MAX_NANOS_SECOND && nanos > MAX_NANOS_NANO)) {
+            throw new IllegalArgumentException("date[" + Instant.ofEpochSecond(epochSecond, nanos)
+                + "] is after 2262-04-11T23:47:16.854775807 and cannot be stored in nanosecond resolution");
+        }
+        return epochSecond * NANOS_PER_SECOND + nanos;
+    }
+
+    //Taking in the date string here with positions, rather than a substring, lets us avoid allocating a new String.
+    //Returns null if there is no zone, or if it is not a valid zone.
+    static ZoneId parseZone(CharSequence dateString, int pos, int end) {
+        if (pos == end) {
+            return null;
+        }
+        //Fast-track for UTC and numeric offsets, since they are so common.
+        char first = dateString.charAt(pos);
+        if(first == 'Z') {
+            if (ParseStats.ENABLED) {
+                ParseStats.record(ParseStats.Counter.ZONE_UTC);
+            }
+            return ZoneOffset.UTC;
+        }
+        if (first == '+' || first == '-') {
+            ZoneOffset offset = parseOffset(dateString, pos, end);
+            if (offset != null) {
+                if (ParseStats.ENABLED) {
+                    ParseStats.record(ParseStats.Counter.ZONE_OFFSET);
+                }
+                return offset;
+            }
+        }
+        return ZoneIdCache.get(dateString, pos, end);
+    }
+
+    static ZoneId parseZone(byte[] dateString, int pos, int end) {
+        if (pos == end) {
+            return null;
+        }
+        byte first = dateString[pos];
+        if(first == 'Z') {
+            if (ParseStats.ENABLED) {
+                ParseStats.record(ParseStats.Counter.ZONE_UTC);
+            }
+            return ZoneOffset.UTC;
+        }
+        if (first == '+' || first == '-') {
+            ZoneOffset offset = parseOffset(dateString, pos, end);
+            if (offset != null) {
+                if (ParseStats.ENABLED) {
+                    ParseStats.record(ParseStats.Counter.ZONE_OFFSET);
+                }
+                return offset;
+            }
+        }
+        return ZoneIdCache.get(dateString, pos, end);
+    }
+
+    /*
+     * Parses +HH, +HH:mm and +HHmm offsets. Returns null for anything else, and for offsets out of range, which are
+     * then left to ZoneId.of. That way ZoneId.of still decides what is valid.
+     */
+    static ZoneOffset parseOffset(CharSequence dateString, int pos, int end) {
+        int length = end - pos;
+        if (length != 3 && length != 5 && length != 6) {
+            return null;
+        }
+        int h0 = charToInt(dateString.charAt(pos + 1));
+        int h1 = charToInt(dateString.charAt(pos + 2));
+        if(h0 < 0 || h0 > 9 || h1 < 0 || h1 > 9) {
+            return null;
+        }
+        int minuteStart = pos + 3;
+        if (length == 6) {
+            if (dateString.charAt(pos + 3) != ':') {
+                return null;
+            }
+            minuteStart++;
+        }
+        int minute = 0;
+        if (length != 3) {
+            int mi0 = charToInt(dateString.charAt(minuteStart));
+            int mi1 = charToInt(dateString.charAt(minuteStart + 1));
+            if(mi0 < 0 || mi0 > 5 || mi1 < 0 || mi1 > 9) {
+                return null;
+            }
+            minute = mi0 * 10 + mi1;
+        }
+        return Offsets.of(dateString.charAt(pos) == '-', h0 * 10 + h1, minute);
+    }
+
+    private static ZoneOffset parseOffset(byte[] dateString, int pos, int end) {
+        int length = end - pos;
+        if (length != 3 && length != 5 && length != 6) {
             return null;
         }
+        int h0 = byteToInt(dateString[pos + 1]);
+        int h1 = byteToInt(dateString[pos + 2]);
+        if(h0 < 0 || h0 > 9 || h1 < 0 || h1 > 9) {
+            return null;
+        }
+        int minuteStart = pos + 3;
+        if (length == 6) {
+            if (dateString[pos + 3] != ':') {
+                return null;
+            }
+            minuteStart++;
+        }
+        int minute = 0;
+        if (length != 3) {
+            int mi0 = byteToInt(dateString[minuteStart]);
+            int mi1 = byteToInt(dateString[minuteStart + 1]);
+            if(mi0 < 0 || mi0 > 5 || mi1 < 0 || mi1 > 9) {
+                return null;
+            }
+            minute = mi0 * 10 + mi1;
+        }
+        return Offsets.of(dateString[pos] == '-', h0 * 10 + h1, minute);
+    }
+
+    /**
+     * Every offset on a quarter hour, created up front. ZoneOffset.ofTotalSeconds has a cache too, but looking it up
+     * boxes the key. Offsets are valid from -18:00 to +18:00.
+     */
+    static final class Offsets {
+        private static final int QUARTER = 15 * 60;
+        private static final int MAX_QUARTERS = 18 * 4;
+        private static final int MAX_SECONDS = MAX_QUARTERS * QUARTER;
+        private static final ZoneOffset[] QUARTERS = new ZoneOffset[2 * MAX_QUARTERS + 1];
+
+        static {
+            for (int i = 0; i < QUARTERS.length; i++) {
+                QUARTERS[i] = ZoneOffset.ofTotalSeconds((i - MAX_QUARTERS) * QUARTER);
+            }
+        }
+
+        private Offsets() {
+        }
+
+        static ZoneOffset of(boolean negative, int hours, int minutes) {
+            int seconds = hours * 3600 + minutes * 60;
+            return ofTotalSeconds(negative ? -seconds : seconds);
+        }
+
+        /**
+         * @return the offset, or null if it is out of range.
+         */
+        static ZoneOffset ofTotalSeconds(int seconds) {
+            if (seconds > MAX_SECONDS || seconds < -MAX_SECONDS) {
+                return null;
+            }
+            if (seconds % QUARTER == 0) {
+                return QUARTERS[seconds / QUARTER + MAX_QUARTERS];
+            }
+            return ZoneOffset.ofTotalSeconds(seconds);
+        }
     }
 
     private static int charToInt(char c) {
         return c - '0';
     }
+
+    private static int byteToInt(byte b) {
+        return b - '0';
+    }
 }
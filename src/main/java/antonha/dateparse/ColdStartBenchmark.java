@@ -0,0 +1,203 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import com.ethlo.time.ITU;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * How long the parsers of Benchmark take in a new JVM, before anything is loaded or compiled. That is what short lived
+ * ingest workers and newly started nodes pay, and what the other benchmarks warm away.
+ *
+ * Every fork runs one invocation of one benchmark, so there are many forks and no warmup:
+ * <ul>
+ *     <li>classInit - loading and initializing the classes of the parser.</li>
+ *     <li>firstParse - the first parse, class initialization included.</li>
+ *     <li>first1000Parses - the first 1000 parses, of different dates, mostly in the interpreter.</li>
+ * </ul>
+ *
+ * The parsers are called directly, not through DateParsers, which would create all of them. Nothing in setUp may touch
+ * them either, or they would be initialized before they are measured. The region zone date is there for the zone
+ * rules, which are loaded on first use. regex, instant and itu can't parse it, and the time it takes them to fail is
+ * measured instead.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1, batchSize = 1)
+@Fork(value = 20)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+
+    private static final int PARSES = 1000;
+
+    @Param({
+            "es",
+            "es_strict",
+            "es_unresolved",
+            "regex",
+            "instant",
+            "itu",
+            "strict_char",
+            "char",
+            "char_epoch_millis",
+            "char_bytes",
+            "hybrid",
+    })
+    public String parser;
+
+    /*
+     * The seconds and fractions are replaced to get different dates, so all values must have the same layout up to
+     * the zone.
+     */
+    @Param({
+            "2023-01-01T23:38:34.000Z",
+            "2023-01-01T23:38:34.000Europe/Stockholm",
+    })
+    public String dateString;
+
+    private String[] dateStrings;
+    private byte[][] dateBytes;
+
+    @Setup
+    public void setUp() {
+        dateStrings = new String[PARSES];
+        dateBytes = new byte[PARSES][];
+        char[] chars = dateString.toCharArray();
+        for (int i = 0; i < PARSES; i++) {
+            int second = (34 + i) % 60;
+            chars[17] = (char) ('0' + second / 10);
+            chars[18] = (char) ('0' + second % 10);
+            chars[20] = (char) ('0' + i / 100);
+            chars[21] = (char) ('0' + i / 10 % 10);
+            chars[22] = (char) ('0' + i % 10);
+            dateStrings[i] = new String(chars);
+            dateBytes[i] = dateStrings[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Class<?> classInit() throws ClassNotFoundException {
+        return Class.forName(className(parser), true, ColdStartBenchmark.class.getClassLoader());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Object firstParse() {
+        return parse(parser, dateStrings[0], dateBytes[0]);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public int first1000Parses() {
+        int parsed = 0;
+        for (int i = 0; i < PARSES; i++) {
+            if (parse(parser, dateStrings[i], dateBytes[i]) != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    private static String className(String parser) {
+        switch (parser) {
+            case "es":
+            case "es_strict":
+            case "es_unresolved":
+                return "antonha.dateparse.ElasticsearchParsers";
+            case "regex":
+                return "antonha.dateparse.ColdStartBenchmark$Regex";
+            case "instant":
+                return "java.time.Instant";
+            case "itu":
+                return "com.ethlo.time.ITU";
+            case "strict_char":
+                return "antonha.dateparse.StrictCharDateParser";
+            case "char":
+            case "char_epoch_millis":
+            case "char_bytes":
+                return "antonha.dateparse.CharDateParser";
+            case "hybrid":
+                return "antonha.dateparse.HybridDateParser";
+            default:
+                throw new IllegalArgumentException("Unknown parser [" + parser + "]");
+        }
+    }
+
+    /*
+     * The same calls as in Benchmark. Failures return null like in DateParsers, the epoch millis are boxed.
+     */
+    private static Object parse(String parser, String dateString, byte[] bytes) {
+        try {
+            switch (parser) {
+                case "es":
+                    return ElasticsearchParsers.doParse(dateString);
+                case "es_strict":
+                    return ElasticsearchParsers.doParseStrict(dateString);
+                case "es_unresolved":
+                    return ElasticsearchParsers.doParseToEpochMillis(dateString);
+                case "regex":
+                    return Regex.parse(dateString);
+                case "instant":
+                    return Instant.parse(dateString);
+                case "itu":
+                    return ITU.parseDateTime(dateString);
+                case "strict_char":
+                    return StrictCharDateParser.parse(dateString);
+                case "char":
+                    return CharDateParser.parse(dateString);
+                case "char_epoch_millis":
+                    return CharDateParser.parseToEpochMillis(dateString);
+                case "char_bytes":
+                    return CharDateParser.parseToEpochMillis(bytes, 0, bytes.length);
+                case "hybrid":
+                    return new HybridDateParser().parse(dateString);
+                default:
+                    throw new IllegalArgumentException("Unknown parser [" + parser + "]");
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * benchRegex of Benchmark. Compiling the pattern is its class initialization.
+     */
+    static final class Regex {
+        private static final Pattern PATTERN =
+                Pattern.compile("([0-9]{4})-([0-9]{2})-([0-9]{2})T([0-9]{2}):([0-9]{2}):([0-9]){2}.?([0-9]+)Z");
+
+        private static Instant parse(String dateString) {
+            Matcher matcher = PATTERN.matcher(dateString);
+            matcher.find();
+            return ZonedDateTime.of(
+                    Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3)),
+                    Integer.parseInt(matcher.group(4)),
+                    Integer.parseInt(matcher.group(5)),
+                    Integer.parseInt(matcher.group(6)),
+                    Integer.parseInt(matcher.group(7)),
+                    ZoneOffset.UTC
+            ).toInstant();
+        }
+    }
+}
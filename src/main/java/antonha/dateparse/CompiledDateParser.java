@@ -0,0 +1,479 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * A date parser compiled from an Elasticsearch date format by {@link DateFormatCompiler}.
+ *
+ * The format is turned into a small program, one per alternative parser of the format, which is run against the
+ * input. There is no DateTimeParseContext, no map of parsed fields and no resolving step, the values go straight into
+ * the same packed fields that CharDateParser uses. Like DateTimeFormatter.parseObject, text after the end of the
+ * format is ignored.
+ *
+ * Instances are immutable and thread safe.
+ */
+public final class CompiledDateParser {
+
+    //Op codes, followed by their operands in the program.
+    static final int LITERAL = 0; //char
+    static final int VALUE = 1; //field, min width, max width, width reserved for the following fixed width values
+    static final int FRACTION = 2; //min width, max width, 1 if there is a decimal point
+    static final int OFFSET = 3; //index of the no offset text, offset flags
+    static final int ZONE_OR_OFFSET_ID = 4;
+    static final int OPTIONAL_START = 5; //program counter after the matching OPTIONAL_END
+    static final int OPTIONAL_END = 6;
+
+    //Fields set by the program. The first ones are the same as the DateFields precisions.
+    static final int YEAR = DateFields.YEAR;
+    static final int MONTH = DateFields.MONTH;
+    static final int DAY = DateFields.DAY;
+    static final int HOUR = DateFields.HOUR;
+    static final int MINUTE = DateFields.MINUTE;
+    static final int SECOND = DateFields.SECOND;
+    static final int NANO = 6;
+    static final int OFFSET_SECONDS = 7;
+    static final int ZONE = 8;
+    private static final int FIELD_COUNT = 8;
+
+    //How an offset is written, see DateTimeFormatterBuilder.appendOffset.
+    static final int OFFSET_COLON = 1;
+    static final int OFFSET_MINUTES = 2;
+    static final int OFFSET_MINUTES_REQUIRED = 4;
+    static final int OFFSET_SECONDS_ALLOWED = 8;
+    static final int OFFSET_SECONDS_REQUIRED = 16;
+
+    //The year can be up to 19 digits in a pattern, but only years that fit the packed fields are supported.
+    private static final int MAX_YEAR = 9999;
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private final String format;
+    private final int[][] programs;
+    private final String[] texts;
+    //Reused by every parse on the same thread, so that a parse allocates nothing but its result.
+    private final ThreadLocal<Context> contexts;
+
+    CompiledDateParser(String format, int[][] programs, String[] texts, int maxDepth) {
+        this.format = format;
+        this.programs = programs;
+        this.texts = texts;
+        this.contexts = ThreadLocal.withInitial(() -> new Context(maxDepth));
+    }
+
+    /**
+     * @return the parsed date, a LocalDate, LocalDateTime or ZonedDateTime like CharDateParser.parse, or null if no
+     * alternative of the format can parse the string.
+     */
+    public TemporalAccessor parse(CharSequence text) {
+        Context context = contexts.get();
+        for (int[] program : programs) {
+            long fields = context.run(program, texts, text);
+            if (fields != DateFields.NONE) {
+                return CharDateParser.toTemporalAccessor(fields, context.nanos(), context.zone());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return milliseconds since the epoch, where no zone means UTC, or CharDateParser.NO_DATE if no alternative of
+     * the format can parse the string.
+     */
+    public long parseToEpochMillis(CharSequence text) {
+        return parseToEpochMillis(text, false);
+    }
+
+    /**
+     * Like parseToEpochMillis, but only alternatives that parse the whole string match. This is how Elasticsearch
+     * parses formats combined with ||.
+     */
+    long parseToEpochMillis(CharSequence text, boolean fullMatch) {
+        Context context = contexts.get();
+        for (int[] program : programs) {
+            long fields = context.run(program, texts, text);
+            if (fields != DateFields.NONE && (!fullMatch || context.end == text.length())) {
+                long epochSecond = CharDateParser.toEpochSecond(fields, context.zone());
+                return Math.addExact(Math.multiplyExact(epochSecond, 1000L), context.nanos() / 1_000_000);
+            }
+        }
+        return CharDateParser.NO_DATE;
+    }
+
+    public String format() {
+        return format;
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledDateParser[" + format + "]";
+    }
+
+    /**
+     * The state of a parse, reset at the start of every run. Values are only set if their bit in the mask is, so that an
+     * optional section can be undone by restoring the position and the mask.
+     */
+    private static final class Context {
+        private final long[] values = new long[FIELD_COUNT];
+        private final int[] savedPos;
+        private final int[] savedMask;
+        private final int[] savedPc;
+        private int mask;
+        private ZoneId zone;
+        //Where the last run stopped parsing.
+        private int end;
+
+        private Context(int maxDepth) {
+            savedPos = new int[maxDepth];
+            savedMask = new int[maxDepth];
+            savedPc = new int[maxDepth];
+        }
+
+        /**
+         * @return the packed fields, or DateFields.NONE if the program does not match or the values are not a valid
+         * date.
+         */
+        long run(int[] program, String[] texts, CharSequence text) {
+            mask = 0;
+            zone = null;
+            int pos = 0;
+            int depth = 0;
+            int pc = 0;
+            while (pc < program.length) {
+                int next;
+                switch (program[pc]) {
+                    case OPTIONAL_START:
+                        savedPos[depth] = pos;
+                        savedMask[depth] = mask;
+                        savedPc[depth] = program[pc + 1];
+                        depth++;
+                        pc += 2;
+                        continue;
+                    case OPTIONAL_END:
+                        depth--;
+                        pc += 1;
+                        continue;
+                    case LITERAL:
+                        next = pos < text.length() && text.charAt(pos) == program[pc + 1] ? pos + 1 : -1;
+                        pc += 2;
+                        break;
+                    case VALUE:
+                        next = parseValue(text, pos, program[pc + 1], program[pc + 2], program[pc + 3], program[pc + 4]);
+                        pc += 5;
+                        break;
+                    case FRACTION:
+                        next = parseFraction(text, pos, program[pc + 1], program[pc + 2], program[pc + 3] != 0);
+                        pc += 4;
+                        break;
+                    case OFFSET:
+                        next = parseOffset(text, pos, texts[program[pc + 1]], program[pc + 2]);
+                        pc += 3;
+                        break;
+                    case ZONE_OR_OFFSET_ID:
+                        next = parseZoneOrOffsetId(text, pos);
+                        pc += 1;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown op code " + program[pc]);
+                }
+                if (next >= 0) {
+                    pos = next;
+                } else if (depth > 0) {
+                    //Like DateTimeFormatter, a failed optional section is skipped, along with anything it parsed.
+                    depth--;
+                    pos = savedPos[depth];
+                    mask = savedMask[depth];
+                    pc = savedPc[depth];
+                } else {
+                    return DateFields.NONE;
+                }
+            }
+            end = pos;
+            return resolve();
+        }
+
+        private boolean has(int field) {
+            return (mask & (1 << field)) != 0;
+        }
+
+        /**
+         * Sets a field, failing if it was already set to something else, like DateTimeParseContext.setParsedField.
+         */
+        private boolean set(int field, long value) {
+            if (has(field) && values[field] != value) {
+                return false;
+            }
+            values[field] = value;
+            mask |= 1 << field;
+            return true;
+        }
+
+        private int parseValue(CharSequence text, int pos, int field, int minWidth, int maxWidth, int reserved) {
+            int end = Math.min(text.length(), pos + maxWidth + reserved);
+            int digits = 0;
+            while (pos + digits < end && isDigit(text.charAt(pos + digits))) {
+                digits++;
+            }
+            if (digits < minWidth) {
+                return -1;
+            }
+            //Leave enough digits for the fixed width values that follow, like DateTimeFormatter's adjacent parsing.
+            if (reserved > 0) {
+                digits = Math.max(minWidth, digits - reserved);
+            }
+            long value = 0;
+            for (int i = 0; i < digits; i++) {
+                value = value * 10 + (text.charAt(pos + i) - '0');
+            }
+            return set(field, value) ? pos + digits : -1;
+        }
+
+        private int parseFraction(CharSequence text, int pos, int minWidth, int maxWidth, boolean decimalPoint) {
+            if (pos == text.length() || (decimalPoint && text.charAt(pos) != '.')) {
+                return minWidth > 0 ? -1 : pos;
+            }
+            if (decimalPoint) {
+                pos++;
+            }
+            int end = Math.min(text.length(), pos + maxWidth);
+            int fraction = 0;
+            int digits = 0;
+            while (pos + digits < end && isDigit(text.charAt(pos + digits))) {
+                fraction = fraction * 10 + (text.charAt(pos + digits) - '0');
+                digits++;
+            }
+            if (digits < minWidth) {
+                return -1;
+            }
+            return set(NANO, DateFields.scaleFraction(fraction, digits)) ? pos + digits : -1;
+        }
+
+        /**
+         * An offset like DateTimeFormatterBuilder.appendOffset parses it in strict mode.
+         */
+        private int parseOffset(CharSequence text, int pos, String noOffsetText, int flags) {
+            if (pos == text.length()) {
+                return noOffsetText.isEmpty() && set(OFFSET_SECONDS, 0) ? pos : -1;
+            }
+            if (!noOffsetText.isEmpty() && regionMatches(text, pos, noOffsetText)) {
+                return set(OFFSET_SECONDS, 0) ? pos + noOffsetText.length() : -1;
+            }
+            char sign = text.charAt(pos);
+            if (sign != '+' && sign != '-') {
+                return noOffsetText.isEmpty() && set(OFFSET_SECONDS, 0) ? pos : -1;
+            }
+            boolean colon = (flags & OFFSET_COLON) != 0;
+            int hours = twoDigits(text, pos + 1, false);
+            if (hours < 0 || hours > 23) {
+                return noOffsetText.isEmpty() && set(OFFSET_SECONDS, 0) ? pos : -1;
+            }
+            int end = pos + 3;
+            int minutes = 0;
+            int seconds = 0;
+            if ((flags & OFFSET_MINUTES) != 0) {
+                minutes = twoDigits(text, end, colon);
+                if (minutes >= 0) {
+                    end += colon ? 3 : 2;
+                    if ((flags & OFFSET_SECONDS_ALLOWED) != 0) {
+                        seconds = twoDigits(text, end, colon);
+                        if (seconds >= 0) {
+                            end += colon ? 3 : 2;
+                        } else if ((flags & OFFSET_SECONDS_REQUIRED) != 0) {
+                            return -1;
+                        } else {
+                            seconds = 0;
+                        }
+                    }
+                } else if ((flags & OFFSET_MINUTES_REQUIRED) != 0) {
+                    return -1;
+                } else {
+                    minutes = 0;
+                }
+            }
+            int offset = hours * 3600 + minutes * 60 + seconds;
+            return set(OFFSET_SECONDS, sign == '-' ? -offset : offset) ? end : -1;
+        }
+
+        /**
+         * A zone like DateTimeFormatterBuilder.appendZoneOrOffsetId parses it: an offset, an offset with a UTC, UT or
+         * GMT prefix, or the longest zone id at the position.
+         */
+        private int parseZoneOrOffsetId(CharSequence text, int pos) {
+            int length = text.length();
+            if (pos >= length) {
+                return -1;
+            }
+            char c = text.charAt(pos);
+            if (c == '+' || c == '-') {
+                return parsePrefixedOffset(text, pos, pos, "Z");
+            }
+            if (length >= pos + 2) {
+                char c1 = text.charAt(pos + 1);
+                if (c == 'U' && c1 == 'T') {
+                    if (length >= pos + 3 && text.charAt(pos + 2) == 'C') {
+                        return parsePrefixedOffset(text, pos, pos + 3, "0");
+                    }
+                    return parsePrefixedOffset(text, pos, pos + 2, "0");
+                }
+                if (c == 'G' && length >= pos + 3 && c1 == 'M' && text.charAt(pos + 2) == 'T') {
+                    if (length >= pos + 4 && text.charAt(pos + 3) == '0') {
+                        return setZone(ZoneIdCache.get(text, pos, pos + 4), pos + 4);
+                    }
+                    return parsePrefixedOffset(text, pos, pos + 3, "0");
+                }
+            }
+            int end = ZoneIdPrefixTree.match(text, pos);
+            if (end < 0) {
+                return c == 'Z' ? setZone(ZoneOffset.UTC, pos + 1) : -1;
+            }
+            return setZone(ZoneIdCache.get(text, pos, end), end);
+        }
+
+        private int parsePrefixedOffset(CharSequence text, int prefixPos, int pos, String noOffsetText) {
+            //A 0 or Z after the prefix is not part of the zone, the zone is just the prefix.
+            if (pos >= text.length() || text.charAt(pos) == '0' || text.charAt(pos) == 'Z') {
+                return setZone(prefixZone(text, prefixPos, pos), pos);
+            }
+            long savedOffset = values[OFFSET_SECONDS];
+            int savedMask = mask;
+            mask &= ~(1 << OFFSET_SECONDS);
+            int end = parseOffset(
+                text, pos, noOffsetText,
+                OFFSET_COLON | OFFSET_MINUTES | OFFSET_MINUTES_REQUIRED | OFFSET_SECONDS_ALLOWED
+            );
+            int offset = (int) values[OFFSET_SECONDS];
+            values[OFFSET_SECONDS] = savedOffset;
+            mask = savedMask;
+            if (end < 0) {
+                return prefixPos == pos ? -1 : setZone(prefixZone(text, prefixPos, pos), pos);
+            }
+            ZoneOffset zoneOffset = CharDateParser.Offsets.ofTotalSeconds(offset);
+            if (zoneOffset == null) {
+                return -1;
+            }
+            if (prefixPos == pos) {
+                return setZone(zoneOffset, end);
+            }
+            //Same zone as ZoneId.ofOffset(prefix, offset), without the substring.
+            return setZone(ZoneIdCache.get(text, prefixPos, end), end);
+        }
+
+        private static ZoneId prefixZone(CharSequence text, int prefixPos, int pos) {
+            return ZoneIdCache.get(text, prefixPos, pos);
+        }
+
+        private int setZone(ZoneId zone, int end) {
+            if (zone == null) {
+                return -1;
+            }
+            if (has(ZONE) && !zone.equals(this.zone)) {
+                return -1;
+            }
+            this.zone = zone;
+            mask |= 1 << ZONE;
+            return end;
+        }
+
+        /**
+         * Like the STRICT resolver: a year is required, month and day default to 1 and the time is only used as far
+         * as it goes from the hour. Invalid values fail instead of throwing.
+         */
+        private long resolve() {
+            if (!has(YEAR) || values[YEAR] < 0 || values[YEAR] > MAX_YEAR) {
+                return DateFields.NONE;
+            }
+            int year = (int) values[YEAR];
+            int month = has(MONTH) ? (int) Math.min(values[MONTH], 99) : 1;
+            int day = has(MONTH) && has(DAY) ? (int) Math.min(values[DAY], 99) : 1;
+            int precision = has(MONTH) ? (has(DAY) ? DateFields.DAY : DateFields.MONTH) : DateFields.YEAR;
+            int hour = 0;
+            int minute = 0;
+            int second = 0;
+            if (has(HOUR)) {
+                hour = (int) Math.min(values[HOUR], 99);
+                precision = DateFields.HOUR;
+                if (has(MINUTE)) {
+                    minute = (int) Math.min(values[MINUTE], 99);
+                    precision = DateFields.MINUTE;
+                    if (has(SECOND)) {
+                        second = (int) Math.min(values[SECOND], 99);
+                        precision = has(NANO) ? DateFields.FRACTION : DateFields.SECOND;
+                    }
+                }
+            } else if (has(ZONE) || has(OFFSET_SECONDS)) {
+                //A date with a zone is the start of that day in the zone.
+                precision = DateFields.HOUR;
+            }
+            if (!DateFields.isValid(year, month, day, hour, minute, second)) {
+                return DateFields.NONE;
+            }
+            if (!has(ZONE) && has(OFFSET_SECONDS) && Math.abs(values[OFFSET_SECONDS]) > MAX_OFFSET_SECONDS) {
+                return DateFields.NONE;
+            }
+            return DateFields.pack(precision, year, month, day, hour, minute, second, 0);
+        }
+
+        int nanos() {
+            return has(NANO) && has(SECOND) && has(MINUTE) && has(HOUR) ? (int) values[NANO] : 0;
+        }
+
+        ZoneId zone() {
+            if (has(ZONE)) {
+                return zone;
+            }
+            if (has(OFFSET_SECONDS)) {
+                return CharDateParser.Offsets.ofTotalSeconds((int) values[OFFSET_SECONDS]);
+            }
+            return null;
+        }
+
+        private static int twoDigits(CharSequence text, int pos, boolean colon) {
+            if (colon) {
+                if (pos >= text.length() || text.charAt(pos) != ':') {
+                    return -1;
+                }
+                pos++;
+            }
+            if (pos + 2 > text.length()) {
+                return -1;
+            }
+            char c0 = text.charAt(pos);
+            char c1 = text.charAt(pos + 1);
+            if (!isDigit(c0) || !isDigit(c1)) {
+                return -1;
+            }
+            int value = (c0 - '0') * 10 + (c1 - '0');
+            return value > 59 ? -1 : value;
+        }
+
+        private static boolean regionMatches(CharSequence text, int pos, String other) {
+            if (pos + other.length() > text.length()) {
+                return false;
+            }
+            for (int i = 0; i < other.length(); i++) {
+                if (text.charAt(pos + i) != other.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import com.ethlo.time.ITU;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The parsers of Benchmark, but on a large corpus of different date strings from DateCorpus instead of a single
+ * string, so that the branch predictor can't learn the input. Each invocation parses the next string of the corpus.
+ *
+ * The corpus files are written to the directory in the corpus.dir system property, or to es-date-parse-corpus in
+ * the temp directory. The regex benchmark is left out, since it only handles a single format.
+ *
+ * Run the main method to get bytes/op (gc.alloc.rate.norm) next to ns/op, or pass -prof gc to benchmarks.jar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class CorpusBenchmark {
+
+    @Param
+    public DateCorpus.Mix mix;
+
+    /**
+     * How many percent of the strings that are invalid.
+     */
+    @Param({"0", "5"})
+    public int invalidPercent;
+
+    private static final int CORPUS_SIZE = 1 << 16;
+
+    private String[] corpus;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Path dir = Path.of(System.getProperty(
+            "corpus.dir",
+            Path.of(System.getProperty("java.io.tmpdir"), "es-date-parse-corpus").toString()
+        ));
+        corpus = DateCorpus.load(dir, mix, CORPUS_SIZE, invalidPercent, 42);
+    }
+
+    private String nextDateString() {
+        return corpus[next++ & (CORPUS_SIZE - 1)];
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESParse() {
+        return ElasticsearchParsers.doParse(nextDateString());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESStrictParse() {
+        return ElasticsearchParsers.doParseStrict(nextDateString());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchStrictCharParser() {
+        try {
+            return StrictCharDateParser.parse(nextDateString());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchInstantParse() {
+        try {
+            return Instant.parse(nextDateString());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParser() {
+        try {
+            return CharDateParser.parse(nextDateString());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserEpochMillis() {
+        try {
+            return CharDateParser.parseToEpochMillis(nextDateString());
+        } catch (DateTimeException e) {
+            return CharDateParser.NO_DATE;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserTryEpochMillis() {
+        return CharDateParser.tryParseToEpochMillis(nextDateString());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchITUParser() {
+        try {
+            return ITU.parseDateTime(nextDateString());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(CorpusBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
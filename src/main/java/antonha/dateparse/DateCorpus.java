@@ -0,0 +1,173 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates date strings for the benchmarks, in mixes that look more like real traffic than a single hand-picked
+ * string does. A generated corpus is written to a file, one date per line, and read from the file in later runs, so
+ * that every fork and every run parses exactly the same strings.
+ */
+public final class DateCorpus {
+
+    public enum Mix {
+        /**
+         * Millisecond precision in UTC, which is what most clients send.
+         */
+        UTC_MILLIS,
+        /**
+         * 0-9 fraction digits in UTC.
+         */
+        FRACTIONS,
+        /**
+         * Numeric offsets, as +HH:mm, +HHmm and +HH.
+         */
+        OFFSETS,
+        /**
+         * Region zones, like Europe/Stockholm.
+         */
+        ZONES,
+        /**
+         * Dates without a time, or with only some of the time.
+         */
+        DATE_ONLY,
+        /**
+         * All of the above, mostly UTC_MILLIS.
+         */
+        MIXED
+    }
+
+    private static final List<String> OFFSETS = List.of(
+        "+01:00", "-05:00", "+05:30", "+09:00", "-03:00", "+0100", "-0800", "+0545", "+02", "-11"
+    );
+
+    private static final List<String> ZONES = List.of(
+        "Europe/Stockholm", "America/New_York", "Asia/Kolkata", "Australia/Sydney", "America/Sao_Paulo",
+        "Europe/London", "Asia/Tokyo", "UTC"
+    );
+
+    private static final DateTimeFormatter SECONDS = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss");
+
+    private static final long START = Instant.parse("1970-01-01T00:00:00Z").getEpochSecond();
+    private static final long END = Instant.parse("2038-01-19T00:00:00Z").getEpochSecond();
+
+    private DateCorpus() {
+    }
+
+    /**
+     * @param invalidPercent how many percent of the strings to corrupt so that they don't parse, or parse to an
+     *                       invalid date.
+     */
+    public static String[] generate(Mix mix, int size, int invalidPercent, long seed) {
+        Random random = new Random(seed);
+        String[] dates = new String[size];
+        for (int i = 0; i < size; i++) {
+            String date = generate(mix, random);
+            dates[i] = random.nextInt(100) < invalidPercent ? corrupt(date, random) : date;
+        }
+        return dates;
+    }
+
+    /**
+     * Reads the corpus from a file in dir, generating and writing the file first if it does not exist. The file name
+     * contains all the arguments, so different corpora don't overwrite each other.
+     */
+    public static String[] load(Path dir, Mix mix, int size, int invalidPercent, long seed) {
+        Path file = dir.resolve(mix.name().toLowerCase() + "-" + size + "-" + invalidPercent + "-" + seed + ".txt");
+        try {
+            if (!Files.exists(file)) {
+                Files.createDirectories(dir);
+                Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+                Files.write(tmp, List.of(generate(mix, size, invalidPercent, seed)), StandardCharsets.UTF_8);
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return Files.readAllLines(file, StandardCharsets.UTF_8).toArray(new String[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load corpus " + file, e);
+        }
+    }
+
+    private static String generate(Mix mix, Random random) {
+        LocalDateTime time = LocalDateTime.ofEpochSecond(
+            START + (long) (random.nextDouble() * (END - START)), random.nextInt(1_000_000_000), ZoneOffset.UTC
+        );
+        switch (mix) {
+            case UTC_MILLIS:
+                return withFraction(time, 3) + "Z";
+            case FRACTIONS:
+                return withFraction(time, random.nextInt(10)) + "Z";
+            case OFFSETS:
+                return withFraction(time, 3) + OFFSETS.get(random.nextInt(OFFSETS.size()));
+            case ZONES:
+                return withFraction(time, 3) + ZONES.get(random.nextInt(ZONES.size()));
+            case DATE_ONLY:
+                String date = withFraction(time, 0);
+                //yyyy, yyyy-MM, yyyy-MM-dd, yyyy-MM-ddTHH and yyyy-MM-ddTHH:mm
+                int[] lengths = {4, 7, 10, 13, 16};
+                return date.substring(0, lengths[random.nextInt(lengths.length)]);
+            case MIXED:
+                int kind = random.nextInt(10);
+                Mix[] mixes = {
+                    Mix.UTC_MILLIS, Mix.UTC_MILLIS, Mix.UTC_MILLIS, Mix.UTC_MILLIS, Mix.FRACTIONS, Mix.FRACTIONS,
+                    Mix.OFFSETS, Mix.OFFSETS, Mix.ZONES, Mix.DATE_ONLY
+                };
+                return generate(mixes[kind], random);
+            default:
+                throw new IllegalArgumentException("Unknown mix " + mix);
+        }
+    }
+
+    private static String withFraction(LocalDateTime time, int digits) {
+        String seconds = SECONDS.format(time);
+        if (digits == 0) {
+            return seconds;
+        }
+        String nanos = String.format("%09d", time.getNano());
+        return seconds + "." + nanos.substring(0, digits);
+    }
+
+    /**
+     * The kinds of broken dates found in dirty log data: impossible values, typos and things that are not dates at
+     * all. The lenient parsers accept a valid prefix, so cutting a date short or adding garbage at the end is not
+     * enough to make it invalid.
+     */
+    private static String corrupt(String date, Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return date.length() >= 7 ? date.substring(0, 5) + "13" + date.substring(7) : date + "-13";
+            case 1:
+                return date.length() >= 10 ? date.substring(0, 5) + "02-30" + date.substring(10) : date + "-02-30";
+            case 2:
+                return date.length() >= 13 ? date.substring(0, 11) + "25" + date.substring(13) : date + "-01-01T25";
+            case 3:
+                int pos = random.nextInt(4);
+                return date.substring(0, pos) + "x" + date.substring(pos + 1);
+            default:
+                return "-";
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DateTimeException;
+import java.time.Month;
+import java.time.temporal.ChronoField;
+
+/**
+ * The date and time fields found by a scan of a date string, packed into a single long.
+ *
+ * Packing the fields lets the scanning code be written once per input type (String, byte[]), while everything that
+ * happens after the scan (building java.time objects, computing epoch values) only has to be written once. It also
+ * means that a scan never allocates.
+ *
+ * The fraction itself does not fit, so only the number of fraction digits is stored. The digits are re-read from the
+ * input when needed.
+ */
+final class DateFields {
+
+    /**
+     * Returned by the scanners when the input does not even start with a year.
+     */
+    static final long NONE = -1L;
+
+    //How much of the date string that was present, from least to most precise.
+    static final int YEAR = 0;
+    static final int MONTH = 1;
+    static final int DAY = 2;
+    static final int HOUR = 3;
+    static final int MINUTE = 4;
+    static final int SECOND = 5;
+    static final int FRACTION = 6;
+
+    /**
+     * strict_date_optional_time reads at most 9 fraction digits, any following digits are treated as the zone.
+     */
+    static final int MAX_FRACTION_DIGITS = 9;
+
+    /**
+     * Where the fraction digits start in the date string.
+     */
+    static final int FRACTION_START = 20;
+
+    static final int SECONDS_PER_DAY = 86400;
+
+    /**
+     * Days from 0000-01-01 to 1970-01-01, proleptic Gregorian.
+     */
+    private static final long DAYS_0000_TO_1970 = (146097L * 5L) - (30L * 365L + 7L);
+
+    private static final int SECOND_SHIFT = 0;
+    private static final int MINUTE_SHIFT = 6;
+    private static final int HOUR_SHIFT = 12;
+    private static final int DAY_SHIFT = 19;
+    private static final int MONTH_SHIFT = 25;
+    private static final int YEAR_SHIFT = 30;
+    private static final int PRECISION_SHIFT = 44;
+    private static final int DIGITS_SHIFT = 47;
+
+    private DateFields() {
+    }
+
+    /*
+     * The ranges are those that the scanners can produce, not the valid calendar ranges: month can be 0-19, day 0-39,
+     * hour 0-99. Validation is done when the fields are used.
+     */
+    static long pack(
+        int precision, int year, int month, int day,
+        int hour, int minute, int second, int fractionDigits
+    ) {
+        return ((long) fractionDigits << DIGITS_SHIFT)
+            | ((long) precision << PRECISION_SHIFT)
+            | ((long) year << YEAR_SHIFT)
+            | ((long) month << MONTH_SHIFT)
+            | ((long) day << DAY_SHIFT)
+            | ((long) hour << HOUR_SHIFT)
+            | ((long) minute << MINUTE_SHIFT)
+            | ((long) second << SECOND_SHIFT);
+    }
+
+    static int precision(long fields) {
+        return (int) (fields >>> PRECISION_SHIFT) & 0x7;
+    }
+
+    static int year(long fields) {
+        return (int) (fields >>> YEAR_SHIFT) & 0x3FFF;
+    }
+
+    static int month(long fields) {
+        return (int) (fields >>> MONTH_SHIFT) & 0x1F;
+    }
+
+    static int day(long fields) {
+        return (int) (fields >>> DAY_SHIFT) & 0x3F;
+    }
+
+    static int hour(long fields) {
+        return (int) (fields >>> HOUR_SHIFT) & 0x7F;
+    }
+
+    static int minute(long fields) {
+        return (int) (fields >>> MINUTE_SHIFT) & 0x3F;
+    }
+
+    static int second(long fields) {
+        return (int) (fields >>> SECOND_SHIFT) & 0x3F;
+    }
+
+    static int fractionDigits(long fields) {
+        return (int) (fields >>> DIGITS_SHIFT) & 0xF;
+    }
+
+    /**
+     * @return true if the fields contain a time, and thus possibly a zone.
+     */
+    static boolean hasTime(long fields) {
+        return precision(fields) >= HOUR;
+    }
+
+    /**
+     * @return where the zone starts, relative to the start of the date string. Only valid if there is a time.
+     */
+    static int zoneStart(long fields) {
+        switch (precision(fields)) {
+            case HOUR:
+                return 13;
+            case MINUTE:
+                return 16;
+            case SECOND:
+                return 19;
+            default:
+                return FRACTION_START + fractionDigits(fields);
+        }
+    }
+
+    /**
+     * Scales parsed fraction digits to nanos, e.g. the digits "12" parse to 12 which is 120_000_000 nanos.
+     */
+    static int scaleFraction(int fraction, int digits) {
+        int j = digits;
+        while (j < MAX_FRACTION_DIGITS) {
+            fraction *= 10;
+            j++;
+        }
+        return fraction;
+    }
+
+    /**
+     * Checks the fields the same way LocalDate.of and LocalDateTime.of does, and throws the same kind of
+     * DateTimeException if they are invalid. Nothing is allocated unless the fields are invalid.
+     */
+    static void validate(long fields) {
+        try {
+            int year = year(fields);
+            int month = month(fields);
+            int day = day(fields);
+            ChronoField.MONTH_OF_YEAR.checkValidValue(month);
+            ChronoField.DAY_OF_MONTH.checkValidValue(day);
+            if (day > 28 && day > lengthOfMonth(year, month)) {
+                if (day == 29) {
+                    throw new DateTimeException("Invalid date 'February 29' as '" + year + "' is not a leap year");
+                }
+                throw new DateTimeException("Invalid date '" + Month.of(month).name() + " " + day + "'");
+            }
+            ChronoField.HOUR_OF_DAY.checkValidValue(hour(fields));
+        } catch (DateTimeException e) {
+            ParseEvents.invalidDate(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Same checks as validate, but without exceptions. Takes separate values, since out of range minutes and seconds
+     * can't be packed.
+     */
+    static boolean isValid(int year, int month, int day, int hour, int minute, int second) {
+        return month >= 1 && month <= 12
+            && day >= 1 && (day <= 28 || day <= lengthOfMonth(year, month))
+            && hour >= 0 && hour <= 23
+            && minute >= 0 && minute <= 59
+            && second >= 0 && second <= 59;
+    }
+
+    /**
+     * Fills the fields that the date string did not have with their last value, the way the round up parsers of
+     * range queries do: 2023 becomes 2023-12-31T23:59:59 and 2024-02 becomes 2024-02-29T23:59:59. The precision is
+     * then at least SECOND, so the zone start has to be found before rounding. The fraction is left to the caller.
+     */
+    static long roundUp(long fields) {
+        int precision = precision(fields);
+        int year = year(fields);
+        int month = precision >= MONTH ? month(fields) : 12;
+        int day = precision >= DAY ? day(fields) : lengthOfMonth(year, month);
+        int hour = precision >= HOUR ? hour(fields) : 23;
+        int minute = precision >= MINUTE ? minute(fields) : 59;
+        int second = precision >= SECOND ? second(fields) : 59;
+        return pack(Math.max(precision, SECOND), year, month, day, hour, minute, second, fractionDigits(fields));
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days since 1970-01-01 for a valid date, the same as LocalDate.toEpochDay but without the LocalDate. Only
+     * non-negative years are supported, which is all that the scanners produce.
+     */
+    static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * The date of a day since 1970-01-01, the same as LocalDate.ofEpochDay but packed, with precision DAY. Only days
+     * from 0000-01-01 on are supported, like for epochDay.
+     */
+    static long ofEpochDay(long epochDay) {
+        //Days since 0000-03-01, so that the leap day is last in the year.
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            //Only the first two months of year 0, but keep it the same as in LocalDate.
+            long adjustCycles = (zeroDay + 1) / 146097 - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * 146097;
+        }
+        long yearEstimate = (400 * zeroDay + 591) / 146097;
+        long dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+        if (dayOfYear < 0) {
+            yearEstimate--;
+            dayOfYear = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+        }
+        int marchMonth = ((int) dayOfYear * 5 + 2) / 153;
+        int month = (marchMonth + 2) % 12 + 1;
+        int day = (int) dayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+        int year = (int) (yearEstimate + adjust + marchMonth / 10);
+        return pack(DAY, year, month, day, 0, 0, 0, 0);
+    }
+
+    /**
+     * Seconds since the epoch for the local date time in the fields, as if it was in UTC. The fields must be valid.
+     */
+    static long localEpochSecond(long fields) {
+        long epochDay = epochDay(year(fields), month(fields), day(fields));
+        return epochDay * SECONDS_PER_DAY + hour(fields) * 3600 + minute(fields) * 60 + second(fields);
+    }
+}
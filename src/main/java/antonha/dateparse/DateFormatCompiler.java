@@ -0,0 +1,505 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles Elasticsearch date formats into {@link CompiledDateParser}s, which parse without going through
+ * DateTimeFormatter.
+ *
+ * A format is either one of the named Elasticsearch formats supported by {@link #forName(String)}, or a
+ * DateTimeFormatter pattern. Patterns support the letters u, y, M, d, H, m, s, S, X, x, Z and VV, quoted literals
+ * and optional sections in brackets, which covers the numeric formats that are common in mappings. Text fields like
+ * month names, two digit years and anything locale dependent are not supported and fail to compile. Like in
+ * Elasticsearch, y is read as the proleptic year, since there is never an era to combine it with. Years above 9999
+ * can't be packed into DateFields, so the compiled parsers don't match them even when the pattern would.
+ *
+ * Formats can also be built with a {@link Builder}, which mirrors the parts of DateTimeFormatterBuilder that the
+ * Elasticsearch formats use.
+ */
+public final class DateFormatCompiler {
+
+    private DateFormatCompiler() {
+    }
+
+    /**
+     * @return a parser for a named Elasticsearch format, or for a pattern if the name is not a known format.
+     */
+    public static CompiledDateParser compile(String format) {
+        CompiledDateParser named = forName(format);
+        return named != null ? named : compilePattern(format);
+    }
+
+    /**
+     * @return a parser for one of the named Elasticsearch formats, or null if the name is not supported.
+     */
+    public static CompiledDateParser forName(String name) {
+        switch (name) {
+            case "strict_date_optional_time":
+                return strictYearMonthDay(new Builder(name))
+                    .optionalStart()
+                    .appendLiteral('T')
+                    .optionalStart()
+                    .appendValue(ChronoField.HOUR_OF_DAY, 2)
+                    .optionalStart()
+                    .appendLiteral(':')
+                    .appendValue(ChronoField.MINUTE_OF_HOUR, 2)
+                    .optionalStart()
+                    .appendLiteral(':')
+                    .appendValue(ChronoField.SECOND_OF_MINUTE, 2)
+                    .optionalStart()
+                    .appendFraction(1, 9, true)
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendLiteral(',')
+                    .appendFraction(1, 9, false)
+                    .optionalEnd()
+                    .optionalEnd()
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendZoneOrOffsetId()
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendOffset("+HHmm", "Z")
+                    .optionalEnd()
+                    .optionalEnd()
+                    .optionalEnd()
+                    .toParser();
+            case "strict_date_optional_time_nanos":
+                return strictHourMinuteSecond(strictYearMonthDay(new Builder(name))
+                    .optionalStart()
+                    .appendLiteral('T'))
+                    .optionalStart()
+                    .appendFraction(1, 9, true)
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendLiteral(',')
+                    .appendFraction(1, 9, false)
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendZoneOrOffsetId()
+                    .optionalEnd()
+                    .optionalStart()
+                    .appendOffset("+HHmm", "Z")
+                    .optionalEnd()
+                    .optionalEnd()
+                    .toParser();
+            case "strict_date_time":
+                return strictDateTime(strictDateTime(new Builder(name))
+                    .appendZoneOrOffsetId()
+                    .or())
+                    .appendOffset("+HHmm", "Z")
+                    .toParser();
+            case "basic_date_time":
+                return basicDateTime(basicDateTime(new Builder(name))
+                    .appendZoneOrOffsetId()
+                    .or())
+                    .appendOffset("+HHmm", "Z")
+                    .toParser();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return a parser for a DateTimeFormatter pattern, resolved strictly.
+     * @throws IllegalArgumentException if the pattern is invalid, or uses something that is not supported.
+     */
+    public static CompiledDateParser compilePattern(String pattern) {
+        return new Builder(pattern).appendPattern(pattern).toParser();
+    }
+
+    private static Builder strictYearMonthDay(Builder builder) {
+        return builder.appendValue(ChronoField.YEAR, 4)
+            .optionalStart()
+            .appendLiteral('-')
+            .appendValue(ChronoField.MONTH_OF_YEAR, 2)
+            .optionalStart()
+            .appendLiteral('-')
+            .appendValue(ChronoField.DAY_OF_MONTH, 2)
+            .optionalEnd()
+            .optionalEnd();
+    }
+
+    private static Builder strictHourMinuteSecond(Builder builder) {
+        return builder.appendValue(ChronoField.HOUR_OF_DAY, 2)
+            .appendLiteral(':')
+            .appendValue(ChronoField.MINUTE_OF_HOUR, 2)
+            .appendLiteral(':')
+            .appendValue(ChronoField.SECOND_OF_MINUTE, 2);
+    }
+
+    private static Builder strictDateTime(Builder builder) {
+        return strictHourMinuteSecond(strictYearMonthDay(builder).appendLiteral('T'))
+            .optionalStart()
+            .appendFraction(1, 9, true)
+            .optionalEnd();
+    }
+
+    private static Builder basicDateTime(Builder builder) {
+        return builder.appendValue(ChronoField.YEAR, 4)
+            .appendValue(ChronoField.MONTH_OF_YEAR, 2)
+            .appendValue(ChronoField.DAY_OF_MONTH, 2)
+            .appendLiteral('T')
+            .appendValue(ChronoField.HOUR_OF_DAY, 2)
+            .appendValue(ChronoField.MINUTE_OF_HOUR, 2)
+            .appendValue(ChronoField.SECOND_OF_MINUTE, 2)
+            .appendFraction(1, 9, true);
+    }
+
+    /**
+     * Builds a format, one element at a time. Each call to or() starts a new alternative, which is tried if the
+     * previous ones can't parse the string, like the multiple parsers of an Elasticsearch format.
+     */
+    public static final class Builder {
+        private final String format;
+        private final List<int[]> programs = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private int[] ops = new int[32];
+        private int size;
+        //Program counters of the OPTIONAL_START ops that are not yet ended.
+        private int[] open = new int[8];
+        private int depth;
+        private int maxDepth;
+        //The variable width value that following fixed width values are adjacent to, or -1.
+        private int activeValue = -1;
+
+        public Builder(String format) {
+            this.format = format;
+        }
+
+        public Builder appendLiteral(char c) {
+            add(CompiledDateParser.LITERAL, c);
+            activeValue = -1;
+            return this;
+        }
+
+        public Builder appendLiteral(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                appendLiteral(literal.charAt(i));
+            }
+            return this;
+        }
+
+        public Builder appendValue(ChronoField field, int width) {
+            return appendValue(field, width, width);
+        }
+
+        /**
+         * A value of min to max digits. Fixed width values directly after a variable width value are parsed as
+         * adjacent values, so uuuuMMdd reads the last four digits as month and day.
+         */
+        public Builder appendValue(ChronoField field, int minWidth, int maxWidth) {
+            if (minWidth < 1 || maxWidth > 19 || minWidth > maxWidth) {
+                throw new IllegalArgumentException("Invalid widths " + minWidth + "-" + maxWidth + " for " + field);
+            }
+            int value = size;
+            add(CompiledDateParser.VALUE, field(field), minWidth, maxWidth, 0);
+            if (minWidth == maxWidth && activeValue >= 0) {
+                reserve(maxWidth);
+            } else {
+                activeValue = value;
+            }
+            return this;
+        }
+
+        /**
+         * Fraction of a second, with or without a leading decimal point.
+         */
+        public Builder appendFraction(int minWidth, int maxWidth, boolean decimalPoint) {
+            if (minWidth < 0 || maxWidth > 9 || minWidth > maxWidth || maxWidth < 1) {
+                throw new IllegalArgumentException("Invalid fraction widths " + minWidth + "-" + maxWidth);
+            }
+            add(CompiledDateParser.FRACTION, minWidth, maxWidth, decimalPoint ? 1 : 0);
+            if (minWidth == maxWidth && !decimalPoint && activeValue >= 0) {
+                reserve(maxWidth);
+            } else {
+                activeValue = -1;
+            }
+            return this;
+        }
+
+        /**
+         * An offset, with a pattern from DateTimeFormatterBuilder.appendOffset that starts with +HH.
+         */
+        public Builder appendOffset(String pattern, String noOffsetText) {
+            add(CompiledDateParser.OFFSET, texts.size(), offsetFlags(pattern));
+            texts.add(noOffsetText);
+            activeValue = -1;
+            return this;
+        }
+
+        public Builder appendZoneOrOffsetId() {
+            add(CompiledDateParser.ZONE_OR_OFFSET_ID);
+            activeValue = -1;
+            return this;
+        }
+
+        public Builder optionalStart() {
+            if (depth == open.length) {
+                open = Arrays.copyOf(open, depth * 2);
+            }
+            open[depth++] = size;
+            maxDepth = Math.max(maxDepth, depth);
+            add(CompiledDateParser.OPTIONAL_START, -1);
+            activeValue = -1;
+            return this;
+        }
+
+        public Builder optionalEnd() {
+            if (depth == 0) {
+                throw new IllegalStateException("optionalEnd without optionalStart in " + format);
+            }
+            add(CompiledDateParser.OPTIONAL_END);
+            ops[open[--depth] + 1] = size;
+            activeValue = -1;
+            return this;
+        }
+
+        /**
+         * Ends the current alternative and starts a new one.
+         */
+        public Builder or() {
+            programs.add(finish());
+            return this;
+        }
+
+        public Builder appendPattern(String pattern) {
+            PatternParser.parse(this, pattern);
+            return this;
+        }
+
+        public CompiledDateParser toParser() {
+            programs.add(finish());
+            return new CompiledDateParser(
+                format,
+                programs.toArray(new int[0][]),
+                texts.toArray(new String[0]),
+                maxDepth
+            );
+        }
+
+        private int[] finish() {
+            //Like DateTimeFormatterBuilder.toFormatter, optional sections left open end with the format.
+            while (depth > 0) {
+                optionalEnd();
+            }
+            int[] program = Arrays.copyOf(ops, size);
+            size = 0;
+            activeValue = -1;
+            return program;
+        }
+
+        private void reserve(int width) {
+            ops[activeValue + 4] += width;
+        }
+
+        private void add(int... values) {
+            if (size + values.length > ops.length) {
+                ops = Arrays.copyOf(ops, Math.max(ops.length * 2, size + values.length));
+            }
+            System.arraycopy(values, 0, ops, size, values.length);
+            size += values.length;
+        }
+
+        private static int field(ChronoField field) {
+            switch (field) {
+                case YEAR:
+                case YEAR_OF_ERA:
+                    return CompiledDateParser.YEAR;
+                case MONTH_OF_YEAR:
+                    return CompiledDateParser.MONTH;
+                case DAY_OF_MONTH:
+                    return CompiledDateParser.DAY;
+                case HOUR_OF_DAY:
+                    return CompiledDateParser.HOUR;
+                case MINUTE_OF_HOUR:
+                    return CompiledDateParser.MINUTE;
+                case SECOND_OF_MINUTE:
+                    return CompiledDateParser.SECOND;
+                default:
+                    throw new IllegalArgumentException("Unsupported field " + field);
+            }
+        }
+
+        private static int offsetFlags(String pattern) {
+            switch (pattern) {
+                case "+HH":
+                    return 0;
+                case "+HHmm":
+                    return CompiledDateParser.OFFSET_MINUTES;
+                case "+HH:mm":
+                    return CompiledDateParser.OFFSET_COLON | CompiledDateParser.OFFSET_MINUTES;
+                case "+HHMM":
+                    return CompiledDateParser.OFFSET_MINUTES | CompiledDateParser.OFFSET_MINUTES_REQUIRED;
+                case "+HH:MM":
+                    return CompiledDateParser.OFFSET_COLON | CompiledDateParser.OFFSET_MINUTES
+                        | CompiledDateParser.OFFSET_MINUTES_REQUIRED;
+                case "+HHMMss":
+                    return CompiledDateParser.OFFSET_MINUTES | CompiledDateParser.OFFSET_MINUTES_REQUIRED
+                        | CompiledDateParser.OFFSET_SECONDS_ALLOWED;
+                case "+HH:MM:ss":
+                    return CompiledDateParser.OFFSET_COLON | CompiledDateParser.OFFSET_MINUTES
+                        | CompiledDateParser.OFFSET_MINUTES_REQUIRED | CompiledDateParser.OFFSET_SECONDS_ALLOWED;
+                case "+HHMMSS":
+                    return CompiledDateParser.OFFSET_MINUTES | CompiledDateParser.OFFSET_MINUTES_REQUIRED
+                        | CompiledDateParser.OFFSET_SECONDS_ALLOWED | CompiledDateParser.OFFSET_SECONDS_REQUIRED;
+                case "+HH:MM:SS":
+                    return CompiledDateParser.OFFSET_COLON | CompiledDateParser.OFFSET_MINUTES
+                        | CompiledDateParser.OFFSET_MINUTES_REQUIRED | CompiledDateParser.OFFSET_SECONDS_ALLOWED
+                        | CompiledDateParser.OFFSET_SECONDS_REQUIRED;
+                case "+HHmmss":
+                    return CompiledDateParser.OFFSET_MINUTES | CompiledDateParser.OFFSET_SECONDS_ALLOWED;
+                case "+HH:mm:ss":
+                    return CompiledDateParser.OFFSET_COLON | CompiledDateParser.OFFSET_MINUTES
+                        | CompiledDateParser.OFFSET_SECONDS_ALLOWED;
+                default:
+                    throw new IllegalArgumentException("Unsupported offset pattern " + pattern);
+            }
+        }
+    }
+
+    /**
+     * Reads a DateTimeFormatter pattern into a Builder, the same way DateTimeFormatterBuilder.appendPattern does for
+     * the letters that are supported.
+     */
+    private static final class PatternParser {
+
+        private PatternParser() {
+        }
+
+        static void parse(Builder builder, String pattern) {
+            for (int pos = 0; pos < pattern.length(); pos++) {
+                char c = pattern.charAt(pos);
+                if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')) {
+                    int start = pos;
+                    while (pos + 1 < pattern.length() && pattern.charAt(pos + 1) == c) {
+                        pos++;
+                    }
+                    letters(builder, pattern, c, pos - start + 1);
+                } else if (c == '\'') {
+                    int start = pos++;
+                    while (pos < pattern.length()) {
+                        if (pattern.charAt(pos) == '\'') {
+                            if (pos + 1 < pattern.length() && pattern.charAt(pos + 1) == '\'') {
+                                pos++;
+                            } else {
+                                break;
+                            }
+                        }
+                        pos++;
+                    }
+                    if (pos >= pattern.length()) {
+                        throw new IllegalArgumentException("Pattern ends with an incomplete string literal: " + pattern);
+                    }
+                    String literal = pattern.substring(start + 1, pos);
+                    builder.appendLiteral(literal.isEmpty() ? "'" : literal.replace("''", "'"));
+                } else if (c == '[') {
+                    builder.optionalStart();
+                } else if (c == ']') {
+                    builder.optionalEnd();
+                } else if (c == '{' || c == '}' || c == '#') {
+                    throw new IllegalArgumentException("Pattern includes reserved character: '" + c + "'");
+                } else {
+                    builder.appendLiteral(c);
+                }
+            }
+        }
+
+        private static void letters(Builder builder, String pattern, char c, int count) {
+            switch (c) {
+                case 'u':
+                case 'y':
+                    if (count == 2) {
+                        break;
+                    }
+                    builder.appendValue(ChronoField.YEAR, count, 19);
+                    return;
+                case 'M':
+                    value(builder, ChronoField.MONTH_OF_YEAR, count);
+                    return;
+                case 'd':
+                    value(builder, ChronoField.DAY_OF_MONTH, count);
+                    return;
+                case 'H':
+                    value(builder, ChronoField.HOUR_OF_DAY, count);
+                    return;
+                case 'm':
+                    value(builder, ChronoField.MINUTE_OF_HOUR, count);
+                    return;
+                case 's':
+                    value(builder, ChronoField.SECOND_OF_MINUTE, count);
+                    return;
+                case 'S':
+                    if (count > 9) {
+                        break;
+                    }
+                    builder.appendFraction(count, count, false);
+                    return;
+                case 'X':
+                    if (count > 5) {
+                        break;
+                    }
+                    builder.appendOffset(OFFSET_PATTERNS[count], "Z");
+                    return;
+                case 'x':
+                    if (count > 5) {
+                        break;
+                    }
+                    builder.appendOffset(OFFSET_PATTERNS[count], count == 1 ? "+00" : count % 2 == 0 ? "+0000" : "+00:00");
+                    return;
+                case 'Z':
+                    if (count <= 3) {
+                        builder.appendOffset("+HHMM", "+0000");
+                        return;
+                    }
+                    if (count == 5) {
+                        builder.appendOffset("+HH:MM:ss", "Z");
+                        return;
+                    }
+                    break;
+                case 'V':
+                    if (count != 2) {
+                        throw new IllegalArgumentException("Pattern letter count must be 2: " + c);
+                    }
+                    builder.appendZoneOrOffsetId();
+                    return;
+                default:
+                    break;
+            }
+            throw new IllegalArgumentException(
+                "Unsupported pattern letters '" + String.valueOf(c).repeat(count) + "' in " + pattern
+            );
+        }
+
+        private static void value(Builder builder, ChronoField field, int count) {
+            if (count > 2) {
+                throw new IllegalArgumentException("Unsupported pattern letter count " + count + " for " + field);
+            }
+            if (count == 1) {
+                builder.appendValue(field, 1, 19);
+            } else {
+                builder.appendValue(field, 2);
+            }
+        }
+
+        //Offset patterns for X and x, by letter count.
+        private static final String[] OFFSET_PATTERNS = {null, "+HHmm", "+HHMM", "+HH:MM", "+HHMMss", "+HH:MM:ss"};
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * date_nanos with 3, 6 and 9 fraction digits: parseToDateNanos straight from the fields, against the Instant round trip
+ * it replaces and against java.time the way Elasticsearch does it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class DateNanosBenchmark {
+
+    @Param({
+            "2023-01-01T23:38:34.123Z",
+            "2023-01-01T23:38:34.123456Z",
+            "2023-01-01T23:38:34.123456789Z",
+    })
+    public String dateString;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserDateNanos() {
+        return CharDateParser.parseToDateNanos(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserDateNanosBytes() {
+        return CharDateParser.parseToDateNanos(bytes, 0, bytes.length);
+    }
+
+    /*
+     * What date_nanos needs without parseToDateNanos: the parsed date as an Instant, then the range checks.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserInstant() {
+        Instant instant = DateParsers.toInstant(CharDateParser.parse(dateString));
+        return ElasticsearchParsers.toDateNanos(instant);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchESDateNanos() {
+        return ElasticsearchParsers.doParseToDateNanos(dateString);
+    }
+}
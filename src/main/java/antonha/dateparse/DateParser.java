@@ -0,0 +1,44 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * The contract shared by all the parsers in this repository, so that they can be swapped for each other. The
+ * implementations are created by DateParsers, by name.
+ *
+ * Implementations are thread safe, and don't throw for input that is not a valid date: a string that is not a date
+ * and a date with invalid values, like February 30, are both null.
+ */
+public interface DateParser {
+
+    /**
+     * @return the parsed date, or null if the string is not a valid date for this parser.
+     */
+    TemporalAccessor parse(String dateString);
+
+    /**
+     * Milliseconds since the epoch of the parsed date, converted the way Elasticsearch does it: missing fields are
+     * the start of their period, and dates without a zone are in UTC.
+     *
+     * @return the epoch millis, or CharDateParser.NO_DATE if parse would have returned null.
+     */
+    default long parseToEpochMillis(String dateString) {
+        Instant instant = DateParsers.toInstant(parse(dateString));
+        return instant == null ? CharDateParser.NO_DATE : instant.toEpochMilli();
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All the parsers, through the DateParser interface, on the date strings of Benchmark. Every parser supports these
+ * strings. hybrid_shadow is hybrid with 1% of the dates verified in the background, to show what that costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class DateParserBenchmark {
+
+    @Param({
+            "es",
+            "es_unresolved",
+            "es_strict",
+            "regex",
+            "instant",
+            "itu",
+            "char",
+            "strict_char",
+            "hybrid",
+            "hybrid_shadow",
+    })
+    public String implementation;
+
+    @Param({
+            "2023-01-01T23:38:34.000Z",
+            "1970-01-01T00:16:12.675Z",
+            "5050-01-01T12:02:01.123Z",
+    })
+    public String dateString;
+
+    private DateParser parser;
+
+    @Setup
+    public void setUp() {
+        parser = DateParsers.forName(implementation);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchParse() {
+        return parser.parse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchParseToEpochMillis() {
+        return parser.parseToEpochMillis(dateString);
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import com.ethlo.time.ITU;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DateParser implementations for the parsers of Benchmark, by name:
+ *
+ * <ul>
+ *     <li>es - strict_date_optional_time, parsed by java.time the way Elasticsearch does it.</li>
+ *     <li>es_unresolved - es with a cached Format, and epoch millis from the unresolved fields.</li>
+ *     <li>es_strict - strict_date_time without a zone, parsed by java.time.</li>
+ *     <li>regex - the regex of Benchmark, for millisecond UTC dates only.</li>
+ *     <li>instant - Instant.parse.</li>
+ *     <li>itu - ITU.parseDateTime from ethlo/itu, for RFC 3339 date times only.</li>
+ *     <li>char - CharDateParser.</li>
+ *     <li>strict_char - StrictCharDateParser.</li>
+ *     <li>hybrid - HybridDateParser, CharDateParser with java.time for what it can't parse.</li>
+ *     <li>hybrid_shadow - hybrid, with 1% of the dates verified against es in the background.</li>
+ * </ul>
+ *
+ * Only es, es_unresolved, char and hybrid parse strict_date_optional_time. The others are here to compare speed with.
+ */
+public final class DateParsers {
+
+    private static final Map<String, DateParser> PARSERS;
+
+    static {
+        Map<String, DateParser> parsers = new LinkedHashMap<>();
+        parsers.put("es", new JavaTimeParser(ElasticsearchParsers::doParse));
+        parsers.put("es_unresolved", new DateParser() {
+            private final DateParser resolved = new JavaTimeParser(ElasticsearchParsers::doParseCachedFormat);
+
+            @Override
+            public TemporalAccessor parse(String dateString) {
+                return resolved.parse(dateString);
+            }
+
+            @Override
+            public long parseToEpochMillis(String dateString) {
+                return ElasticsearchParsers.doParseToEpochMillis(dateString);
+            }
+        });
+        parsers.put("es_strict", new JavaTimeParser(ElasticsearchParsers::doParseStrict));
+        parsers.put("regex", DateParsers::parseRegex);
+        parsers.put("instant", dateString -> {
+            try {
+                return Instant.parse(dateString);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        });
+        parsers.put("itu", dateString -> {
+            try {
+                return ITU.parseDateTime(dateString);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        });
+        parsers.put("char", new CharParser());
+        parsers.put("strict_char", new DateParser() {
+            @Override
+            public TemporalAccessor parse(String dateString) {
+                return StrictCharDateParser.parse(dateString);
+            }
+
+            @Override
+            public long parseToEpochMillis(String dateString) {
+                return StrictCharDateParser.parseToEpochMillis(dateString);
+            }
+        });
+        parsers.put("hybrid", new HybridDateParser());
+        PARSERS = Collections.unmodifiableMap(parsers);
+    }
+
+    private DateParsers() {
+    }
+
+    /**
+     * @return the names that forName accepts.
+     */
+    public static Set<String> names() {
+        Set<String> names = new LinkedHashSet<>(PARSERS.keySet());
+        names.add("hybrid_shadow");
+        return names;
+    }
+
+    /**
+     * hybrid_shadow starts a verifier thread, so it is not created until it is asked for. Then it is shared like the
+     * other parsers, and its thread lives as long as the JVM.
+     */
+    private static final class Shadow {
+        private static final DateParser PARSER = new ShadowVerifyingDateParser(
+            PARSERS.get("hybrid"), PARSERS.get("es"), 0.01
+        );
+    }
+
+    /**
+     * @return the parser with the given name. The parsers are shared, every call with the same name returns the same
+     * parser.
+     */
+    public static DateParser forName(String name) {
+        if (name.equals("hybrid_shadow")) {
+            return Shadow.PARSER;
+        }
+        DateParser parser = PARSERS.get(name);
+        if (parser == null) {
+            throw new IllegalArgumentException("Unknown parser [" + name + "], expected one of " + names());
+        }
+        return parser;
+    }
+
+    /**
+     * Converts a parsed date to an Instant like Elasticsearch does: missing fields are the start of their period, and
+     * a date without a zone is in UTC.
+     *
+     * @return the instant, or null if parsed is null.
+     */
+    public static Instant toInstant(TemporalAccessor parsed) {
+        if (parsed == null) {
+            return null;
+        }
+        if (!parsed.isSupported(ChronoField.YEAR)) {
+            return Instant.from(parsed);
+        }
+        LocalDateTime local = localDateTime(parsed);
+        ZoneId zone = parsed.query(TemporalQueries.zone());
+        if (zone == null) {
+            return local.toInstant(ZoneOffset.UTC);
+        }
+        return local.toInstant(zone.getRules().getOffset(local));
+    }
+
+    private static LocalDateTime localDateTime(TemporalAccessor parsed) {
+        int year = parsed.get(ChronoField.YEAR);
+        int month = get(parsed, ChronoField.MONTH_OF_YEAR, 1);
+        int day = get(parsed, ChronoField.DAY_OF_MONTH, 1);
+        return LocalDate.of(year, month, day).atTime(
+            get(parsed, ChronoField.HOUR_OF_DAY, 0),
+            get(parsed, ChronoField.MINUTE_OF_HOUR, 0),
+            get(parsed, ChronoField.SECOND_OF_MINUTE, 0),
+            get(parsed, ChronoField.NANO_OF_SECOND, 0)
+        );
+    }
+
+    private static int get(TemporalAccessor parsed, ChronoField field, int defaultValue) {
+        return parsed.isSupported(field) ? parsed.get(field) : defaultValue;
+    }
+
+    private static final Pattern REGEX = Pattern.compile(
+        "([0-9]{4})-([0-9]{2})-([0-9]{2})T([0-9]{2}):([0-9]{2}):([0-9]{2})\\.([0-9]{3})Z"
+    );
+
+    private static TemporalAccessor parseRegex(String dateString) {
+        Matcher matcher = REGEX.matcher(dateString);
+        if (!matcher.lookingAt()) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.of(
+                Integer.parseInt(matcher.group(1)),
+                Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)),
+                Integer.parseInt(matcher.group(4)),
+                Integer.parseInt(matcher.group(5)),
+                Integer.parseInt(matcher.group(6)),
+                Integer.parseInt(matcher.group(7)) * 1_000_000,
+                ZoneOffset.UTC
+            );
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The java.time parsers only check the values of the fields when they are resolved. Elasticsearch does that when
+     * it converts the parsed fields to a date, so that is done here too, to find out if the date is valid.
+     */
+    static final class JavaTimeParser implements DateParser {
+        private final Function<String, TemporalAccessor> parser;
+
+        JavaTimeParser(Function<String, TemporalAccessor> parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public TemporalAccessor parse(String dateString) {
+            TemporalAccessor parsed = parser.apply(dateString);
+            if (parsed == null) {
+                return null;
+            }
+            try {
+                toInstant(parsed);
+                return parsed;
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public long parseToEpochMillis(String dateString) {
+            TemporalAccessor parsed = parser.apply(dateString);
+            if (parsed == null) {
+                return CharDateParser.NO_DATE;
+            }
+            try {
+                return toInstant(parsed).toEpochMilli();
+            } catch (DateTimeException e) {
+                return CharDateParser.NO_DATE;
+            }
+        }
+    }
+
+    static final class CharParser implements DateParser {
+        @Override
+        public TemporalAccessor parse(String dateString) {
+            try {
+                return CharDateParser.parse(dateString);
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public long parseToEpochMillis(String dateString) {
+            long millis = CharDateParser.tryParseToEpochMillis(dateString);
+            return ParseStatus.isError(millis) ? CharDateParser.NO_DATE : millis;
+        }
+    }
+}
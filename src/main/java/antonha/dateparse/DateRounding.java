@@ -0,0 +1,223 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.zone.ZoneRules;
+
+/**
+ * Rounds dates down to the start of their minute, hour, day, week, month, quarter or year in a time zone, which is
+ * the key of their date_histogram bucket. parseToBucketKey does it straight from the parsed fields, without the
+ * ZonedDateTime, truncatedTo and conversion back to epoch millis that it would take with java.time.
+ *
+ * The start of the bucket is found in the local time of the zone, and resolved like ZonedDateTime.truncatedTo does:
+ * the offset of the date is kept if it is valid at the start, a start in an overlap otherwise gets the earlier
+ * offset, and a start in a gap is moved forward by the length of the gap. Weeks start on Monday.
+ *
+ * Zones with a fixed offset are plain arithmetic. Other zones use the ZoneTransitionTable of the zone, which is looked
+ * up once, when the rounding is created. Dates that the table does not cover are rounded with java.time.
+ *
+ * Immutable and thread safe.
+ */
+public final class DateRounding {
+
+    public enum Unit {
+        MINUTE, HOUR, DAY, WEEK, MONTH, QUARTER, YEAR
+    }
+
+    /**
+     * 0000-01-01T00:00 and 10000-01-01T00:00 local time. Local times outside them have years that DateFields can't
+     * handle: negative ones, and ones that don't fit in the packed fields.
+     */
+    private static final long MIN_LOCAL = DateFields.epochDay(0, 1, 1) * DateFields.SECONDS_PER_DAY;
+    private static final long END_LOCAL = DateFields.epochDay(10000, 1, 1) * DateFields.SECONDS_PER_DAY;
+
+    private final Unit unit;
+    private final ZoneId zone;
+    //Null if the zone has a fixed offset, which is then fixedOffset.
+    private final ZoneTransitionTable table;
+    private final int fixedOffset;
+
+    public DateRounding(Unit unit, ZoneId zone) {
+        this.unit = unit;
+        this.zone = zone;
+        ZoneRules rules = zone.getRules();
+        if (rules.isFixedOffset()) {
+            this.table = null;
+            this.fixedOffset = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+        } else {
+            this.table = ZoneTransitionTable.of(zone);
+            this.fixedOffset = 0;
+        }
+    }
+
+    public Unit unit() {
+        return unit;
+    }
+
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * Parses the date string like CharDateParser.parseToEpochMillis, and rounds it. Throws DateTimeException for
+     * invalid dates, just like parse.
+     *
+     * @return the bucket key as epoch millis, or CharDateParser.NO_DATE if parse would have returned null.
+     */
+    public long parseToBucketKey(CharSequence dateString) {
+        return parseToBucketKey(dateString, 0, dateString.length());
+    }
+
+    public long parseToBucketKey(CharSequence text, int offset, int length) {
+        long fields = CharDateParser.scan(text, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return CharDateParser.NO_DATE;
+        }
+        ZoneId dateZone = null;
+        if (DateFields.hasTime(fields)) {
+            dateZone = CharDateParser.parseZone(text, offset + DateFields.zoneStart(fields), offset + length);
+        }
+        //The fraction is not parsed at all, since the buckets are whole minutes or longer.
+        return roundEpochSecond(CharDateParser.toEpochSecond(fields, dateZone));
+    }
+
+    public long parseToBucketKey(byte[] bytes, int offset, int length) {
+        long fields = CharDateParser.scan(bytes, offset, length);
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        if (fields == DateFields.NONE) {
+            return CharDateParser.NO_DATE;
+        }
+        ZoneId dateZone = null;
+        if (DateFields.hasTime(fields)) {
+            dateZone = CharDateParser.parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        }
+        return roundEpochSecond(CharDateParser.toEpochSecond(fields, dateZone));
+    }
+
+    /**
+     * @return the bucket key of the epoch millis, as epoch millis.
+     */
+    public long round(long epochMillis) {
+        return roundEpochSecond(Math.floorDiv(epochMillis, 1000));
+    }
+
+    private long roundEpochSecond(long epochSecond) {
+        int offset = table == null ? fixedOffset : table.offsetAt(epochSecond);
+        if (offset == ZoneTransitionTable.OFFSET_NOT_COVERED) {
+            return roundWithJavaTime(epochSecond);
+        }
+        long local = epochSecond + offset;
+        if (local < MIN_LOCAL || local >= END_LOCAL) {
+            return roundWithJavaTime(epochSecond);
+        }
+        long start = toEpochSecond(truncate(local), offset);
+        return start == ZoneTransitionTable.NOT_COVERED ? roundWithJavaTime(epochSecond) : start * 1000;
+    }
+
+    /**
+     * @return the start of the bucket of the local time, as a local time.
+     */
+    private long truncate(long local) {
+        switch (unit) {
+            case MINUTE:
+                return Math.floorDiv(local, 60) * 60;
+            case HOUR:
+                return Math.floorDiv(local, 3600) * 3600;
+            default:
+                break;
+        }
+        long epochDay = Math.floorDiv(local, DateFields.SECONDS_PER_DAY);
+        switch (unit) {
+            case DAY:
+                break;
+            case WEEK:
+                //1970-01-01 was a Thursday, so Mondays are 3 days off from a multiple of 7.
+                epochDay -= Math.floorMod(epochDay + 3, 7);
+                break;
+            default:
+                long date = DateFields.ofEpochDay(epochDay);
+                epochDay = DateFields.epochDay(DateFields.year(date), firstMonth(DateFields.month(date)), 1);
+        }
+        return epochDay * DateFields.SECONDS_PER_DAY;
+    }
+
+    private int firstMonth(int month) {
+        switch (unit) {
+            case MONTH:
+                return month;
+            case QUARTER:
+                return (month - 1) / 3 * 3 + 1;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @return the epoch second of the local start of a bucket, with the offset of the date if it is valid there, or
+     * NOT_COVERED.
+     */
+    private long toEpochSecond(long localStart, int offset) {
+        if (table == null) {
+            return localStart - fixedOffset;
+        }
+        long epochSecond = localStart - offset;
+        if (table.offsetAt(epochSecond) == offset) {
+            return epochSecond;
+        }
+        //A gap or the other offset of an overlap, which the table resolves like ZonedDateTime.
+        return table.toEpochSecond(localStart);
+    }
+
+    private long roundWithJavaTime(long epochSecond) {
+        ZonedDateTime date = Instant.ofEpochSecond(epochSecond).atZone(zone);
+        LocalDateTime local = date.toLocalDateTime();
+        LocalDateTime start;
+        switch (unit) {
+            case MINUTE:
+                start = local.truncatedTo(ChronoUnit.MINUTES);
+                break;
+            case HOUR:
+                start = local.truncatedTo(ChronoUnit.HOURS);
+                break;
+            case DAY:
+                start = local.truncatedTo(ChronoUnit.DAYS);
+                break;
+            case WEEK:
+                start = local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+                break;
+            default:
+                start = LocalDate.of(local.getYear(), firstMonth(local.getMonthValue()), 1).atStartOfDay();
+        }
+        return ZonedDateTime.ofLocal(start, zone, date.getOffset()).toEpochSecond() * 1000;
+    }
+
+    @Override
+    public String toString() {
+        return unit + " in " + zone;
+    }
+}
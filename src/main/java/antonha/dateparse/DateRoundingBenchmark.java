@@ -0,0 +1,95 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * date_histogram bucket keys: DateRounding straight from the parsed fields, against parsing to a ZonedDateTime and
+ * truncating it in the zone of the histogram.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class DateRoundingBenchmark {
+
+    @Param({
+            "HOUR",
+            "DAY",
+            "MONTH",
+    })
+    public DateRounding.Unit unit;
+
+    @Param({
+            "UTC",
+            "+05:30",
+            "Europe/Stockholm",
+    })
+    public String zone;
+
+    @Param({
+            "2023-01-01T23:38:34.123Z",
+    })
+    public String dateString;
+
+    private byte[] bytes;
+    private DateRounding rounding;
+    private ZoneId zoneId;
+
+    @Setup
+    public void setUp() {
+        bytes = dateString.getBytes(StandardCharsets.UTF_8);
+        zoneId = ZoneId.of(zone);
+        rounding = new DateRounding(unit, zoneId);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchDateRounding() {
+        return rounding.parseToBucketKey(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchDateRoundingBytes() {
+        return rounding.parseToBucketKey(bytes, 0, bytes.length);
+    }
+
+    /*
+     * The two step way: parse, then round the ZonedDateTime in the zone of the histogram.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserTruncate() {
+        ZonedDateTime date = DateParsers.toInstant(CharDateParser.parse(dateString)).atZone(zoneId);
+        switch (unit) {
+            case HOUR:
+                date = date.truncatedTo(ChronoUnit.HOURS);
+                break;
+            case DAY:
+                date = date.truncatedTo(ChronoUnit.DAYS);
+                break;
+            default:
+                date = date.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+        return date.toInstant().toEpochMilli();
+    }
+}
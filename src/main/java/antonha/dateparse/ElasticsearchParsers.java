@@ -1,13 +1,26 @@
 package antonha.dateparse;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.Format;
 import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.time.format.ResolverStyle;
 import java.time.format.SignStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalQueries;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static java.time.temporal.ChronoField.*;
 import static java.time.temporal.ChronoField.NANO_OF_SECOND;
@@ -87,6 +100,139 @@ public class ElasticsearchParsers {
         return (TemporalAccessor) STRICT_DATE_OPTIONAL_TIME_FORMATTER.toFormat().parseObject(string, new ParsePosition(0));
     }
 
+    /*
+     * doParse creates a Format and a ParsePosition for every date. The Format is thread safe and can be created once,
+     * and a ParsePosition can be reused by resetting it.
+     */
+    private static final Format STRICT_DATE_OPTIONAL_TIME_FORMAT = STRICT_DATE_OPTIONAL_TIME_FORMATTER.toFormat();
+
+    private static final ThreadLocal<ParsePosition> POSITION = ThreadLocal.withInitial(() -> new ParsePosition(0));
+
+    private static ParsePosition position() {
+        ParsePosition position = POSITION.get();
+        position.setIndex(0);
+        position.setErrorIndex(-1);
+        return position;
+    }
+
+    /**
+     * The same as doParse, without the Format and ParsePosition per date.
+     */
+    static TemporalAccessor doParseCachedFormat(String string) {
+        return (TemporalAccessor) STRICT_DATE_OPTIONAL_TIME_FORMAT.parseObject(string, position());
+    }
+
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    /**
+     * The epoch millis of doParse, converted the way DateParsers.toInstant does, or CharDateParser.NO_DATE if there is
+     * no valid date. The fields are parsed but not resolved: resolving creates a LocalDate, a LocalTime and a map
+     * entry for every field that is then used once. Only the fields needed for the instant are read and checked here.
+     */
+    static long doParseToEpochMillis(String string) {
+        TemporalAccessor parsed = STRICT_DATE_OPTIONAL_TIME_FORMATTER.parseUnresolved(string, position());
+        if (parsed == null) {
+            return CharDateParser.NO_DATE;
+        }
+        ZoneId zone = parsed.query(TemporalQueries.zoneId());
+        boolean hasOffset = parsed.isSupported(OFFSET_SECONDS);
+        int year = (int) parsed.getLong(YEAR);
+        if ((zone != null && hasOffset) || year < 0) {
+            //Two zones, or a year that DateFields can't handle. Both are rare, and left to the resolver.
+            return resolvedEpochMillis(doParse(string));
+        }
+        if (hasOffset) {
+            //Offsets like +19:00 are parsed, but resolving them fails, so doParse gives null.
+            long offsetSeconds = parsed.getLong(OFFSET_SECONDS);
+            if (Math.abs(offsetSeconds) > MAX_OFFSET_SECONDS) {
+                return CharDateParser.NO_DATE;
+            }
+            zone = ZoneOffset.ofTotalSeconds((int) offsetSeconds);
+        }
+        int month = get(parsed, MONTH_OF_YEAR, 1);
+        int day = get(parsed, DAY_OF_MONTH, 1);
+        int hour = get(parsed, HOUR_OF_DAY, 0);
+        int minute = get(parsed, MINUTE_OF_HOUR, 0);
+        int second = get(parsed, SECOND_OF_MINUTE, 0);
+        if (!DateFields.isValid(year, month, day, hour, minute, second)) {
+            return CharDateParser.NO_DATE;
+        }
+        long fields = DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        return CharDateParser.toEpochSecond(fields, zone) * 1000 + get(parsed, NANO_OF_SECOND, 0) / 1_000_000;
+    }
+
+    /*
+     * Fields that are not in the date string at all are not there, values that do not fit in an int are not valid.
+     */
+    private static int get(TemporalAccessor parsed, ChronoField field, int defaultValue) {
+        if (!parsed.isSupported(field)) {
+            return defaultValue;
+        }
+        long value = parsed.getLong(field);
+        return value == (int) value ? (int) value : -1;
+    }
+
+    private static long resolvedEpochMillis(TemporalAccessor parsed) {
+        try {
+            return parsed == null ? CharDateParser.NO_DATE : DateParsers.toInstant(parsed).toEpochMilli();
+        } catch (DateTimeException e) {
+            return CharDateParser.NO_DATE;
+        }
+    }
+
+    /*
+     * date_nanos: the Instant of doParse, converted to a long by DateUtils.toLong, which only accepts instants from the
+     * epoch to 2262-04-11T23:47:16.854775807Z.
+     */
+    private static final Instant MAX_NANOSECOND_INSTANT = Instant.ofEpochSecond(0, Long.MAX_VALUE);
+
+    static long doParseToDateNanos(String string) {
+        TemporalAccessor parsed = doParse(string);
+        return parsed == null ? CharDateParser.NO_DATE : toDateNanos(DateParsers.toInstant(parsed));
+    }
+
+    static long toDateNanos(Instant instant) {
+        if (instant.isBefore(Instant.EPOCH)) {
+            throw new IllegalArgumentException("date[" + instant + "] is before the epoch in 1970 and cannot be "
+                + "stored in nanosecond resolution");
+        }
+        if (instant.isAfter(MAX_NANOSECOND_INSTANT)) {
+            throw new IllegalArgumentException("date[" + instant + "] is after 2262-04-11T23:47:16.854775807 and "
+                + "cannot be stored in nanosecond resolution");
+        }
+        return instant.getEpochSecond() * 1_000_000_000 + instant.getNano();
+    }
+
+    /*
+     * The round up parser of strict_date_optional_time, used for the upper bounds of range queries. Missing fields get
+     * their last value, so that 2023-01-01 means 2023-01-01T23:59:59.999999999.
+     */
+    private static final DateTimeFormatter STRICT_DATE_OPTIONAL_TIME_ROUND_UP_FORMATTER = new DateTimeFormatterBuilder()
+        .append(STRICT_DATE_OPTIONAL_TIME_FORMATTER)
+        .parseDefaulting(MONTH_OF_YEAR, 12)
+        .parseDefaulting(HOUR_OF_DAY, 23)
+        .parseDefaulting(MINUTE_OF_HOUR, 59)
+        .parseDefaulting(SECOND_OF_MINUTE, 59)
+        .parseDefaulting(NANO_OF_SECOND, 999_999_999)
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    static TemporalAccessor doParseRoundUp(String string) {
+        TemporalAccessor parsed = (TemporalAccessor) STRICT_DATE_OPTIONAL_TIME_ROUND_UP_FORMATTER.toFormat()
+            .parseObject(string, new ParsePosition(0));
+        if (parsed == null || parsed.isSupported(DAY_OF_MONTH)) {
+            return parsed;
+        }
+        //The default day depends on the month, which parseDefaulting can't do. Without a day there is no time either.
+        //The month has not been resolved, so it is checked here, and is a parse failure like everything else.
+        if (!MONTH_OF_YEAR.range().isValidValue(parsed.getLong(MONTH_OF_YEAR))) {
+            return null;
+        }
+        return LocalDate.of(parsed.get(YEAR), parsed.get(MONTH_OF_YEAR), 1)
+            .with(TemporalAdjusters.lastDayOfMonth())
+            .atTime(LocalTime.MAX);
+    }
+
     private static final DateTimeFormatter STRICT_HOUR_MINUTE_SECOND_FORMATTER = new DateTimeFormatterBuilder().appendValue(
             HOUR_OF_DAY,
             2,
@@ -113,6 +259,194 @@ public class ElasticsearchParsers {
         return (TemporalAccessor) STRICT_DATE_FORMATTER.toFormat().parseObject(string, new ParsePosition(0));
     }
 
+    private static final DateTimeFormatter STRICT_DATE_OPTIONAL_TIME_FORMATTER_WITH_NANOS = new DateTimeFormatterBuilder().append(
+            STRICT_YEAR_MONTH_DAY_FORMATTER
+        )
+        .optionalStart()
+        .appendLiteral('T')
+        .append(STRICT_HOUR_MINUTE_SECOND_FORMATTER)
+        .optionalStart()
+        .appendFraction(NANO_OF_SECOND, 1, 9, true)
+        .optionalEnd()
+        .optionalStart()
+        .appendLiteral(',')
+        .appendFraction(NANO_OF_SECOND, 1, 9, false)
+        .optionalEnd()
+        .optionalStart()
+        .appendZoneOrOffsetId()
+        .optionalEnd()
+        .optionalStart()
+        .append(TIME_ZONE_FORMATTER_NO_COLON)
+        .optionalEnd()
+        .optionalEnd()
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    static TemporalAccessor doParseNanos(String string) {
+        return parseFirst(string, STRICT_DATE_OPTIONAL_TIME_FORMATTER_WITH_NANOS);
+    }
+
+    /*
+     * strict_date_time has two parsers, one for each way of writing the zone.
+     */
+    private static final DateTimeFormatter STRICT_DATE_TIME_FORMATTER = new DateTimeFormatterBuilder().append(STRICT_DATE_FORMATTER)
+        .appendZoneOrOffsetId()
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final DateTimeFormatter STRICT_DATE_TIME_FORMATTER_NO_COLON = new DateTimeFormatterBuilder().append(
+            STRICT_DATE_FORMATTER
+        )
+        .append(TIME_ZONE_FORMATTER_NO_COLON)
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    static TemporalAccessor doParseStrictDateTime(String string) {
+        return parseFirst(string, STRICT_DATE_TIME_FORMATTER, STRICT_DATE_TIME_FORMATTER_NO_COLON);
+    }
+
+    private static final DateTimeFormatter BASIC_TIME_NO_MILLIS_BASE = new DateTimeFormatterBuilder().appendValue(
+            HOUR_OF_DAY,
+            2,
+            2,
+            SignStyle.NOT_NEGATIVE
+        )
+        .appendValue(MINUTE_OF_HOUR, 2, 2, SignStyle.NOT_NEGATIVE)
+        .appendValue(SECOND_OF_MINUTE, 2, 2, SignStyle.NOT_NEGATIVE)
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final DateTimeFormatter BASIC_T_TIME_FORMATTER = new DateTimeFormatterBuilder().appendLiteral("T")
+        .append(BASIC_TIME_NO_MILLIS_BASE)
+        .appendFraction(NANO_OF_SECOND, 1, 9, true)
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final DateTimeFormatter BASIC_DATE_TIME_FORMATTER = new DateTimeFormatterBuilder().appendValue(
+            ChronoField.YEAR,
+            4,
+            4,
+            SignStyle.NORMAL
+        )
+        .appendValue(MONTH_OF_YEAR, 2, 2, SignStyle.NOT_NEGATIVE)
+        .appendValue(DAY_OF_MONTH, 2, 2, SignStyle.NOT_NEGATIVE)
+        .append(BASIC_T_TIME_FORMATTER)
+        .appendZoneOrOffsetId()
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final DateTimeFormatter BASIC_DATE_TIME_FORMATTER_NO_COLON = new DateTimeFormatterBuilder().appendValue(
+            ChronoField.YEAR,
+            4,
+            4,
+            SignStyle.NORMAL
+        )
+        .appendValue(MONTH_OF_YEAR, 2, 2, SignStyle.NOT_NEGATIVE)
+        .appendValue(DAY_OF_MONTH, 2, 2, SignStyle.NOT_NEGATIVE)
+        .append(BASIC_T_TIME_FORMATTER)
+        .append(TIME_ZONE_FORMATTER_NO_COLON)
+        .toFormatter(Locale.ROOT)
+        .withResolverStyle(ResolverStyle.STRICT);
+
+    static TemporalAccessor doParseBasicDateTime(String string) {
+        return parseFirst(string, BASIC_DATE_TIME_FORMATTER, BASIC_DATE_TIME_FORMATTER_NO_COLON);
+    }
+
+    /**
+     * Custom formats in mappings are patterns. Elasticsearch builds the formatter once per mapping, so callers should
+     * keep it around too.
+     */
+    static DateTimeFormatter patternFormatter(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern, Locale.ROOT).withResolverStyle(ResolverStyle.STRICT);
+    }
+
+    static TemporalAccessor doParsePattern(DateTimeFormatter patternFormatter, String string) {
+        return parseFirst(string, patternFormatter);
+    }
+
+    /*
+     * epoch_millis and epoch_second, as EpochTime parses them: an optional minus sign for the whole value, up to 19
+     * digits and an optional, possibly empty, fraction after a dot. EpochTime does this with custom temporal fields,
+     * this does the same arithmetic with BigDecimal.
+     */
+    private static final Pattern EPOCH = Pattern.compile("(-)?([0-9]{1,19})(?:\\.([0-9]*))?");
+
+    static TemporalAccessor doParseEpoch(String string, boolean seconds) {
+        Matcher matcher = EPOCH.matcher(string);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String fraction = matcher.group(3) == null ? "" : matcher.group(3);
+        if (fraction.length() > (seconds ? 9 : 6) || new BigInteger(matcher.group(2)).bitLength() > 63) {
+            return null;
+        }
+        BigDecimal value = new BigDecimal(matcher.group(2) + "." + fraction + "0");
+        if (matcher.group(1) != null) {
+            value = value.negate();
+        }
+        BigInteger[] secondsAndNanos = value.movePointRight(seconds ? 9 : 6)
+            .toBigIntegerExact()
+            .divideAndRemainder(BigInteger.valueOf(1_000_000_000L));
+        return Instant.ofEpochSecond(secondsAndNanos[0].longValueExact(), secondsAndNanos[1].longValueExact());
+    }
+
+    /**
+     * The parsers of a named format, or of a pattern.
+     */
+    static DateTimeFormatter[] formatters(String format) {
+        switch (format) {
+            case "strict_date_optional_time":
+                return new DateTimeFormatter[]{STRICT_DATE_OPTIONAL_TIME_FORMATTER};
+            case "strict_date_optional_time_nanos":
+                return new DateTimeFormatter[]{STRICT_DATE_OPTIONAL_TIME_FORMATTER_WITH_NANOS};
+            case "strict_date_time":
+                return new DateTimeFormatter[]{STRICT_DATE_TIME_FORMATTER, STRICT_DATE_TIME_FORMATTER_NO_COLON};
+            case "basic_date_time":
+                return new DateTimeFormatter[]{BASIC_DATE_TIME_FORMATTER, BASIC_DATE_TIME_FORMATTER_NO_COLON};
+            default:
+                return new DateTimeFormatter[]{patternFormatter(format)};
+        }
+    }
+
+    private static final Pattern FORMAT_SEPARATOR = Pattern.compile("\\|\\|");
+
+    /**
+     * Formats combined with ||, like strict_date_optional_time||epoch_millis. Elasticsearch tries the parsers of all
+     * the formats in order, and uses the first one that parses the whole string. Epoch formats give an Instant.
+     */
+    static TemporalAccessor doParseMultiFormat(String formats, String string) {
+        for (String format : FORMAT_SEPARATOR.split(formats)) {
+            if (format.equals("epoch_millis") || format.equals("epoch_second")) {
+                TemporalAccessor parsed = doParseEpoch(string, format.equals("epoch_second"));
+                if (parsed != null) {
+                    return parsed;
+                }
+                continue;
+            }
+            for (DateTimeFormatter formatter : formatters(format)) {
+                ParsePosition position = new ParsePosition(0);
+                Object parsed = formatter.toFormat().parseObject(string, position);
+                if (parsed != null && position.getIndex() == string.length()) {
+                    return (TemporalAccessor) parsed;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Formats with several parsers use the first one that can parse the string.
+     */
+    private static TemporalAccessor parseFirst(String string, DateTimeFormatter... formatters) {
+        for (DateTimeFormatter formatter : formatters) {
+            TemporalAccessor parsed = (TemporalAccessor) formatter.toFormat().parseObject(string, new ParsePosition(0));
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return null;
+    }
+
     /**
      * Example for being able to run this code in a profiler.
      */
@@ -0,0 +1,138 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+/**
+ * Parses the numeric Elasticsearch formats epoch_millis and epoch_second, without allocating.
+ *
+ * Both are an optional minus sign, 1-19 digits and an optional fraction after a dot, up to 6 digits (nanos of the
+ * milli) for epoch_millis and 9 digits (nanos of the second) for epoch_second. The sign applies to the whole value, so
+ * -1.5 is one and a half milliseconds before the epoch. Unlike the date parsers, the whole string must match, since
+ * a number followed by something else is not a number.
+ *
+ * The result is always epoch millis, rounded down like Instant.toEpochMilli.
+ */
+public final class EpochParser {
+
+    private static final int MAX_DIGITS = 19;
+    private static final int MILLIS_FRACTION_DIGITS = 6;
+    private static final int SECOND_FRACTION_DIGITS = 9;
+
+    private EpochParser() {
+    }
+
+    /**
+     * @return epoch millis, or CharDateParser.NO_DATE if the string is not an epoch_millis value.
+     */
+    public static long parseEpochMillis(CharSequence text) {
+        return parseEpochMillis(text, 0, text.length());
+    }
+
+    public static long parseEpochMillis(CharSequence text, int offset, int length) {
+        return parse(text, offset, length, MILLIS_FRACTION_DIGITS);
+    }
+
+    /**
+     * @return epoch millis, or CharDateParser.NO_DATE if the string is not an epoch_second value or if it is too far
+     * from the epoch to fit in epoch millis.
+     */
+    public static long parseEpochSecond(CharSequence text) {
+        return parseEpochSecond(text, 0, text.length());
+    }
+
+    public static long parseEpochSecond(CharSequence text, int offset, int length) {
+        return parse(text, offset, length, SECOND_FRACTION_DIGITS);
+    }
+
+    /**
+     * @return true if the string could be a number: a minus sign or a digit first. The date formats all start with a
+     * digit too, so this only rules out the epoch formats.
+     */
+    static boolean mayBeEpoch(CharSequence text) {
+        if (text.length() == 0) {
+            return false;
+        }
+        char c = text.charAt(0);
+        return c == '-' || (c >= '0' && c <= '9');
+    }
+
+    private static long parse(CharSequence text, int offset, int length, int fractionDigits) {
+        int pos = offset;
+        int end = offset + length;
+        boolean negative = pos < end && text.charAt(pos) == '-';
+        if (negative) {
+            pos++;
+        }
+        int digitsStart = pos;
+        int digitsEnd = Math.min(end, pos + MAX_DIGITS);
+        long value = 0;
+        while (pos < digitsEnd) {
+            int digit = text.charAt(pos) - '0';
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+            //19 digits can be more than Long.MAX_VALUE, which can't be parsed.
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                return CharDateParser.NO_DATE;
+            }
+            value = value * 10 + digit;
+            pos++;
+        }
+        if (pos == digitsStart) {
+            return CharDateParser.NO_DATE;
+        }
+
+        //The fraction may be empty, 1. is the same as 1.
+        int fraction = 0;
+        int digits = 0;
+        if (pos < end && text.charAt(pos) == '.') {
+            pos++;
+            int fractionEnd = Math.min(end, pos + fractionDigits);
+            while (pos < fractionEnd) {
+                int digit = text.charAt(pos) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                fraction = fraction * 10 + digit;
+                digits++;
+                pos++;
+            }
+        }
+        if (pos != end) {
+            return CharDateParser.NO_DATE;
+        }
+        for (int i = digits; i < fractionDigits; i++) {
+            fraction *= 10;
+        }
+
+        long millis;
+        int subMillis;
+        if (fractionDigits == SECOND_FRACTION_DIGITS) {
+            if (value > Long.MAX_VALUE / 1000) {
+                return CharDateParser.NO_DATE;
+            }
+            millis = value * 1000 + fraction / 1_000_000;
+            subMillis = fraction % 1_000_000;
+        } else {
+            millis = value;
+            subMillis = fraction;
+        }
+        if (!negative) {
+            return millis;
+        }
+        //Rounded down, so anything below the milli makes a negative value one milli smaller.
+        return -millis - (subMillis > 0 ? 1 : 0);
+    }
+}
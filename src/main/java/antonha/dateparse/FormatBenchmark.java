@@ -0,0 +1,96 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats other than strict_date_optional_time, parsed by java.time the way Elasticsearch does, and by the parsers
+ * that DateFormatCompiler compiles from the same formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class FormatBenchmark {
+
+    @Param({
+            "strict_date_optional_time",
+            "strict_date_optional_time_nanos",
+            "strict_date_time",
+            "basic_date_time",
+            "uuuu-MM-dd HH:mm:ss",
+            "uuuuMMddHHmmss",
+            "dd.MM.uuuu",
+    })
+    public String format;
+
+    private String dateString;
+    private DateTimeFormatter patternFormatter;
+    private CompiledDateParser compiled;
+
+    @Setup
+    public void setup() {
+        switch (format) {
+            case "strict_date_optional_time":
+            case "strict_date_time":
+                dateString = "2023-01-01T23:38:34.000+01:00";
+                break;
+            case "strict_date_optional_time_nanos":
+                dateString = "2023-01-01T23:38:34.123456789Z";
+                break;
+            case "basic_date_time":
+                dateString = "20230101T233834.000Z";
+                break;
+            default:
+                patternFormatter = ElasticsearchParsers.patternFormatter(format);
+                dateString = patternFormatter.format(LocalDateTime.of(2023, 1, 1, 23, 38, 34));
+        }
+        compiled = DateFormatCompiler.compile(format);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESParse() {
+        switch (format) {
+            case "strict_date_optional_time":
+                return ElasticsearchParsers.doParse(dateString);
+            case "strict_date_optional_time_nanos":
+                return ElasticsearchParsers.doParseNanos(dateString);
+            case "strict_date_time":
+                return ElasticsearchParsers.doParseStrictDateTime(dateString);
+            case "basic_date_time":
+                return ElasticsearchParsers.doParseBasicDateTime(dateString);
+            default:
+                return ElasticsearchParsers.doParsePattern(patternFormatter, dateString);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCompiledParser() {
+        return compiled.parse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCompiledParserEpochMillis() {
+        return compiled.parseToEpochMillis(dateString);
+    }
+}
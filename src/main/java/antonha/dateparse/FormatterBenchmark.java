@@ -0,0 +1,73 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting epoch millis as dates, the reverse of parsing. java.time allocates an Instant and a String (and more
+ * internally) for each date, IsoDateFormatter writes into a reused buffer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class FormatterBenchmark {
+
+    private static final DateTimeFormatter MILLIS_PATTERN =
+        DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX").withZone(ZoneOffset.UTC);
+
+    private final long epochMillis = 1672616314123L;
+    private final byte[] bytes = new byte[IsoDateFormatter.MAX_LENGTH];
+    private final char[] chars = new char[IsoDateFormatter.MAX_LENGTH];
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String benchISOInstant() {
+        return DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public String benchMillisPattern() {
+        return MILLIS_PATTERN.format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public byte[] benchIsoDateFormatterBytes() {
+        IsoDateFormatter.MILLIS_UTC.formatEpochMillis(epochMillis, bytes, 0);
+        return bytes;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public char[] benchIsoDateFormatterChars() {
+        IsoDateFormatter.MILLIS_UTC.formatEpochMillis(epochMillis, chars, 0);
+        return chars;
+    }
+
+    /**
+     * For comparison with the java.time benchmarks, that have to create a String.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public String benchIsoDateFormatterString() {
+        int end = IsoDateFormatter.MILLIS_UTC.formatEpochMillis(epochMillis, chars, 0);
+        return new String(chars, 0, end);
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * strict_date_optional_time with CharDateParser for the dates it reads the same way as Elasticsearch, and java.time
+ * for the rest, so that the result is always the same as for Elasticsearch.
+ *
+ * CharDateParser can't parse negative years, which start with a -. It is also lenient about what follows the time: a
+ * comma fraction is not read, and a zone followed by more text is read as something else or ignored. Elasticsearch
+ * parses as much of the string as the format allows and ignores the rest. MultiFormatDateParser.fallbackReason tells
+ * which dates CharDateParser can't judge, and they are left to ElasticsearchParsers.
+ */
+public final class HybridDateParser implements DateParser {
+
+    @Override
+    public TemporalAccessor parse(String dateString) {
+        long fields = scan(dateString);
+        String reason = fallbackReason(dateString, fields);
+        if (reason == MultiFormatDateParser.NOT_A_DATE) {
+            return null;
+        }
+        if (reason != null) {
+            ParseEvents.Fallback event = begin();
+            TemporalAccessor parsed = Fallback.PARSER.parse(dateString);
+            commit(event, dateString, reason);
+            return parsed;
+        }
+        int nanos = CharDateParser.parseFraction(dateString, 0, fields);
+        return CharDateParser.toTemporalAccessor(fields, nanos, zone(dateString, fields));
+    }
+
+    @Override
+    public long parseToEpochMillis(String dateString) {
+        long fields = scan(dateString);
+        String reason = fallbackReason(dateString, fields);
+        if (reason == MultiFormatDateParser.NOT_A_DATE) {
+            return CharDateParser.NO_DATE;
+        }
+        if (reason != null) {
+            ParseEvents.Fallback event = begin();
+            long millis = Fallback.PARSER.parseToEpochMillis(dateString);
+            commit(event, dateString, reason);
+            return millis;
+        }
+        int nanos = CharDateParser.parseFraction(dateString, 0, fields);
+        return CharDateParser.toEpochSecond(fields, zone(dateString, fields)) * 1000 + nanos / 1_000_000;
+    }
+
+    /**
+     * Dates that CharDateParser can't judge are rare, so the fallback is in a holder. It is not created until one is
+     * seen, and neither are the formatters of ElasticsearchParsers.
+     */
+    private static final class Fallback {
+        private static final DateParser PARSER = new DateParsers.JavaTimeParser(ElasticsearchParsers::doParse);
+    }
+
+    private static long scan(String dateString) {
+        long fields = CharDateParser.scan(dateString, 0, dateString.length());
+        if (ParseStats.ENABLED) {
+            ParseStats.recordScan(fields);
+        }
+        return fields;
+    }
+
+    /**
+     * @return null if CharDateParser parses the date string the same way as Elasticsearch, NOT_A_DATE if neither
+     * parses it, or else why it has to be left to Elasticsearch.
+     */
+    static String fallbackReason(String dateString, long fields) {
+        if (fields == DateFields.NONE) {
+            return dateString.startsWith("-") ? "negative year" : MultiFormatDateParser.NOT_A_DATE;
+        }
+        String reason = MultiFormatDateParser.fallbackReason(dateString, fields);
+        //Not a date for a whole string parse, but Elasticsearch parses the date and ignores what follows.
+        return reason == MultiFormatDateParser.NOT_A_DATE ? "text after the date" : reason;
+    }
+
+    private static ZoneId zone(String dateString, long fields) {
+        if (!DateFields.hasTime(fields)) {
+            return null;
+        }
+        return CharDateParser.parseZone(dateString, DateFields.zoneStart(fields), dateString.length());
+    }
+
+    /**
+     * @return the started event, or null if Flight Recorder is not initialized.
+     */
+    private static ParseEvents.Fallback begin() {
+        if (!ParseEvents.recording()) {
+            return null;
+        }
+        ParseEvents.Fallback event = new ParseEvents.Fallback();
+        event.begin();
+        return event;
+    }
+
+    private static void commit(ParseEvents.Fallback event, String dateString, String reason) {
+        if (event != null && event.shouldCommit()) {
+            event.parser = "hybrid";
+            event.reason = reason;
+            event.dateString = dateString;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses a generated log where the timestamps are increasing, like they are in most log files. The gap parameter is
+ * the maximum number of millis between two log lines.
+ *
+ * Every invocation parses the whole log, so the score is ns per timestamp.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class IncrementalBenchmark {
+
+    private static final int LINES = 100_000;
+
+    @Param({"10", "1000", "100000"})
+    public int gap;
+
+    @Param({"uuuu-MM-dd'T'HH:mm:ss.SSSX", "uuuu-MM-dd'T'HH:mm:ss.SSSXXX"})
+    public String pattern;
+
+    private String[] log;
+    private IncrementalDateParser incrementalParser;
+
+    @Setup
+    public void setUp() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern).withZone(ZoneOffset.ofHours(2));
+        Random random = new Random(0);
+        long millis = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+        log = new String[LINES];
+        for (int i = 0; i < LINES; i++) {
+            millis += random.nextInt(gap + 1);
+            log[i] = formatter.format(Instant.ofEpochMilli(millis));
+        }
+        incrementalParser = new IncrementalDateParser();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @OperationsPerInvocation(LINES)
+    public long benchCharParser() {
+        long sum = 0;
+        for (String line : log) {
+            sum += CharDateParser.parseToEpochMillis(line);
+        }
+        return sum;
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @OperationsPerInvocation(LINES)
+    public long benchIncrementalParser() {
+        long sum = 0;
+        for (String line : log) {
+            sum += incrementalParser.parseToEpochMillis(line);
+        }
+        return sum;
+    }
+}
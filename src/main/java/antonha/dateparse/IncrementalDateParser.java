@@ -0,0 +1,241 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Parses date strings to epoch millis, reusing as much as possible from the previous date string.
+ *
+ * Timestamps in log streams are almost always increasing, so consecutive timestamps usually only differ in the last
+ * few characters. This parser remembers the previous date string and its fields. If only the time part has changed,
+ * only the fields from the first changed character onwards are parsed again, and the epoch value is computed from the
+ * start of the (unchanged) day. Anything else is parsed in full with CharDateParser.
+ *
+ * Every character is still validated: the unchanged characters were validated when the previous date string was
+ * parsed, and the changed ones are validated now. The results are always the same as for
+ * CharDateParser.parseToEpochMillis.
+ *
+ * Instances are not thread safe. Use one per thread, or per ingest worker.
+ */
+public class IncrementalDateParser {
+
+    /**
+     * Longer date strings than this are always parsed in full.
+     */
+    private static final int MAX_LENGTH = 64;
+
+    /**
+     * Where the hour starts. Changes before this are changes of the date, which are parsed in full.
+     */
+    private static final int TIME_START = 11;
+
+    private final char[] previous = new char[MAX_LENGTH];
+    private int previousLength = -1;
+
+    //The first and last index where the current date string differs from the previous one
+    private int firstChange;
+    private int lastChange;
+
+    //State from the previous date string, only valid if reusable is true
+    private boolean reusable;
+    private long previousMillis;
+    private int precision;
+    private int fractionDigits;
+    private int zoneStart;
+    private long dayStartSecond;
+    private int hour;
+    private int minute;
+    private int second;
+    private int nanos;
+
+    /**
+     * Same as CharDateParser.parseToEpochMillis, including the exceptions.
+     */
+    public long parseToEpochMillis(CharSequence dateString) {
+        int length = dateString.length();
+        if (length > MAX_LENGTH) {
+            reusable = false;
+            previousLength = -1;
+            return CharDateParser.parseToEpochMillis(dateString);
+        }
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < length; i++) {
+            char c = dateString.charAt(i);
+            if (c != previous[i]) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                previous[i] = c;
+            }
+        }
+        if (updatePrevious(length, first, last)) {
+            long millis = parseChanges();
+            if (millis != CharDateParser.NO_DATE) {
+                return millis;
+            }
+        }
+        reusable = false;
+        long fields = CharDateParser.scan(dateString, 0, length);
+        if (fields == DateFields.NONE || !DateFields.hasTime(fields)) {
+            return CharDateParser.parseToEpochMillis(dateString);
+        }
+        int nanos = CharDateParser.parseFraction(dateString, 0, fields);
+        ZoneId zone = CharDateParser.parseZone(dateString, DateFields.zoneStart(fields), length);
+        return parsedInFull(fields, nanos, zone);
+    }
+
+    /**
+     * Same as CharDateParser.parseToEpochMillis, including the exceptions.
+     */
+    public long parseToEpochMillis(byte[] bytes, int offset, int length) {
+        if (length > MAX_LENGTH) {
+            reusable = false;
+            previousLength = -1;
+            return CharDateParser.parseToEpochMillis(bytes, offset, length);
+        }
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < length; i++) {
+            char c = (char) (bytes[offset + i] & 0xFF);
+            if (c != previous[i]) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                previous[i] = c;
+            }
+        }
+        if (updatePrevious(length, first, last)) {
+            long millis = parseChanges();
+            if (millis != CharDateParser.NO_DATE) {
+                return millis;
+            }
+        }
+        reusable = false;
+        long fields = CharDateParser.scan(bytes, offset, length);
+        if (fields == DateFields.NONE || !DateFields.hasTime(fields)) {
+            return CharDateParser.parseToEpochMillis(bytes, offset, length);
+        }
+        int nanos = CharDateParser.parseFraction(bytes, offset, fields);
+        ZoneId zone = CharDateParser.parseZone(bytes, offset + DateFields.zoneStart(fields), offset + length);
+        return parsedInFull(fields, nanos, zone);
+    }
+
+    /**
+     * @return true if the changes can be parsed incrementally.
+     */
+    private boolean updatePrevious(int length, int first, int last) {
+        boolean sameLength = length == previousLength;
+        previousLength = length;
+        firstChange = first;
+        lastChange = last;
+        return reusable && sameLength;
+    }
+
+    /**
+     * Parses the fields that have changed in previous, from firstChange.
+     *
+     * @return the epoch millis, or NO_DATE if the date string must be parsed in full.
+     */
+    private long parseChanges() {
+        if (firstChange < 0) {
+            return previousMillis;
+        }
+        //Changes to the date or the zone would need everything to be recomputed
+        if (firstChange < TIME_START || lastChange >= zoneStart) {
+            return CharDateParser.NO_DATE;
+        }
+        //Changes that alter the precision fail the checks below, and fall back to a full parse which knows how to
+        //handle them.
+        int hour = this.hour;
+        int minute = this.minute;
+        int second = this.second;
+        int nanos = this.nanos;
+        if (firstChange < 13) {
+            hour = twoDigits(11, 9);
+            if (hour < 0 || hour > 23) {
+                return CharDateParser.NO_DATE;
+            }
+        }
+        if (firstChange < 16 && precision >= DateFields.MINUTE) {
+            minute = previous[13] == ':' ? twoDigits(14, 5) : -1;
+            if (minute < 0) {
+                return CharDateParser.NO_DATE;
+            }
+        }
+        if (firstChange < 19 && precision >= DateFields.SECOND) {
+            second = previous[16] == ':' ? twoDigits(17, 5) : -1;
+            if (second < 0) {
+                return CharDateParser.NO_DATE;
+            }
+        }
+        if (precision == DateFields.FRACTION) {
+            if (previous[19] != '.') {
+                return CharDateParser.NO_DATE;
+            }
+            int fraction = 0;
+            for (int i = DateFields.FRACTION_START; i < zoneStart; i++) {
+                int digit = previous[i] - '0';
+                if (digit < 0 || digit > 9) {
+                    return CharDateParser.NO_DATE;
+                }
+                fraction = fraction * 10 + digit;
+            }
+            nanos = DateFields.scaleFraction(fraction, fractionDigits);
+        }
+        this.hour = hour;
+        this.minute = minute;
+        this.second = second;
+        this.nanos = nanos;
+        previousMillis = (dayStartSecond + hour * 3600 + minute * 60 + second) * 1000 + nanos / 1_000_000;
+        return previousMillis;
+    }
+
+    private int twoDigits(int pos, int maxTens) {
+        int d0 = previous[pos] - '0';
+        int d1 = previous[pos + 1] - '0';
+        if (d0 < 0 || d0 > maxTens || d1 < 0 || d1 > 9) {
+            return -1;
+        }
+        return d0 * 10 + d1;
+    }
+
+    /**
+     * Computes the epoch millis of a fully parsed date string, and remembers its fields if later date strings can be
+     * parsed incrementally from it. That is only the case for offsets, where the start of the day does not depend on
+     * the time.
+     */
+    private long parsedInFull(long fields, int nanos, ZoneId zone) {
+        long epochSecond = CharDateParser.toEpochSecond(fields, zone);
+        long millis = epochSecond * 1000 + nanos / 1_000_000;
+        if (zone == null || zone instanceof ZoneOffset) {
+            reusable = true;
+            previousMillis = millis;
+            precision = DateFields.precision(fields);
+            fractionDigits = DateFields.fractionDigits(fields);
+            zoneStart = DateFields.zoneStart(fields);
+            hour = DateFields.hour(fields);
+            minute = DateFields.minute(fields);
+            second = DateFields.second(fields);
+            this.nanos = nanos;
+            dayStartSecond = epochSecond - hour * 3600 - minute * 60 - second;
+        }
+        return millis;
+    }
+}
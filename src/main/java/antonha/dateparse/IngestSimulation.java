@@ -0,0 +1,277 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates bulk indexing: worker threads that parse the date fields of NDJSON documents as fast as they can. The
+ * JMH benchmarks are single threaded, but ingest runs on every core at once, which is where the garbage created per
+ * parsed date turns into GC pressure. This reports docs/sec and the GC time for each parser and thread count.
+ *
+ * It is not a JMH benchmark, since JMH can't vary the number of threads or use virtual threads. Run it with
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar antonha.dateparse.IngestSimulation [threads] [seconds] [parsers]
+ * </pre>
+ *
+ * where threads is a comma separated list of thread counts (default 1,2,4,8,16,32,64), seconds is how long each
+ * measurement runs (default 5) and parsers is a comma separated list of Parser names (default all). Virtual threads
+ * are used in addition to platform threads when the JVM has them, that is Java 21 or later.
+ */
+public final class IngestSimulation {
+
+    /**
+     * The date fields of each document, as Elasticsearch would parse them with strict_date_optional_time.
+     */
+    static final String[] DATE_FIELDS = {"@timestamp", "event.created", "event.ingested"};
+
+    public enum Parser {
+        /**
+         * What Elasticsearch does: decode the field to a String and parse it with java.time.
+         */
+        ES {
+            @Override
+            boolean parse(byte[] document, int offset, int length) {
+                return ElasticsearchParsers.doParse(new String(document, offset, length, StandardCharsets.UTF_8)) != null;
+            }
+        },
+        /**
+         * CharDateParser to a TemporalAccessor, straight from the bytes.
+         */
+        CHAR_PARSER {
+            @Override
+            boolean parse(byte[] document, int offset, int length) {
+                try {
+                    TemporalAccessor parsed = CharDateParser.parse(document, offset, length);
+                    return parsed != null;
+                } catch (DateTimeException e) {
+                    return false;
+                }
+            }
+        },
+        /**
+         * CharDateParser to epoch millis, straight from the bytes. Allocates nothing unless there is a region zone.
+         */
+        CHAR_PARSER_EPOCH_MILLIS {
+            @Override
+            boolean parse(byte[] document, int offset, int length) {
+                return !ParseStatus.isError(CharDateParser.tryParseToEpochMillis(document, offset, length));
+            }
+        };
+
+        abstract boolean parse(byte[] document, int offset, int length);
+    }
+
+    private static final int DOCUMENTS = 1 << 14;
+
+    private IngestSimulation() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threadCounts = args.length > 0
+            ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+            : new int[]{1, 2, 4, 8, 16, 32, 64};
+        long nanos = (args.length > 1 ? Long.parseLong(args[1]) : 5) * 1_000_000_000L;
+        List<Parser> parsers = new ArrayList<>();
+        if (args.length > 2) {
+            for (String name : args[2].split(",")) {
+                parsers.add(Parser.valueOf(name));
+            }
+        } else {
+            parsers.addAll(Arrays.asList(Parser.values()));
+        }
+
+        List<String> kinds = new ArrayList<>(List.of("platform"));
+        ThreadFactory virtual = virtualThreadFactory();
+        if (virtual != null) {
+            kinds.add("virtual");
+        } else {
+            System.out.println("Virtual threads are not available in Java " + Runtime.version().feature()
+                + ", only platform threads are used");
+        }
+
+        byte[][] documents = documents(DOCUMENTS, 42);
+        System.out.printf("%-26s %-9s %8s %14s %12s %10s%n", "parser", "kind", "threads", "docs/s", "gc ms/s", "failed");
+        for (Parser parser : parsers) {
+            //Warm up, so that the first thread count isn't measured with an interpreted parser.
+            run(parser, documents, Math.max(1, Runtime.getRuntime().availableProcessors()), Thread::new, nanos);
+            for (String kind : kinds) {
+                ThreadFactory factory = kind.equals("platform") ? Thread::new : virtual;
+                for (int threads : threadCounts) {
+                    Result result = run(parser, documents, threads, factory, nanos);
+                    System.out.printf(
+                        "%-26s %-9s %8d %14.0f %12.1f %10d%n",
+                        parser, kind, threads, result.docsPerSecond(), result.gcMillisPerSecond(), result.failed
+                    );
+                }
+            }
+        }
+    }
+
+    static final class Result {
+        final long documents;
+        final long failed;
+        final long nanos;
+        final long gcMillis;
+
+        Result(long documents, long failed, long nanos, long gcMillis) {
+            this.documents = documents;
+            this.failed = failed;
+            this.nanos = nanos;
+            this.gcMillis = gcMillis;
+        }
+
+        double docsPerSecond() {
+            return documents * 1e9 / nanos;
+        }
+
+        double gcMillisPerSecond() {
+            return gcMillis * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * Parses the documents with the given number of threads for the given time. Each thread starts at a different
+     * document and goes round the array.
+     */
+    static Result run(Parser parser, byte[][] documents, int threads, ThreadFactory factory, long nanos)
+        throws InterruptedException {
+        LongAdder parsed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            int first = t * (documents.length / threads);
+            factory.newThread(() -> {
+                try {
+                    start.await();
+                    long count = 0;
+                    long failures = 0;
+                    int i = first;
+                    while ((count & 0xFF) != 0 || System.nanoTime() < deadline[0]) {
+                        failures += parseDocument(parser, documents[i]);
+                        i = i + 1 == documents.length ? 0 : i + 1;
+                        count++;
+                    }
+                    parsed.add(count);
+                    failed.add(failures);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long gcBefore = gcMillis();
+        long begin = System.nanoTime();
+        deadline[0] = begin + nanos;
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return new Result(parsed.sum(), failed.sum(), elapsed, gcMillis() - gcBefore);
+    }
+
+    /**
+     * @return how many of the date fields that did not parse.
+     */
+    static int parseDocument(Parser parser, byte[] document) {
+        int failures = 0;
+        int pos = 0;
+        for (String field : DATE_FIELDS) {
+            //"field":" followed by the value up to the next quote. The fields are always in this order.
+            pos = indexOf(document, field, pos) + field.length() + 3;
+            int end = pos;
+            while (document[end] != '"') {
+                end++;
+            }
+            if (!parser.parse(document, pos, end - pos)) {
+                failures++;
+            }
+            pos = end;
+        }
+        return failures;
+    }
+
+    private static int indexOf(byte[] document, String field, int from) {
+        outer:
+        for (int i = from; i <= document.length - field.length(); i++) {
+            for (int j = 0; j < field.length(); j++) {
+                if (document[i + j] != field.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new IllegalArgumentException("No field " + field);
+    }
+
+    /**
+     * Documents like those of a log or metrics use case, with the dates from DateCorpus.
+     */
+    static byte[][] documents(int count, long seed) {
+        String[] dates = DateCorpus.generate(DateCorpus.Mix.MIXED, count * DATE_FIELDS.length, 0, seed);
+        Random random = new Random(seed);
+        byte[][] documents = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            StringBuilder document = new StringBuilder("{");
+            for (int f = 0; f < DATE_FIELDS.length; f++) {
+                document.append('"').append(DATE_FIELDS[f]).append("\":\"").append(dates[i * DATE_FIELDS.length + f])
+                    .append("\",");
+            }
+            document.append("\"host.name\":\"host-").append(random.nextInt(100)).append("\",")
+                .append("\"message\":\"GET /index.html ").append(200 + random.nextInt(3) * 100).append("\"}");
+            documents[i] = document.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        return documents;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Thread.ofVirtual().factory() if the JVM has virtual threads, otherwise null. Called reflectively, since this
+     * is built for Java 17. factory is looked up on the public Thread.Builder interface, the class of the builder is
+     * not accessible.
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Method ofVirtual = Thread.class.getMethod("ofVirtual");
+            Object builder = ofVirtual.invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalid date strings, as found in dirty log data. Sampled rather than averaged, since the cost of a failure is
+ * mostly in the tail: creating the exception and filling in its stack trace.
+ *
+ * The throwing benchmarks are how the failures were handled before tryParseToEpochMillis, the try benchmarks are
+ * the exception free path. The valid date is there as a baseline.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class InvalidInputBenchmark {
+
+    @Param({
+            "2023-01-01T23:38:34.000Z",
+            "2023-02-30T23:38:34.000Z",
+            "2023-13-01T23:38:34.000Z",
+            "2023-01-01T25:38:34.000Z",
+    })
+    public String dateString;
+
+    /*
+     * Garbage after the date, different for every string, so that the zone cache can't help.
+     */
+    private final String[] badZones = new String[4096];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < badZones.length; i++) {
+            badZones[i] = "2023-01-01T23:38:34.000xq" + Integer.toHexString(i * 7919);
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchParseToEpochMillisThrowing() {
+        try {
+            return CharDateParser.parseToEpochMillis(dateString);
+        } catch (DateTimeException e) {
+            return CharDateParser.NO_DATE;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchTryParseToEpochMillis() {
+        return CharDateParser.tryParseToEpochMillis(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public Object benchESParse() {
+        return ElasticsearchParsers.doParse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchTryParseBadZones() {
+        String badZone = badZones[next++ & (badZones.length - 1)];
+        return CharDateParser.tryParseToEpochMillis(badZone);
+    }
+
+    /*
+     * How a bad zone was looked up before the zone cache skipped ids that are not available.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public ZoneId benchZoneIdOfBadZones() {
+        String badZone = badZones[next++ & (badZones.length - 1)];
+        try {
+            return ZoneId.of(badZone.substring(23));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+}
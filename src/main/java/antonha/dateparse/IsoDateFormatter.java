@@ -0,0 +1,197 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Formats epoch values as strict_date_optional_time strings, the reverse of CharDateParser. The output is
+ * yyyy-MM-ddTHH:mm:ss, a fraction of a fixed number of digits and the offset, like 2023-01-01T23:38:34.000Z. It is
+ * written into a byte[] or char[] supplied by the caller, so nothing is allocated.
+ *
+ * Only years 0000-9999 can be formatted, since they are the ones with four digits and no sign. Other years throw a
+ * DateTimeException. Instances are immutable and thread safe.
+ */
+public final class IsoDateFormatter {
+
+    /**
+     * The longest output of any formatter: a 9 digit fraction and an offset with seconds.
+     */
+    public static final int MAX_LENGTH = 39;
+
+    /**
+     * Milliseconds in UTC, like Elasticsearch writes dates.
+     */
+    public static final IsoDateFormatter MILLIS_UTC = new IsoDateFormatter(3, ZoneOffset.UTC);
+
+    private static final long MIN_EPOCH_DAY = DateFields.epochDay(0, 1, 1);
+    private static final long MAX_EPOCH_DAY = DateFields.epochDay(9999, 12, 31);
+
+    private static final int[] POWERS_OF_TEN = {
+        1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
+    };
+
+    private final int fractionDigits;
+    private final int offsetSeconds;
+    //The offset as it is written, Z or +HH:MM or +HH:MM:SS.
+    private final String offsetText;
+    private final int length;
+
+    private IsoDateFormatter(int fractionDigits, ZoneOffset offset) {
+        this.fractionDigits = fractionDigits;
+        this.offsetSeconds = offset.getTotalSeconds();
+        this.offsetText = offset.getId();
+        this.length = 19 + (fractionDigits > 0 ? 1 + fractionDigits : 0) + offsetText.length();
+    }
+
+    /**
+     * @param fractionDigits how many digits of the second fraction to write, 0-9. With 0 there is no dot either.
+     * @param offset         the offset the date is written in.
+     */
+    public static IsoDateFormatter of(int fractionDigits, ZoneOffset offset) {
+        if (fractionDigits < 0 || fractionDigits > 9) {
+            throw new IllegalArgumentException("Fraction digits must be 0-9, was " + fractionDigits);
+        }
+        return new IsoDateFormatter(fractionDigits, offset);
+    }
+
+    /**
+     * @return how many bytes or chars every date is written as.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return where the written date ends in dest.
+     */
+    public int formatEpochMillis(long epochMillis, byte[] dest, int offset) {
+        return format(Math.floorDiv(epochMillis, 1000), Math.floorMod(epochMillis, 1000) * 1_000_000, dest, offset);
+    }
+
+    public int formatEpochMillis(long epochMillis, char[] dest, int offset) {
+        return format(Math.floorDiv(epochMillis, 1000), Math.floorMod(epochMillis, 1000) * 1_000_000, dest, offset);
+    }
+
+    /**
+     * Formats an instant given as seconds since the epoch and nanos of the second. Digits of the fraction beyond
+     * fractionDigits are cut off, not rounded.
+     *
+     * @return where the written date ends in dest.
+     */
+    public int format(long epochSecond, int nanos, byte[] dest, int offset) {
+        long fields = toFields(epochSecond);
+        int pos = offset;
+        pos = write4(DateFields.year(fields), dest, pos);
+        dest[pos++] = '-';
+        pos = write2(DateFields.month(fields), dest, pos);
+        dest[pos++] = '-';
+        pos = write2(DateFields.day(fields), dest, pos);
+        dest[pos++] = 'T';
+        pos = write2(DateFields.hour(fields), dest, pos);
+        dest[pos++] = ':';
+        pos = write2(DateFields.minute(fields), dest, pos);
+        dest[pos++] = ':';
+        pos = write2(DateFields.second(fields), dest, pos);
+        if (fractionDigits > 0) {
+            dest[pos++] = '.';
+            int fraction = nanos / POWERS_OF_TEN[9 - fractionDigits];
+            for (int i = pos + fractionDigits - 1; i >= pos; i--) {
+                dest[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += fractionDigits;
+        }
+        for (int i = 0; i < offsetText.length(); i++) {
+            dest[pos++] = (byte) offsetText.charAt(i);
+        }
+        return pos;
+    }
+
+    public int format(long epochSecond, int nanos, char[] dest, int offset) {
+        long fields = toFields(epochSecond);
+        int pos = offset;
+        pos = write4(DateFields.year(fields), dest, pos);
+        dest[pos++] = '-';
+        pos = write2(DateFields.month(fields), dest, pos);
+        dest[pos++] = '-';
+        pos = write2(DateFields.day(fields), dest, pos);
+        dest[pos++] = 'T';
+        pos = write2(DateFields.hour(fields), dest, pos);
+        dest[pos++] = ':';
+        pos = write2(DateFields.minute(fields), dest, pos);
+        dest[pos++] = ':';
+        pos = write2(DateFields.second(fields), dest, pos);
+        if (fractionDigits > 0) {
+            dest[pos++] = '.';
+            int fraction = nanos / POWERS_OF_TEN[9 - fractionDigits];
+            for (int i = pos + fractionDigits - 1; i >= pos; i--) {
+                dest[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += fractionDigits;
+        }
+        offsetText.getChars(0, offsetText.length(), dest, pos);
+        return pos + offsetText.length();
+    }
+
+    /**
+     * The local date and time of the instant in the offset, packed like the parsers do.
+     */
+    private long toFields(long epochSecond) {
+        long local = epochSecond + offsetSeconds;
+        long epochDay = Math.floorDiv(local, DateFields.SECONDS_PER_DAY);
+        int secondOfDay = Math.floorMod(local, DateFields.SECONDS_PER_DAY);
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            int year = LocalDate.ofEpochDay(epochDay).getYear();
+            throw new DateTimeException("Year " + year + " can't be formatted, only years 0000-9999 are supported");
+        }
+        long date = DateFields.ofEpochDay(epochDay);
+        return DateFields.pack(
+            DateFields.SECOND, DateFields.year(date), DateFields.month(date), DateFields.day(date),
+            secondOfDay / 3600, secondOfDay / 60 % 60, secondOfDay % 60, 0
+        );
+    }
+
+    private static int write4(int value, byte[] dest, int pos) {
+        dest[pos] = (byte) ('0' + value / 1000);
+        dest[pos + 1] = (byte) ('0' + value / 100 % 10);
+        dest[pos + 2] = (byte) ('0' + value / 10 % 10);
+        dest[pos + 3] = (byte) ('0' + value % 10);
+        return pos + 4;
+    }
+
+    private static int write2(int value, byte[] dest, int pos) {
+        dest[pos] = (byte) ('0' + value / 10);
+        dest[pos + 1] = (byte) ('0' + value % 10);
+        return pos + 2;
+    }
+
+    private static int write4(int value, char[] dest, int pos) {
+        dest[pos] = (char) ('0' + value / 1000);
+        dest[pos + 1] = (char) ('0' + value / 100 % 10);
+        dest[pos + 2] = (char) ('0' + value / 10 % 10);
+        dest[pos + 3] = (char) ('0' + value % 10);
+        return pos + 4;
+    }
+
+    private static int write2(int value, char[] dest, int pos) {
+        dest[pos] = (char) ('0' + value / 10);
+        dest[pos + 1] = (char) ('0' + value % 10);
+        return pos + 2;
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fields mapped with more than one format, like strict_date_optional_time||epoch_millis, where the documents have a
+ * mix of ISO dates and numeric timestamps. Each invocation parses the next timestamp of the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class MultiFormatBenchmark {
+
+    @Param({
+            "strict_date_optional_time||epoch_millis",
+            "epoch_millis||strict_date_optional_time",
+    })
+    public String formats;
+
+    /**
+     * How many percent of the timestamps that are numeric.
+     */
+    @Param({"0", "50", "100"})
+    public int numericPercent;
+
+    private static final int CORPUS_SIZE = 1024;
+
+    private final String[] corpus = new String[CORPUS_SIZE];
+    private MultiFormatDateParser parser;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long start = Instant.parse("2023-01-01T00:00:00Z").toEpochMilli();
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            long millis = start + random.nextInt(365 * 24 * 3600) * 1000L + random.nextInt(1000);
+            corpus[i] = random.nextInt(100) < numericPercent
+                ? Long.toString(millis)
+                : Instant.ofEpochMilli(millis).toString();
+        }
+        parser = MultiFormatDateParser.of(formats);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESParse() {
+        return ElasticsearchParsers.doParseMultiFormat(formats, corpus[next++ & (CORPUS_SIZE - 1)]);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchMultiFormatParser() {
+        return parser.parseToEpochMillis(corpus[next++ & (CORPUS_SIZE - 1)]);
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Parses formats combined with ||, like strict_date_optional_time||epoch_millis, to epoch millis.
+ *
+ * Elasticsearch tries the formats in order and uses the first one that parses the whole string. With java.time that
+ * means that every numeric timestamp first goes through a failing strict_date_optional_time parse. Here each format
+ * has a parser that fails fast: the epoch formats are skipped for strings that can't be numbers, and
+ * strict_date_optional_time goes through the CharDateParser scanner. Formats are still tried in the order they are
+ * given, so 2023 is a year for strict_date_optional_time||epoch_millis and a millisecond for
+ * epoch_millis||strict_date_optional_time, just like in Elasticsearch.
+ *
+ * Invalid dates, like February 30, don't match, so the next format is tried. Instances are immutable and thread safe.
+ */
+public final class MultiFormatDateParser {
+
+    private static final int EPOCH_MILLIS = 0;
+    private static final int EPOCH_SECOND = 1;
+    private static final int STRICT_DATE_OPTIONAL_TIME = 2;
+    private static final int COMPILED = 3;
+
+    /**
+     * Returned by fallbackReason for strings that strict_date_optional_time does not parse as a whole.
+     */
+    static final String NOT_A_DATE = "not a date";
+
+    private final String formats;
+    private final int[] kinds;
+    //The compiled parser for each format, null for the epoch formats.
+    private final CompiledDateParser[] compiled;
+
+    private MultiFormatDateParser(String formats, int[] kinds, CompiledDateParser[] compiled) {
+        this.formats = formats;
+        this.kinds = kinds;
+        this.compiled = compiled;
+    }
+
+    /**
+     * @throws IllegalArgumentException if one of the formats can't be compiled by DateFormatCompiler.
+     */
+    public static MultiFormatDateParser of(String formats) {
+        String[] names = formats.split("\\|\\|");
+        int[] kinds = new int[names.length];
+        CompiledDateParser[] compiled = new CompiledDateParser[names.length];
+        for (int i = 0; i < names.length; i++) {
+            switch (names[i]) {
+                case "epoch_millis":
+                    kinds[i] = EPOCH_MILLIS;
+                    break;
+                case "epoch_second":
+                    kinds[i] = EPOCH_SECOND;
+                    break;
+                case "strict_date_optional_time":
+                    kinds[i] = STRICT_DATE_OPTIONAL_TIME;
+                    compiled[i] = DateFormatCompiler.forName(names[i]);
+                    break;
+                default:
+                    kinds[i] = COMPILED;
+                    compiled[i] = DateFormatCompiler.compile(names[i]);
+            }
+        }
+        return new MultiFormatDateParser(formats, kinds, compiled);
+    }
+
+    /**
+     * @return epoch millis, where dates without a zone are UTC, or CharDateParser.NO_DATE if none of the formats
+     * parse the whole string.
+     */
+    public long parseToEpochMillis(CharSequence text) {
+        boolean mayBeEpoch = EpochParser.mayBeEpoch(text);
+        for (int i = 0; i < kinds.length; i++) {
+            long millis;
+            switch (kinds[i]) {
+                case EPOCH_MILLIS:
+                    millis = mayBeEpoch ? EpochParser.parseEpochMillis(text) : CharDateParser.NO_DATE;
+                    break;
+                case EPOCH_SECOND:
+                    millis = mayBeEpoch ? EpochParser.parseEpochSecond(text) : CharDateParser.NO_DATE;
+                    break;
+                case STRICT_DATE_OPTIONAL_TIME:
+                    millis = strictDateOptionalTime(text, compiled[i]);
+                    break;
+                default:
+                    millis = compiled[i].parseToEpochMillis(text, true);
+            }
+            if (millis != CharDateParser.NO_DATE) {
+                return millis;
+            }
+        }
+        return CharDateParser.NO_DATE;
+    }
+
+    public String formats() {
+        return formats;
+    }
+
+    private static long strictDateOptionalTime(CharSequence text, CompiledDateParser exact) {
+        int length = text.length();
+        long fields = CharDateParser.scan(text, 0, length);
+        if (fields == DateFields.NONE) {
+            return CharDateParser.NO_DATE;
+        }
+        String reason = fallbackReason(text, fields);
+        if (reason == NOT_A_DATE) {
+            return CharDateParser.NO_DATE;
+        }
+        if (reason != null) {
+            return fallback(text, exact, reason);
+        }
+        ZoneId zone = null;
+        if (DateFields.hasTime(fields)) {
+            zone = CharDateParser.parseZone(text, DateFields.zoneStart(fields), length);
+        }
+        int nanos = CharDateParser.parseFraction(text, 0, fields);
+        return CharDateParser.toEpochSecond(fields, zone) * 1000 + nanos / 1_000_000;
+    }
+
+    /**
+     * Judges whether CharDateParser reads a whole date string the same way as strict_date_optional_time. Used by
+     * HybridDateParser too.
+     *
+     * The CharDateParser scanner reads the date the same way as strict_date_optional_time, but it is lenient about
+     * what follows: anything after the time is a zone, or else ignored. That's fine for the common cases, nothing or
+     * Z or an offset or a zone id after the time, which parse the whole string in both. Anything else, like a comma
+     * fraction or trailing text, has to go to a parser that knows exactly where the format stops.
+     *
+     * @param fields the scanned fields of the whole text, not DateFields.NONE.
+     * @return null if CharDateParser gives the same result, NOT_A_DATE if strict_date_optional_time can't parse the
+     * whole text, or else why it can't be judged from the fields.
+     */
+    static String fallbackReason(CharSequence text, long fields) {
+        int length = text.length();
+        if (ParseStatus.check(fields) != ParseStatus.VALID) {
+            return "invalid fields";
+        }
+        if (!DateFields.hasTime(fields)) {
+            int dateLength = dateLength(fields);
+            if (length == dateLength) {
+                return null;
+            }
+            //Only more date or a time can follow, so numbers longer than a year fail here.
+            char next = text.charAt(dateLength);
+            return next != '-' && next != 'T' ? NOT_A_DATE : "more date or a time";
+        }
+        //A dot without digits is not a fraction in strict_date_optional_time, so the dot is not parsed.
+        if (DateFields.precision(fields) == DateFields.FRACTION && DateFields.fractionDigits(fields) == 0) {
+            return "empty fraction";
+        }
+        int zoneStart = DateFields.zoneStart(fields);
+        if (zoneStart < length && wholeZone(text, zoneStart, length) == null) {
+            return "zone";
+        }
+        return null;
+    }
+
+    private static long fallback(CharSequence text, CompiledDateParser exact, String reason) {
+        if (!ParseEvents.recording()) {
+            return exact.parseToEpochMillis(text, true);
+        }
+        ParseEvents.Fallback event = new ParseEvents.Fallback();
+        event.begin();
+        long millis = exact.parseToEpochMillis(text, true);
+        if (event.shouldCommit()) {
+            event.parser = "strict_date_optional_time";
+            event.reason = reason;
+            event.dateString = text.toString();
+            event.commit();
+        }
+        return millis;
+    }
+
+    private static int dateLength(long fields) {
+        switch (DateFields.precision(fields)) {
+            case DateFields.YEAR:
+                return 4;
+            case DateFields.MONTH:
+                return 7;
+            default:
+                return 10;
+        }
+    }
+
+    /**
+     * @return the zone if the text from pos to end is a zone that strict_date_optional_time would parse completely, or
+     * null if it is something else, or if it is a zone with special parsing rules like UTC+01:00.
+     */
+    private static ZoneId wholeZone(CharSequence text, int pos, int end) {
+        char first = text.charAt(pos);
+        if (first == 'Z' && end - pos == 1) {
+            return ZoneOffset.UTC;
+        }
+        if (first == '+' || first == '-') {
+            return CharDateParser.parseOffset(text, pos, end);
+        }
+        if (first == 'U' || first == 'G' || ZoneIdPrefixTree.match(text, pos) != end) {
+            return null;
+        }
+        return ZoneIdCache.get(text, pos, end);
+    }
+}
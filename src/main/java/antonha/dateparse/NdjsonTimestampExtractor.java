@@ -0,0 +1,382 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Extracts one date field from every line of an NDJSON file, as epoch millis, for backfills where only the timestamps
+ * are needed. The file is memory mapped in newline aligned chunks, which are parsed by fork join workers straight from
+ * the mapped bytes, without creating any Strings.
+ *
+ * The field is found by searching each line for "field" followed by a colon. This is not a JSON parser: the first
+ * occurrence of the key in the line is used, even if it is in a nested object. Lines without the field, or with a
+ * value that is not a valid date, are counted as rejects. Empty lines are skipped.
+ *
+ * Run the main method to measure GB/s for different numbers of workers:
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar antonha.dateparse.NdjsonTimestampExtractor --generate logs.ndjson 1024
+ * java -cp target/benchmarks.jar antonha.dateparse.NdjsonTimestampExtractor logs.ndjson @timestamp 1,2,4,8
+ * </pre>
+ */
+public final class NdjsonTimestampExtractor {
+
+    static final int DEFAULT_CHUNK_SIZE = 32 << 20;
+
+    /**
+     * The timestamps in a direct buffer, so that a large column is not on the heap.
+     */
+    public static final class LongColumn {
+        private final ByteBuffer buffer;
+        private final int size;
+
+        private LongColumn(ByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            return buffer.getLong(index << 3);
+        }
+    }
+
+    public static final class Result {
+        private final LongColumn timestamps;
+        private final long rejects;
+        private final long bytes;
+
+        private Result(LongColumn timestamps, long rejects, long bytes) {
+            this.timestamps = timestamps;
+            this.rejects = rejects;
+            this.bytes = bytes;
+        }
+
+        /**
+         * The epoch millis of the lines that had a valid date, in the order of the file.
+         */
+        public LongColumn timestamps() {
+            return timestamps;
+        }
+
+        /**
+         * Lines without the field, or with an invalid date in it.
+         */
+        public long rejects() {
+            return rejects;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+    }
+
+    private NdjsonTimestampExtractor() {
+    }
+
+    public static Result extract(Path file, String field, ForkJoinPool pool) throws IOException {
+        return extract(file, field, pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    static Result extract(Path file, String field, ForkJoinPool pool, int chunkSize) throws IOException {
+        byte[] key = ('"' + field + '"').getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size, chunkSize);
+            Chunk[] chunks = new Chunk[bounds.length - 1];
+            pool.invoke(new ChunkTask(channel, bounds, key, chunks, 0, chunks.length));
+
+            long count = 0;
+            long rejects = 0;
+            for (Chunk chunk : chunks) {
+                count += chunk.count;
+                rejects += chunk.rejects;
+            }
+            if (count > Integer.MAX_VALUE / 8) {
+                throw new IllegalArgumentException("Too many timestamps for one column: " + count);
+            }
+            ByteBuffer column = ByteBuffer.allocateDirect((int) count * 8).order(ByteOrder.nativeOrder());
+            for (Chunk chunk : chunks) {
+                column.put(chunk.timestamps.flip());
+            }
+            return new Result(new LongColumn(column, (int) count), rejects, size);
+        }
+    }
+
+    /**
+     * Splits the file into chunks of about chunkSize bytes, each ending just after a newline, except for the last.
+     * Chunks are mapped one by one, so that files larger than what a single mapping can hold work too.
+     *
+     * @return the start of every chunk, followed by the size of the file.
+     */
+    static long[] chunkBounds(FileChannel channel, long size, int chunkSize) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(64 * 1024);
+        long start = 0;
+        while (size - start > chunkSize) {
+            long pos = start + chunkSize;
+            long newline = -1;
+            while (newline < 0 && pos < size) {
+                window.clear();
+                int read = channel.read(window, pos);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (window.get(i) == '\n') {
+                        newline = pos + i;
+                        break;
+                    }
+                }
+                pos += read;
+            }
+            if (newline < 0 || newline + 1 == size) {
+                break;
+            }
+            start = newline + 1;
+            bounds.add(start);
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class Chunk {
+        ByteBuffer timestamps;
+        int count;
+        long rejects;
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final byte[] key;
+        private final Chunk[] chunks;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] bounds, byte[] key, Chunk[] chunks, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.key = key;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new ChunkTask(channel, bounds, key, chunks, from, middle),
+                    new ChunkTask(channel, bounds, key, chunks, middle, to)
+                );
+                return;
+            }
+            //Flight Recorder is not initialized just for this event, see ParseEvents.
+            ParseEvents.ExtractChunk event = ParseEvents.recording() ? new ParseEvents.ExtractChunk() : null;
+            if (event != null) {
+                event.begin();
+            }
+            try {
+                long start = bounds[from];
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, bounds[from + 1] - start);
+                Chunk chunk = parseChunk(mapped, key);
+                chunks[from] = chunk;
+                if (event != null && event.shouldCommit()) {
+                    event.bytes = bounds[from + 1] - start;
+                    event.lines = chunk.count + (int) chunk.rejects;
+                    event.rejects = (int) chunk.rejects;
+                    event.commit();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static Chunk parseChunk(ByteBuffer bytes, byte[] key) {
+        Chunk chunk = new Chunk();
+        int end = bytes.limit();
+        //Assume lines of around 256 bytes to start with.
+        chunk.timestamps = ByteBuffer.allocateDirect(Math.max(64, end / 256 * 8)).order(ByteOrder.nativeOrder());
+        int pos = 0;
+        while (pos < end) {
+            int lineEnd = indexOf(bytes, (byte) '\n', pos, end);
+            if (lineEnd > pos) {
+                long millis = parseLine(bytes, key, pos, lineEnd);
+                if (ParseStatus.isError(millis)) {
+                    chunk.rejects++;
+                } else {
+                    if (!chunk.timestamps.hasRemaining()) {
+                        ByteBuffer grown = ByteBuffer.allocateDirect(chunk.timestamps.capacity() * 2)
+                            .order(ByteOrder.nativeOrder());
+                        chunk.timestamps = grown.put(chunk.timestamps.flip());
+                    }
+                    chunk.timestamps.putLong(millis);
+                    chunk.count++;
+                }
+            }
+            pos = lineEnd + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * @return the epoch millis of the field in the line, or a status if there is none.
+     */
+    static long parseLine(ByteBuffer bytes, byte[] key, int start, int end) {
+        int keyPos = indexOf(bytes, key, start, end);
+        if (keyPos < 0) {
+            return CharDateParser.NO_DATE;
+        }
+        int pos = skipWhitespace(bytes, keyPos + key.length, end);
+        if (pos == end || bytes.get(pos) != ':') {
+            return CharDateParser.NO_DATE;
+        }
+        pos = skipWhitespace(bytes, pos + 1, end);
+        if (pos == end || bytes.get(pos) != '"') {
+            return CharDateParser.NO_DATE;
+        }
+        int valueEnd = indexOf(bytes, (byte) '"', pos + 1, end);
+        if (valueEnd == end) {
+            return CharDateParser.NO_DATE;
+        }
+        return CharDateParser.tryParseToEpochMillis(bytes, pos + 1, valueEnd - pos - 1);
+    }
+
+    /**
+     * @return the index of b, or end if it is not found.
+     */
+    private static int indexOf(ByteBuffer bytes, byte b, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (bytes.get(i) == b) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int indexOf(ByteBuffer bytes, byte[] key, int from, int end) {
+        byte first = key[0];
+        outer:
+        for (int i = from; i <= end - key.length; i++) {
+            if (bytes.get(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < key.length; j++) {
+                if (bytes.get(i + j) != key[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static int skipWhitespace(ByteBuffer bytes, int pos, int end) {
+        while (pos < end && (bytes.get(pos) == ' ' || bytes.get(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 1 && args[0].equals("--generate")) {
+            generate(Path.of(args[1]), Long.parseLong(args.length > 2 ? args[2] : "1024") << 20);
+            return;
+        }
+        Path file = Path.of(args[0]);
+        String field = args.length > 1 ? args[1] : "@timestamp";
+        String[] parallelisms = (args.length > 2 ? args[2] : "1,2,4,8,16,32,64").split(",");
+        System.out.printf("%8s %12s %10s %10s%n", "workers", "timestamps", "rejects", "GB/s");
+        for (String parallelism : parallelisms) {
+            ForkJoinPool pool = new ForkJoinPool(Integer.parseInt(parallelism));
+            try {
+                //The first runs warm up the parser and the page cache, the best of the rest is reported.
+                double best = 0;
+                Result result = null;
+                for (int i = 0; i < 5; i++) {
+                    long start = System.nanoTime();
+                    result = extract(file, field, pool);
+                    double gbPerSecond = result.bytes() / (double) (System.nanoTime() - start);
+                    if (i >= 2) {
+                        best = Math.max(best, gbPerSecond);
+                    }
+                }
+                System.out.printf(
+                    "%8s %12d %10d %10.2f%n", parallelism, result.timestamps().size(), result.rejects(), best
+                );
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Writes documents from IngestSimulation to the file until it is at least the given size.
+     */
+    private static void generate(Path file, long size) throws IOException {
+        byte[][] documents = IngestSimulation.documents(1 << 14, 42);
+        try (FileChannel channel = FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            long written = 0;
+            int i = 0;
+            while (written < size) {
+                byte[] document = documents[i++ & (documents.length - 1)];
+                if (buffer.remaining() < document.length + 1) {
+                    written += writeFully(channel, buffer.flip());
+                    buffer.clear();
+                }
+                buffer.put(document).put((byte) '\n');
+            }
+            writeFully(channel, buffer.flip());
+        }
+        System.out.println("Wrote " + Files.size(file) + " bytes to " + file);
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        int written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        return written;
+    }
+}
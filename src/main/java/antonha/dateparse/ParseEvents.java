@@ -0,0 +1,240 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DateTimeException;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events for the parsers, so that parsing shows up as more than sampled stack frames in a
+ * recording. They are switched on and off like any other event, in the recording settings, e.g. with
+ * -XX:StartFlightRecording:settings=profile or in JDK Mission Control. ParseProfiler records them for a corpus.
+ *
+ * Events are only created on slow paths and once per batch, never for every date on the fast paths. When the event
+ * is not enabled, commit does nothing and the JIT removes the event object, so they cost effectively nothing.
+ *
+ * Loading the first event class initializes the metadata of Flight Recorder, which takes a few hundred milliseconds.
+ * So the events are not even created until Flight Recorder has been initialized, see recording().
+ */
+final class ParseEvents {
+
+    static final String CATEGORY = "Date Parsing";
+
+    private ParseEvents() {
+    }
+
+    /**
+     * @return false until Flight Recorder has been initialized, by a recording or by using its API. Until then no
+     * event can be enabled, so the event classes don't need to be loaded.
+     */
+    static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    @Name("antonha.dateparse.BatchParse")
+    @Label("Batch Parse")
+    @Description("A batch of dates parsed by BatchDateParser")
+    @Category(CATEGORY)
+    static final class BatchParse extends Event {
+        @Label("Rows")
+        int rows;
+
+        @Label("Vectorized")
+        boolean vectorized;
+
+        @Label("No Date Rows")
+        int noDate;
+
+        @Label("Invalid Rows")
+        int invalid;
+    }
+
+    @Name("antonha.dateparse.ExtractChunk")
+    @Label("Extract Chunk")
+    @Description("A chunk of an NDJSON file whose timestamps were extracted by NdjsonTimestampExtractor")
+    @Category(CATEGORY)
+    static final class ExtractChunk extends Event {
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Lines")
+        int lines;
+
+        @Label("Rejects")
+        int rejects;
+    }
+
+    @Name("antonha.dateparse.ZoneLookup")
+    @Label("Zone Lookup")
+    @Description("A zone id that was not cached, and had to be looked up with ZoneId.of")
+    @Category(CATEGORY)
+    static final class ZoneLookup extends Event {
+        @Label("Zone Id")
+        String id;
+
+        @Label("Valid")
+        boolean valid;
+    }
+
+    @Name("antonha.dateparse.InvalidDate")
+    @Label("Invalid Date")
+    @Description("A date with invalid fields, for which a DateTimeException was thrown")
+    @Category(CATEGORY)
+    @StackTrace
+    static final class InvalidDate extends Event {
+        @Label("Message")
+        String message;
+    }
+
+    @Name("antonha.dateparse.Fallback")
+    @Label("Fallback")
+    @Description("A date that a fast parser left to a slower, exact one")
+    @Category(CATEGORY)
+    static final class Fallback extends Event {
+        @Label("Parser")
+        String parser;
+
+        @Label("Reason")
+        String reason;
+
+        @Label("Date String")
+        String dateString;
+    }
+
+    /**
+     * What ParseStats counted since the last event. Only emitted when ParseStats is switched on.
+     */
+    @Name("antonha.dateparse.ParseStatistics")
+    @Label("Parse Statistics")
+    @Description("Dates parsed by CharDateParser since the last event, by precision and outcome")
+    @Category(CATEGORY)
+    @Period("1 s")
+    @StackTrace(false)
+    static final class ParseStatistics extends Event {
+        @Label("Dates")
+        long dates;
+
+        @Label("Dates Per Second")
+        double datesPerSecond;
+
+        @Label("No Date")
+        long noDate;
+
+        @Label("Invalid")
+        long invalid;
+
+        @Label("Year")
+        long year;
+
+        @Label("Month")
+        long month;
+
+        @Label("Day")
+        long day;
+
+        @Label("Hour")
+        long hour;
+
+        @Label("Minute")
+        long minute;
+
+        @Label("Second")
+        long second;
+
+        @Label("Fraction")
+        long fraction;
+
+        @Label("Millisecond Fractions")
+        long fraction3;
+
+        @Label("Microsecond Fractions")
+        long fraction6;
+
+        @Label("Nanosecond Fractions")
+        long fraction9;
+
+        @Label("Zone Cache Misses")
+        long zoneCacheMisses;
+    }
+
+    /**
+     * Records the DateTimeException that is about to be thrown for an invalid date.
+     */
+    static void invalidDate(DateTimeException e) {
+        if (!recording()) {
+            return;
+        }
+        InvalidDate event = new InvalidDate();
+        if (event.shouldCommit()) {
+            event.message = e.getMessage();
+            event.commit();
+        }
+    }
+
+    /**
+     * Emits ParseStatistics periodically, as deltas of ParseStats. Called once, when ParseStats is switched on.
+     */
+    static void registerStatistics() {
+        FlightRecorder.addPeriodicEvent(ParseStatistics.class, new Runnable() {
+            private ParseStats.Snapshot last = ParseStats.snapshot();
+            private long lastNanos = System.nanoTime();
+
+            @Override
+            public void run() {
+                ParseStatistics event = new ParseStatistics();
+                if (!event.isEnabled()) {
+                    return;
+                }
+                ParseStats.Snapshot now = ParseStats.snapshot();
+                long nanos = System.nanoTime();
+                event.year = delta(now, ParseStats.Counter.YEAR);
+                event.month = delta(now, ParseStats.Counter.MONTH);
+                event.day = delta(now, ParseStats.Counter.DAY);
+                event.hour = delta(now, ParseStats.Counter.HOUR);
+                event.minute = delta(now, ParseStats.Counter.MINUTE);
+                event.second = delta(now, ParseStats.Counter.SECOND);
+                event.fraction = delta(now, ParseStats.Counter.FRACTION);
+                event.noDate = delta(now, ParseStats.Counter.NO_DATE);
+                event.invalid = delta(now, ParseStats.Counter.INVALID_MONTH)
+                    + delta(now, ParseStats.Counter.INVALID_DAY)
+                    + delta(now, ParseStats.Counter.INVALID_HOUR);
+                event.dates = event.year + event.month + event.day + event.hour + event.minute + event.second
+                    + event.fraction + event.noDate;
+                event.datesPerSecond = event.dates * 1e9 / Math.max(1, nanos - lastNanos);
+                event.fraction3 = now.fractionDigits(3) - last.fractionDigits(3);
+                event.fraction6 = now.fractionDigits(6) - last.fractionDigits(6);
+                event.fraction9 = now.fractionDigits(9) - last.fractionDigits(9);
+                event.zoneCacheMisses = delta(now, ParseStats.Counter.ZONE_CACHE_MISS);
+                event.commit();
+                last = now;
+                lastNanos = nanos;
+            }
+
+            private long delta(ParseStats.Snapshot now, ParseStats.Counter counter) {
+                return now.get(counter) - last.get(counter);
+            }
+        });
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+/**
+ * Parses a corpus from DateCorpus over and over under Java Flight Recorder, with the events of ParseEvents switched
+ * on, and writes the recording to a file that can be opened in JDK Mission Control or printed with jfr print.
+ *
+ * The arguments are all optional: the parser, a DateParsers name or batch for BatchDateParser (default hybrid), the
+ * DateCorpus.Mix (default MIXED), the percentage of invalid dates (default 5), the seconds to run (default 30) and the
+ * file to write (default dateparse.jfr).
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar antonha.dateparse.ParseProfiler hybrid ZONES 5 30 zones.jfr
+ * jfr print --categories "Date Parsing" zones.jfr
+ * </pre>
+ */
+public final class ParseProfiler {
+
+    private static final int CORPUS_SIZE = 65_536;
+    private static final int BATCH_SIZE = 1024;
+
+    //The results go here, so that the JIT can't remove the parsing.
+    static long sink;
+
+    private static final List<Class<? extends Event>> EVENTS = List.of(
+        ParseEvents.BatchParse.class,
+        ParseEvents.ExtractChunk.class,
+        ParseEvents.ZoneLookup.class,
+        ParseEvents.InvalidDate.class,
+        ParseEvents.Fallback.class,
+        ParseEvents.ParseStatistics.class
+    );
+
+    private ParseProfiler() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        //Before ParseStats is loaded, so that there are statistics to record.
+        if (System.getProperty("antonha.dateparse.stats") == null) {
+            System.setProperty("antonha.dateparse.stats", "true");
+        }
+        String parser = args.length > 0 ? args[0] : "hybrid";
+        DateCorpus.Mix mix = args.length > 1 ? DateCorpus.Mix.valueOf(args[1]) : DateCorpus.Mix.MIXED;
+        int invalidPercent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long nanos = (args.length > 3 ? Long.parseLong(args[3]) : 30) * 1_000_000_000L;
+        Path output = Path.of(args.length > 4 ? args[4] : "dateparse.jfr");
+
+        String[] corpus = DateCorpus.generate(mix, CORPUS_SIZE, invalidPercent, 42);
+        long dates = record(parser, corpus, nanos, output);
+        System.out.printf(
+            "Parsed %d %s dates with %s, %.0f dates/s. Recording written to %s%n",
+            dates, mix, parser, dates * 1e9 / nanos, output.toAbsolutePath()
+        );
+    }
+
+    /**
+     * Runs the parser on the corpus for the given time, with the profile settings and the parse events enabled.
+     *
+     * @return the number of dates parsed.
+     */
+    static long record(String parser, String[] corpus, long nanos, Path output) throws Exception {
+        try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+            for (Class<? extends Event> event : EVENTS) {
+                recording.enable(event);
+            }
+            recording.enable(ParseEvents.ParseStatistics.class).withPeriod(Duration.ofSeconds(1));
+            recording.setDestination(output);
+            recording.start();
+            long dates = parser.equals("batch")
+                ? runBatches(corpus, nanos)
+                : run(DateParsers.forName(parser), corpus, nanos);
+            recording.stop();
+            return dates;
+        }
+    }
+
+    private static long run(DateParser parser, String[] corpus, long nanos) {
+        long end = System.nanoTime() + nanos;
+        long dates = 0;
+        long sum = 0;
+        do {
+            for (String dateString : corpus) {
+                sum += parser.parseToEpochMillis(dateString);
+            }
+            dates += corpus.length;
+        } while (System.nanoTime() < end);
+        sink = sum;
+        return dates;
+    }
+
+    /*
+     * Batches of UTF-8 bytes, the way BatchDateParser gets them from a bulk request.
+     */
+    private static long runBatches(String[] corpus, long nanos) {
+        int batches = (corpus.length + BATCH_SIZE - 1) / BATCH_SIZE;
+        byte[][] data = new byte[batches][];
+        int[][] offsets = new int[batches][BATCH_SIZE];
+        int[][] lengths = new int[batches][BATCH_SIZE];
+        int[] counts = new int[batches];
+        for (int b = 0; b < batches; b++) {
+            StringBuilder builder = new StringBuilder();
+            int count = Math.min(BATCH_SIZE, corpus.length - b * BATCH_SIZE);
+            int offset = 0;
+            for (int i = 0; i < count; i++) {
+                byte[] bytes = corpus[b * BATCH_SIZE + i].getBytes(StandardCharsets.UTF_8);
+                builder.append(corpus[b * BATCH_SIZE + i]);
+                offsets[b][i] = offset;
+                lengths[b][i] = bytes.length;
+                offset += bytes.length;
+            }
+            data[b] = builder.toString().getBytes(StandardCharsets.UTF_8);
+            counts[b] = count;
+        }
+        long[] out = new long[BATCH_SIZE];
+        byte[] status = new byte[BATCH_SIZE];
+        long end = System.nanoTime() + nanos;
+        long dates = 0;
+        do {
+            for (int b = 0; b < batches; b++) {
+                BatchDateParser.parseToEpochMillis(data[b], offsets[b], lengths[b], counts[b], out, status);
+            }
+            dates += corpus.length;
+        } while (System.nanoTime() < end);
+        sink = out[0];
+        return dates;
+    }
+}
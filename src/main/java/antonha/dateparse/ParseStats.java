@@ -0,0 +1,191 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for which paths CharDateParser takes: how precise the dates are, how many fraction digits they have, how
+ * their zones are parsed and how many of them fail. They tell what real traffic looks like, which is what the fast
+ * paths should be tuned for.
+ *
+ * The counters are off by default. They are switched on with the system property antonha.dateparse.stats=true,
+ * which is read once into a static final field. When it is false the JIT removes the counting altogether, so it
+ * costs nothing. When it is true every parse adds to two or three LongAdders, which are striped so that parsing
+ * threads don't contend on them.
+ */
+public final class ParseStats {
+
+    /**
+     * Whether counting is switched on. Fixed when the class is loaded.
+     */
+    static final boolean ENABLED = Boolean.getBoolean("antonha.dateparse.stats");
+
+    public enum Counter {
+        //Outcomes that are not a date.
+        NO_DATE,
+        INVALID_MONTH,
+        INVALID_DAY,
+        INVALID_HOUR,
+        //How precise the dates were, including invalid ones.
+        YEAR,
+        MONTH,
+        DAY,
+        HOUR,
+        MINUTE,
+        SECOND,
+        FRACTION,
+        //How zones were parsed. Counted for every zone that CharDateParser parses, which includes the zones that
+        //IncrementalDateParser can't reuse. A cache miss is a zone id that had to be looked up with ZoneId.of, and
+        //ids that are not valid zones are counted as ZONE_INVALID, cached or not.
+        ZONE_UTC,
+        ZONE_OFFSET,
+        ZONE_CACHE_HIT,
+        ZONE_CACHE_MISS,
+        ZONE_INVALID
+    }
+
+    static {
+        if (ENABLED) {
+            ParseEvents.registerStatistics();
+        }
+    }
+
+    private ParseStats() {
+    }
+
+    public static boolean enabled() {
+        return ENABLED;
+    }
+
+    /**
+     * The counts since start, or since the last reset. The counters are read one by one while parsing goes on, so
+     * they may not add up exactly.
+     */
+    public static Snapshot snapshot() {
+        long[] counts = new long[Counters.COUNTERS.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Counters.COUNTERS[i].sum();
+        }
+        long[] digits = new long[Counters.FRACTION_DIGITS.length];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = Counters.FRACTION_DIGITS[i].sum();
+        }
+        return new Snapshot(counts, digits);
+    }
+
+    public static void reset() {
+        for (LongAdder counter : Counters.COUNTERS) {
+            counter.reset();
+        }
+        for (LongAdder counter : Counters.FRACTION_DIGITS) {
+            counter.reset();
+        }
+    }
+
+    /*
+     * The record methods are only called if ENABLED is true, and do not check it themselves.
+     */
+
+    static void recordScan(long fields) {
+        long status = ParseStatus.check(fields);
+        if (status != ParseStatus.VALID) {
+            switch (ParseStatus.code(status)) {
+                case ParseStatus.NO_DATE:
+                    Counters.COUNTERS[Counter.NO_DATE.ordinal()].increment();
+                    return;
+                case ParseStatus.INVALID_MONTH:
+                    Counters.COUNTERS[Counter.INVALID_MONTH.ordinal()].increment();
+                    break;
+                case ParseStatus.INVALID_DAY:
+                    Counters.COUNTERS[Counter.INVALID_DAY.ordinal()].increment();
+                    break;
+                default:
+                    Counters.COUNTERS[Counter.INVALID_HOUR.ordinal()].increment();
+            }
+        }
+        int precision = DateFields.precision(fields);
+        Counters.COUNTERS[Counters.PRECISIONS[precision].ordinal()].increment();
+        if (precision == DateFields.FRACTION) {
+            Counters.FRACTION_DIGITS[DateFields.fractionDigits(fields)].increment();
+        }
+    }
+
+    static void record(Counter counter) {
+        Counters.COUNTERS[counter.ordinal()].increment();
+    }
+
+    /**
+     * The counters are in a holder, so that the parsers only load ParseStats to read ENABLED when counting is off.
+     * LongAdder sets up VarHandles when it is first used, which is noticeable on a cold JVM.
+     */
+    private static final class Counters {
+        private static final Counter[] PRECISIONS = {
+            Counter.YEAR, Counter.MONTH, Counter.DAY, Counter.HOUR, Counter.MINUTE, Counter.SECOND, Counter.FRACTION
+        };
+        private static final LongAdder[] COUNTERS = new LongAdder[Counter.values().length];
+        private static final LongAdder[] FRACTION_DIGITS = new LongAdder[DateFields.MAX_FRACTION_DIGITS + 1];
+
+        static {
+            for (int i = 0; i < COUNTERS.length; i++) {
+                COUNTERS[i] = new LongAdder();
+            }
+            for (int i = 0; i < FRACTION_DIGITS.length; i++) {
+                FRACTION_DIGITS[i] = new LongAdder();
+            }
+        }
+    }
+
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long[] fractionDigits;
+
+        private Snapshot(long[] counts, long[] fractionDigits) {
+            this.counts = counts;
+            this.fractionDigits = fractionDigits;
+        }
+
+        public long get(Counter counter) {
+            return counts[counter.ordinal()];
+        }
+
+        /**
+         * @return how many dates had the given number of fraction digits, 1-9.
+         */
+        public long fractionDigits(int digits) {
+            return fractionDigits[digits];
+        }
+
+        public Map<Counter, Long> toMap() {
+            Map<Counter, Long> map = new EnumMap<>(Counter.class);
+            for (Counter counter : Counter.values()) {
+                map.put(counter, counts[counter.ordinal()]);
+            }
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(toMap().toString());
+            builder.append(" fraction digits [");
+            for (int i = 1; i < fractionDigits.length; i++) {
+                builder.append(i).append('=').append(fractionDigits[i]).append(i + 1 < fractionDigits.length ? ", " : "]");
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overhead of ParseStats. The same parsers are run in forks with the counters switched off, which is the
+ * default, and switched on with -Dantonha.dateparse.stats=true.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class ParseStatsBenchmark {
+
+    @Param({
+            "2023-01-01T23:38:34.000Z",
+            "2023-01-01T23:38:34.000+01:00",
+            "2023-01-01T23:38:34.000Europe/Stockholm",
+            "2023-01-01",
+    })
+    public String dateString;
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserStatsOff() {
+        return CharDateParser.parse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dantonha.dateparse.stats=true")
+    public TemporalAccessor benchCharParserStatsOn() {
+        return CharDateParser.parse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserEpochMillisStatsOff() {
+        return CharDateParser.parseToEpochMillis(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dantonha.dateparse.stats=true")
+    public long benchCharParserEpochMillisStatsOn() {
+        return CharDateParser.parseToEpochMillis(dateString);
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+/**
+ * The failure results of the tryParse methods of CharDateParser, which return an epoch value or a status instead of
+ * throwing.
+ *
+ * A status is a long with the sign bit set, an error code in bits 32-39 and the position in the date string where the
+ * problem was found in bits 0-31. Epoch millis are always much closer to zero than that. Epoch nanos are too, except
+ * for the first minutes they can represent, which tryParseToEpochNanos reports as OUT_OF_RANGE. The status for input
+ * that is not a date at all is code NO_DATE at position 0, which is CharDateParser.NO_DATE, so callers that only care
+ * about dates or no dates can keep comparing to that.
+ */
+public final class ParseStatus {
+
+    /**
+     * The input does not start with a year.
+     */
+    public static final int NO_DATE = 0;
+    public static final int INVALID_MONTH = 1;
+    /**
+     * The day is not in the month, including February 29 in years that are not leap years.
+     */
+    public static final int INVALID_DAY = 2;
+    public static final int INVALID_HOUR = 3;
+    /**
+     * The date is valid, but the result does not fit in a long. Only epoch nanos have this problem.
+     */
+    public static final int OUT_OF_RANGE = 4;
+
+    private static final String[] NAMES = {"NO_DATE", "INVALID_MONTH", "INVALID_DAY", "INVALID_HOUR", "OUT_OF_RANGE"};
+
+    /**
+     * Returned by check for fields that are fine. Never a valid status, since the sign bit is not set.
+     */
+    static final long VALID = 0L;
+
+    private static final long ERROR_MASK = 0xFFFF_FF00_0000_0000L;
+
+    //Where in a date string the fields are, for the position of the status.
+    private static final int MONTH_POSITION = 5;
+    private static final int DAY_POSITION = 8;
+    private static final int HOUR_POSITION = 11;
+
+    private ParseStatus() {
+    }
+
+    /**
+     * @return true if the result of a tryParse method is a status rather than an epoch value.
+     */
+    public static boolean isError(long result) {
+        return (result & ERROR_MASK) == Long.MIN_VALUE;
+    }
+
+    public static int code(long status) {
+        return (int) (status >>> 32) & 0xFF;
+    }
+
+    public static int position(long status) {
+        return (int) status;
+    }
+
+    /**
+     * @return the status as text, like INVALID_DAY at 8. Only meant for logging, since it allocates.
+     */
+    public static String toString(long status) {
+        int code = code(status);
+        String name = code < NAMES.length ? NAMES[code] : "UNKNOWN(" + code + ")";
+        return name + " at " + position(status);
+    }
+
+    static long error(int code, int position) {
+        return Long.MIN_VALUE | ((long) code << 32) | position;
+    }
+
+    /**
+     * The same checks as DateFields.validate, but returning the status instead of throwing.
+     *
+     * @return VALID, or the status for the first invalid field.
+     */
+    static long check(long fields) {
+        if (fields == DateFields.NONE) {
+            return error(NO_DATE, 0);
+        }
+        int month = DateFields.month(fields);
+        if (month < 1 || month > 12) {
+            return error(INVALID_MONTH, MONTH_POSITION);
+        }
+        int day = DateFields.day(fields);
+        if (day < 1 || (day > 28 && day > DateFields.lengthOfMonth(DateFields.year(fields), month))) {
+            return error(INVALID_DAY, DAY_POSITION);
+        }
+        if (DateFields.hour(fields) > 23) {
+            return error(INVALID_HOUR, HOUR_POSITION);
+        }
+        return VALID;
+    }
+}
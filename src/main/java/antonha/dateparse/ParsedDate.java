@@ -0,0 +1,152 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * A parsed date, filled in by CharDateParser.parseInto. Unlike the TemporalAccessor from parse, it tells which fields
+ * the date string had as a Precision instead of as the type of the result, and can be reused for every date, so that
+ * parsing does not allocate.
+ *
+ * Fields that were not in the date string have their lowest value, e.g. 2023-05 has day 1 and hour 0. The fields are
+ * those of the date string, also when the local time does not exist in the zone: the offset is the one used to find
+ * the instant, so toEpochSecond is always the local date time minus offsetSeconds.
+ *
+ * Not thread safe. Use one per thread.
+ */
+public final class ParsedDate {
+
+    /**
+     * The last field that the date string had.
+     */
+    public enum Precision {
+        YEAR, MONTH, DAY, HOUR, MINUTE, SECOND, FRACTION
+    }
+
+    private static final Precision[] PRECISIONS = Precision.values();
+
+    private long fields;
+    private int nano;
+    private ZoneId zone;
+    private int offsetSeconds;
+    private long epochSecond;
+
+    /**
+     * Sets all fields. Throws DateTimeException if the fields are not a valid date, which leaves this unchanged.
+     */
+    void set(long fields, int nano, ZoneId zone) {
+        long epochSecond = CharDateParser.toEpochSecond(fields, zone);
+        this.offsetSeconds = (int) (DateFields.localEpochSecond(fields) - epochSecond);
+        this.epochSecond = epochSecond;
+        this.fields = fields;
+        this.nano = nano;
+        this.zone = zone;
+    }
+
+    public Precision precision() {
+        return PRECISIONS[DateFields.precision(fields)];
+    }
+
+    public int year() {
+        return DateFields.year(fields);
+    }
+
+    public int month() {
+        return DateFields.month(fields);
+    }
+
+    public int day() {
+        return DateFields.day(fields);
+    }
+
+    public int hour() {
+        return DateFields.hour(fields);
+    }
+
+    public int minute() {
+        return DateFields.minute(fields);
+    }
+
+    public int second() {
+        return DateFields.second(fields);
+    }
+
+    public int nano() {
+        return nano;
+    }
+
+    /**
+     * @return the number of fraction digits in the date string, 0 if there was no fraction.
+     */
+    public int fractionDigits() {
+        return DateFields.fractionDigits(fields);
+    }
+
+    /**
+     * @return true if the date string had a valid zone. Dates without one are in UTC.
+     */
+    public boolean hasZone() {
+        return zone != null;
+    }
+
+    /**
+     * @return the zone of the date string, or null if it had none.
+     */
+    public ZoneId zone() {
+        return zone;
+    }
+
+    /**
+     * @return the offset from UTC, 0 if the date string had no zone.
+     */
+    public int offsetSeconds() {
+        return offsetSeconds;
+    }
+
+    public long toEpochSecond() {
+        return epochSecond;
+    }
+
+    public long toEpochMilli() {
+        return epochSecond * 1000 + nano / 1_000_000;
+    }
+
+    /**
+     * Only dates from 1677-09-21T00:12:43.145224192Z to 2262-04-11T23:47:16.854775807Z fit in a long, for other dates
+     * an ArithmeticException is thrown. Unlike CharDateParser.parseToEpochNanos, the first one is not NO_DATE here.
+     */
+    public long toEpochNanos() {
+        return CharDateParser.toEpochNanos(epochSecond, nano);
+    }
+
+    public Instant toInstant() {
+        return Instant.ofEpochSecond(epochSecond, nano);
+    }
+
+    /**
+     * @return the same as CharDateParser.parse would have returned.
+     */
+    public TemporalAccessor toTemporalAccessor() {
+        return CharDateParser.toTemporalAccessor(fields, nano, zone);
+    }
+
+    @Override
+    public String toString() {
+        return toTemporalAccessor() + " (" + precision() + ")";
+    }
+}
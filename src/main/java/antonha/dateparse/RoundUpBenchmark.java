@@ -0,0 +1,57 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the upper bounds of range queries, where missing fields are rounded up, with the round up parser of
+ * strict_date_optional_time in java.time and with CharDateParser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class RoundUpBenchmark {
+
+    @Param({
+            "2023",
+            "2023-01",
+            "2023-01-01",
+            "2023-01-01T23:38",
+            "2023-01-01T23:38:34.000Z",
+    })
+    public String dateString;
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESRoundUp() {
+        return ElasticsearchParsers.doParseRoundUp(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParserRoundUp() {
+        return CharDateParser.parseRoundUp(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserRoundUpEpochMillis() {
+        return CharDateParser.parseToEpochMillisRoundUp(dateString);
+    }
+}
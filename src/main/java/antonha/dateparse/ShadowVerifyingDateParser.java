@@ -0,0 +1,160 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parses with a fast parser, and checks a sample of the dates against a reference parser, to find differences in
+ * production traffic that the tests missed. The results always come from the fast parser.
+ *
+ * The check is done by an executor, so the parsing thread only pays for the sampling and for handing the sampled
+ * dates over. By default that is a single daemon thread with a bounded queue. Samples that don't fit in the queue are
+ * dropped rather than making the parsing thread wait.
+ */
+public final class ShadowVerifyingDateParser implements DateParser {
+
+    /**
+     * Called on the verifying thread for every sampled date where the parsers disagree. The instants are null if the
+     * parser did not parse the date.
+     */
+    public interface MismatchListener {
+        void onMismatch(String dateString, Instant parsed, Instant expected);
+    }
+
+    private static final int QUEUE_SIZE = 1024;
+
+    private final DateParser parser;
+    private final DateParser reference;
+    private final double sampleRate;
+    private final Executor executor;
+    private final MismatchListener listener;
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param sampleRate the fraction of the dates to verify, 0-1.
+     */
+    public ShadowVerifyingDateParser(DateParser parser, DateParser reference, double sampleRate) {
+        this(parser, reference, sampleRate, null, (dateString, parsed, expected) -> {
+        });
+    }
+
+    /**
+     * @param executor runs the checks, or null for a single daemon thread with a bounded queue.
+     * @param listener is told about every mismatch.
+     */
+    public ShadowVerifyingDateParser(
+        DateParser parser, DateParser reference, double sampleRate, Executor executor, MismatchListener listener
+    ) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be 0-1, was " + sampleRate);
+        }
+        this.parser = parser;
+        this.reference = reference;
+        this.sampleRate = sampleRate;
+        this.executor = executor != null ? executor : defaultExecutor();
+        this.listener = listener;
+    }
+
+    @Override
+    public TemporalAccessor parse(String dateString) {
+        TemporalAccessor parsed = parser.parse(dateString);
+        if (sampled()) {
+            submit(dateString, DateParsers.toInstant(parsed), false);
+        }
+        return parsed;
+    }
+
+    @Override
+    public long parseToEpochMillis(String dateString) {
+        long millis = parser.parseToEpochMillis(dateString);
+        if (sampled()) {
+            submit(dateString, millis == CharDateParser.NO_DATE ? null : Instant.ofEpochMilli(millis), true);
+        }
+        return millis;
+    }
+
+    public long verified() {
+        return verified.sum();
+    }
+
+    public long mismatches() {
+        return mismatches.sum();
+    }
+
+    /**
+     * @return how many samples were not verified, since the verifier could not keep up.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private boolean sampled() {
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    private void submit(String dateString, Instant parsed, boolean millis) {
+        try {
+            executor.execute(() -> verify(dateString, parsed, millis));
+        } catch (RuntimeException e) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * @param millis if parsed came from parseToEpochMillis, and thus only has millisecond precision.
+     */
+    private void verify(String dateString, Instant parsed, boolean millis) {
+        Instant expected;
+        try {
+            expected = DateParsers.toInstant(reference.parse(dateString));
+        } catch (DateTimeException e) {
+            expected = null;
+        }
+        if (millis && expected != null) {
+            expected = expected.truncatedTo(ChronoUnit.MILLIS);
+        }
+        boolean same = expected == null ? parsed == null : expected.equals(parsed);
+        verified.increment();
+        if (!same) {
+            mismatches.increment();
+            listener.onMismatch(dateString, parsed, expected);
+        }
+    }
+
+    private Executor defaultExecutor() {
+        return new ThreadPoolExecutor(
+            1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE),
+            runnable -> {
+                Thread thread = new Thread(runnable, "shadow-verify");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, pool) -> dropped.increment()
+        );
+    }
+}
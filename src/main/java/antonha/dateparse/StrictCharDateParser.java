@@ -0,0 +1,248 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * A parser with the same semantics as STRICT_DATE_FORMATTER, the parser of strict_date_time without a zone: a four
+ * digit year, optionally followed by -MM and -MM-dd, then a required THH:mm:ss and an optional fraction of 1-9 digits.
+ * Unlike CharDateParser, partial dates and times are not dates, and neither are invalid values such as hour 24 or
+ * February 30. Like DateTimeFormatter.parseObject, anything after the end of the date is ignored, including a zone.
+ *
+ * The fields are resolved like the STRICT resolver and the tests do it: a missing month or day is 1, so 2023T01:02:03
+ * is the first of January. Negative years, which the formatter accepts with a leading -, are not supported.
+ */
+public class StrictCharDateParser {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * @return a LocalDateTime, or null if the string does not start with a valid date time.
+     */
+    public static TemporalAccessor parse(CharSequence dateString) {
+        return parse(dateString, 0, dateString.length());
+    }
+
+    public static TemporalAccessor parse(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (fields == DateFields.NONE) {
+            return null;
+        }
+        return CharDateParser.toTemporalAccessor(fields, parseFraction(text, offset, fields), null);
+    }
+
+    public static TemporalAccessor parse(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (fields == DateFields.NONE) {
+            return null;
+        }
+        return CharDateParser.toTemporalAccessor(fields, parseFraction(bytes, offset, fields), null);
+    }
+
+    /**
+     * @return milliseconds since the epoch as if the date was in UTC, or CharDateParser.NO_DATE if parse would have
+     * returned null.
+     */
+    public static long parseToEpochMillis(CharSequence dateString) {
+        return parseToEpochMillis(dateString, 0, dateString.length());
+    }
+
+    public static long parseToEpochMillis(CharSequence text, int offset, int length) {
+        long fields = scan(text, offset, length);
+        if (fields == DateFields.NONE) {
+            return CharDateParser.NO_DATE;
+        }
+        return DateFields.localEpochSecond(fields) * 1000 + parseFraction(text, offset, fields) / NANOS_PER_MILLI;
+    }
+
+    public static long parseToEpochMillis(byte[] bytes, int offset, int length) {
+        long fields = scan(bytes, offset, length);
+        if (fields == DateFields.NONE) {
+            return CharDateParser.NO_DATE;
+        }
+        return DateFields.localEpochSecond(fields) * 1000 + parseFraction(bytes, offset, fields) / NANOS_PER_MILLI;
+    }
+
+    /*
+     * The scanners return the fields of a valid date time, or NONE. The time starts at 4, 7 or 10 depending on how much
+     * of the date there is, so the fraction does not start at DateFields.FRACTION_START like it does for CharDateParser.
+     *
+     * The two scanners are identical except for how they read characters. Please keep them that way.
+     */
+
+    static long scan(CharSequence dateString, int offset, int length) {
+        if (length < 13) {
+            return DateFields.NONE;
+        }
+        int year = digits(dateString, offset, 4);
+        if (year < 0) {
+            return DateFields.NONE;
+        }
+        int month = 1;
+        int day = 1;
+        int time = 4;
+        //The month and day are optional sections, if they don't parse the time is expected where they started.
+        if (dateString.charAt(offset + 4) == '-') {
+            int m = digits(dateString, offset + 5, 2);
+            if (m >= 0) {
+                month = m;
+                time = 7;
+                if (dateString.charAt(offset + 7) == '-') {
+                    int d = digits(dateString, offset + 8, 2);
+                    if (d >= 0) {
+                        day = d;
+                        time = 10;
+                    }
+                }
+            }
+        }
+        if (length < time + 9
+            || dateString.charAt(offset + time) != 'T'
+            || dateString.charAt(offset + time + 3) != ':'
+            || dateString.charAt(offset + time + 6) != ':') {
+            return DateFields.NONE;
+        }
+        int hour = digits(dateString, offset + time + 1, 2);
+        int minute = digits(dateString, offset + time + 4, 2);
+        int second = digits(dateString, offset + time + 7, 2);
+        if (hour < 0 || minute < 0 || second < 0 || !DateFields.isValid(year, month, day, hour, minute, second)) {
+            return DateFields.NONE;
+        }
+
+        //The fraction is optional too, a . without digits is ignored like any other trailing text.
+        int start = time + 10;
+        if (length < start + 1 || dateString.charAt(offset + start - 1) != '.') {
+            return DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        }
+        int end = Math.min(length, start + DateFields.MAX_FRACTION_DIGITS);
+        int pos = start;
+        while (pos < end && isDigit(dateString.charAt(offset + pos))) {
+            pos++;
+        }
+        int precision = pos > start ? DateFields.FRACTION : DateFields.SECOND;
+        return DateFields.pack(precision, year, month, day, hour, minute, second, pos - start);
+    }
+
+    static long scan(byte[] dateString, int offset, int length) {
+        if (length < 13) {
+            return DateFields.NONE;
+        }
+        int year = digits(dateString, offset, 4);
+        if (year < 0) {
+            return DateFields.NONE;
+        }
+        int month = 1;
+        int day = 1;
+        int time = 4;
+        //The month and day are optional sections, if they don't parse the time is expected where they started.
+        if (dateString[offset + 4] == '-') {
+            int m = digits(dateString, offset + 5, 2);
+            if (m >= 0) {
+                month = m;
+                time = 7;
+                if (dateString[offset + 7] == '-') {
+                    int d = digits(dateString, offset + 8, 2);
+                    if (d >= 0) {
+                        day = d;
+                        time = 10;
+                    }
+                }
+            }
+        }
+        if (length < time + 9
+            || dateString[offset + time] != 'T'
+            || dateString[offset + time + 3] != ':'
+            || dateString[offset + time + 6] != ':') {
+            return DateFields.NONE;
+        }
+        int hour = digits(dateString, offset + time + 1, 2);
+        int minute = digits(dateString, offset + time + 4, 2);
+        int second = digits(dateString, offset + time + 7, 2);
+        if (hour < 0 || minute < 0 || second < 0 || !DateFields.isValid(year, month, day, hour, minute, second)) {
+            return DateFields.NONE;
+        }
+
+        //The fraction is optional too, a . without digits is ignored like any other trailing text.
+        int start = time + 10;
+        if (length < start + 1 || dateString[offset + start - 1] != '.') {
+            return DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        }
+        int end = Math.min(length, start + DateFields.MAX_FRACTION_DIGITS);
+        int pos = start;
+        while (pos < end && isDigit(dateString[offset + pos])) {
+            pos++;
+        }
+        int precision = pos > start ? DateFields.FRACTION : DateFields.SECOND;
+        return DateFields.pack(precision, year, month, day, hour, minute, second, pos - start);
+    }
+
+    private static int parseFraction(CharSequence dateString, int offset, long fields) {
+        int digits = DateFields.fractionDigits(fields);
+        int start = offset + fractionStart(dateString.charAt(offset + 4), dateString.charAt(offset + 7));
+        int fraction = 0;
+        for (int i = 0; i < digits; i++) {
+            fraction = fraction * 10 + (dateString.charAt(start + i) - '0');
+        }
+        return DateFields.scaleFraction(fraction, digits);
+    }
+
+    private static int parseFraction(byte[] dateString, int offset, long fields) {
+        int digits = DateFields.fractionDigits(fields);
+        int start = offset + fractionStart(dateString[offset + 4], dateString[offset + 7]);
+        int fraction = 0;
+        for (int i = 0; i < digits; i++) {
+            fraction = fraction * 10 + (dateString[start + i] - '0');
+        }
+        return DateFields.scaleFraction(fraction, digits);
+    }
+
+    /**
+     * Where the fraction starts in a date string that scanned fine. The T comes right after the year or the month if
+     * the date stops there.
+     */
+    private static int fractionStart(int c4, int c7) {
+        int time = c4 == 'T' ? 4 : c7 == 'T' ? 7 : 10;
+        return time + 10;
+    }
+
+    private static int digits(CharSequence dateString, int pos, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = dateString.charAt(pos + i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int digits(byte[] dateString, int pos, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            byte b = dateString[pos + i];
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SWAR byte scanner against the scalar byte scanner, which is run in a fork with -Dantonha.dateparse.swar=false,
+ * and against the charAt based scanner of Strings. Both the scan alone and a full parse to epoch millis are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class SwarBenchmark {
+
+    @Param({
+            "2023-01-01T23:38:34Z",
+            "2023-01-01T23:38:34.123Z",
+            "2023-01-01T23:38:34.123456789+01:00",
+            "2023-01-01",
+    })
+    public String dateString;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchScanBytesSwar() {
+        return CharDateParser.scan(bytes, 0, bytes.length);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dantonha.dateparse.swar=false")
+    public long benchScanBytesScalar() {
+        return CharDateParser.scan(bytes, 0, bytes.length);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchScanString() {
+        return CharDateParser.scan(dateString, 0, dateString.length());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchEpochMillisBytesSwar() {
+        return CharDateParser.parseToEpochMillis(bytes, 0, bytes.length);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dantonha.dateparse.swar=false")
+    public long benchEpochMillisBytesScalar() {
+        return CharDateParser.parseToEpochMillis(bytes, 0, bytes.length);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchEpochMillisString() {
+        return CharDateParser.parseToEpochMillis(dateString);
+    }
+}
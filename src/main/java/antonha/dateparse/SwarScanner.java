@@ -0,0 +1,142 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Scans yyyy-MM-ddTHH:mm:ss and the fraction after it from bytes, 8 bytes at a time (SIMD within a register). This is
+ * the common case, and the byte scanner of CharDateParser tries it first.
+ *
+ * The 19 bytes are read as three overlapping longs: yyyy-MM- , ddTHH:mm and HH:mm:ss. Each long is XORed with a
+ * template of the expected separators and zeros, which turns the separators into 0 and the digits into their values.
+ * One mask check then tells if all bytes are right. Adjacent digits are combined with a multiply and a shift, so that
+ * every byte holds the value of the digit pair that starts there.
+ *
+ * Anything that is not a full date time with valid digits, including a month like 13 that the scalar scanner reads
+ * as a partial date, gives DateFields.NONE, and is left to the scalar scanner.
+ */
+final class SwarScanner {
+
+    /**
+     * SWAR can be switched off with -Dantonha.dateparse.swar=false, to compare with the scalar scanner.
+     */
+    static final boolean ENABLED = !"false".equals(System.getProperty("antonha.dateparse.swar"));
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    //The expected bytes, with '0' for digits. Little endian, so the first byte is the lowest.
+    private static final long DATE_TEMPLATE = template("0000-00-");
+    private static final long DAY_TIME_TEMPLATE = template("00T00:00");
+    private static final long TIME_TEMPLATE = template("00:00:00");
+    private static final long DIGITS_TEMPLATE = template("00000000");
+
+    private static final long HIGH_NIBBLES = 0xF0F0F0F0F0F0F0F0L;
+    private static final long SIXES = 0x0606060606060606L;
+
+    private SwarScanner() {
+    }
+
+    /**
+     * @return the fields, or DateFields.NONE if the scalar scanner has to decide. Length must be at least 19.
+     */
+    static long scan(byte[] bytes, int offset, int length) {
+        long date = (long) LONGS.get(bytes, offset) ^ DATE_TEMPLATE;
+        long dayTime = (long) LONGS.get(bytes, offset + 8) ^ DAY_TIME_TEMPLATE;
+        long time = (long) LONGS.get(bytes, offset + 11) ^ TIME_TEMPLATE;
+        if ((notDigits(date) | notDigits(dayTime) | notDigits(time)) != 0) {
+            return DateFields.NONE;
+        }
+        //The separators must be exactly zero, not just below 10.
+        if ((date & 0xFF00_00FF_0000_0000L) != 0 || (dayTime & 0x0000_FF00_00FF_0000L) != 0
+            || (time & 0x0000_FF00_00FF_0000L) != 0) {
+            return DateFields.NONE;
+        }
+        //Same digit limits as the scalar scanner, which would return a partial date.
+        if (digit(date, 5) > 1 || digit(dayTime, 0) > 3 || digit(dayTime, 6) > 5 || digit(time, 6) > 5) {
+            return DateFields.NONE;
+        }
+        long datePairs = pairs(date);
+        long dayTimePairs = pairs(dayTime);
+        int year = digit(datePairs, 0) * 100 + digit(datePairs, 2);
+        int month = digit(datePairs, 5);
+        int day = digit(dayTimePairs, 0);
+        int hour = digit(dayTimePairs, 3);
+        int minute = digit(dayTimePairs, 6);
+        int second = digit(pairs(time), 6);
+
+        if (length == 19 || bytes[offset + 19] != '.') {
+            return DateFields.pack(DateFields.SECOND, year, month, day, hour, minute, second, 0);
+        }
+        return DateFields.pack(
+            DateFields.FRACTION, year, month, day, hour, minute, second, fractionDigits(bytes, offset, length)
+        );
+    }
+
+    /**
+     * Counts the fraction digits from FRACTION_START, at most MAX_FRACTION_DIGITS.
+     */
+    private static int fractionDigits(byte[] bytes, int offset, int length) {
+        int start = offset + DateFields.FRACTION_START;
+        int max = Math.min(length - DateFields.FRACTION_START, DateFields.MAX_FRACTION_DIGITS);
+        if (start + 8 > bytes.length) {
+            int digits = 0;
+            while (digits < max && isDigit(bytes[start + digits])) {
+                digits++;
+            }
+            return digits;
+        }
+        long values = (long) LONGS.get(bytes, start) ^ DIGITS_TEMPLATE;
+        //Digits up to the first flagged byte. Bytes after it may be wrongly flagged, which does not matter.
+        int digits = Long.numberOfTrailingZeros(notDigits(values)) >>> 3;
+        if (digits == 8 && max == 9 && isDigit(bytes[start + 8])) {
+            digits = 9;
+        }
+        return Math.min(digits, max);
+    }
+
+    /**
+     * Flags every byte that is not 0-9. A byte of 10-15 gets a high nibble when 6 is added, and larger bytes have one
+     * already. A carry into the next byte can only come from a byte that is already flagged.
+     */
+    private static long notDigits(long values) {
+        return (values | (values + SIXES)) & HIGH_NIBBLES;
+    }
+
+    /**
+     * Every byte becomes ten times itself plus the next byte. With digits 0-9 that is at most 99, so nothing carries.
+     */
+    private static long pairs(long digits) {
+        return digits * 10 + (digits >>> 8);
+    }
+
+    private static int digit(long values, int index) {
+        return (int) (values >>> (index << 3)) & 0xFF;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static long template(String template) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | template.charAt(i);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.nio.charset.StandardCharsets;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Parses rows shaped exactly like 2023-01-01T23:38:34.000Z with the Vector API. Each row is checked with a single
+ * vector compare against a template, and all digit pairs are combined in one multiply-add, instead of the ~20
+ * separate checks and conversions that the scalar parser does.
+ *
+ * Rows that do not match the template, or that have out of range values, are left to the scalar parser. That way it
+ * decides what happens to anything unusual, and the results are always the same as for the scalar parser.
+ *
+ * This class uses the incubating jdk.incubator.vector module and must only be loaded if the JVM was started with
+ * --add-modules jdk.incubator.vector. BatchDateParser takes care of that, and it is the only class that is compiled
+ * with the module.
+ */
+final class VectorDateKernel implements BatchDateParser.Kernel {
+
+    static final int WIDTH = 24;
+
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_256;
+
+    private static final byte[] TEMPLATE_BYTES = "0000-00-00T00:00:00.000Z00000000".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ByteVector TEMPLATE = ByteVector.fromArray(SPECIES, TEMPLATE_BYTES, 0);
+
+    /**
+     * The lanes that should hold digits, and the lanes that should hold the separators in the template.
+     */
+    private static final VectorMask<Byte> DIGITS;
+    private static final VectorMask<Byte> SEPARATORS;
+    private static final VectorMask<Byte> OUTSIDE_ROW = SPECIES.indexInRange(0, WIDTH).not();
+
+    static {
+        boolean[] digits = new boolean[SPECIES.length()];
+        boolean[] separators = new boolean[SPECIES.length()];
+        for (int i = 0; i < WIDTH; i++) {
+            digits[i] = TEMPLATE_BYTES[i] == '0';
+            separators[i] = !digits[i];
+        }
+        DIGITS = VectorMask.fromArray(SPECIES, digits, 0);
+        SEPARATORS = VectorMask.fromArray(SPECIES, separators, 0);
+    }
+
+    //Created by name from BatchDateParser.
+    VectorDateKernel() {
+    }
+
+    /**
+     * @return true if the hardware has vectors wide enough for a whole row. Narrower vectors would be emulated, which
+     * is slower than the scalar parser.
+     */
+    @Override
+    public boolean isSupported() {
+        return ByteVector.SPECIES_PREFERRED.vectorBitSize() >= SPECIES.vectorBitSize();
+    }
+
+    /**
+     * Parses the rows that match the template, and marks them with BatchDateParser.OK. Other rows are not touched.
+     */
+    @Override
+    public void parse(byte[] data, int[] offsets, int[] lengths, int count, long[] out, byte[] status) {
+        byte[] pairs = new byte[SPECIES.length()];
+        //Rows this close to the end of the array can't be loaded with a full vector.
+        int lastFullLoad = data.length - SPECIES.length();
+        for (int i = 0; i < count; i++) {
+            int offset = offsets[i];
+            if (lengths[i] != WIDTH || offset > lastFullLoad) {
+                continue;
+            }
+            ByteVector row = ByteVector.fromArray(SPECIES, data, offset);
+            ByteVector digits = row.sub((byte) '0');
+            VectorMask<Byte> valid = digits.compare(VectorOperators.UNSIGNED_LE, (byte) 9).and(DIGITS)
+                .or(row.compare(VectorOperators.EQ, TEMPLATE).and(SEPARATORS))
+                .or(OUTSIDE_ROW);
+            if (!valid.allTrue()) {
+                continue;
+            }
+            //Separators are zeroed, so that each lane becomes the value of the digit pair starting at it.
+            digits = digits.blend((byte) 0, DIGITS.not());
+            digits.mul((byte) 10).add(digits.slice(1)).intoArray(pairs, 0);
+
+            int year = pairs[0] * 100 + pairs[2];
+            int month = pairs[5];
+            int day = pairs[8];
+            int hour = pairs[11];
+            int minute = pairs[14];
+            int second = pairs[17];
+            int millis = pairs[20] * 10 + pairs[22] / 10;
+            if (month < 1 || month > 12 || day < 1 || day > DateFields.lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+                continue;
+            }
+            long epochSecond = DateFields.epochDay(year, month, day) * DateFields.SECONDS_PER_DAY
+                + hour * 3600 + minute * 60 + second;
+            out[i] = epochSecond * 1000 + millis;
+            status[i] = BatchDateParser.OK;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date strings with other zones than Z. These are kept out of Benchmark, since several of the reference
+ * implementations there can only parse Z.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class ZoneBenchmark {
+
+    @Param({
+            "2023-01-01T23:38:34.000Z",
+            "2023-01-01T23:38:34.000+01:00",
+            "2023-01-01T23:38:34.000+0100",
+            "2023-01-01T23:38:34.000-05",
+            "2023-01-01T23:38:34.000Europe/Stockholm",
+            "2023-01-01T23:38:34.000America/New_York",
+    })
+    public String dateString;
+
+    private long fields;
+    private ZoneId zone;
+
+    @Setup
+    public void setUp() {
+        fields = CharDateParser.scan(dateString, 0, dateString.length());
+        zone = CharDateParser.parseZone(dateString, 23, dateString.length());
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchESParse() {
+        return ElasticsearchParsers.doParse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public TemporalAccessor benchCharParser() {
+        return CharDateParser.parse(dateString);
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchCharParserEpochMillis() {
+        return CharDateParser.parseToEpochMillis(dateString);
+    }
+
+    /*
+     * How the zone was found before the fast path and the cache: a substring and ZoneId.of.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public ZoneId benchZoneIdOfSubstring() {
+        try {
+            return ZoneId.of(dateString.substring(23));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public ZoneId benchParseZone() {
+        return CharDateParser.parseZone(dateString, 23, dateString.length());
+    }
+
+    /*
+     * Epoch seconds of the parsed fields, the way region zones were converted before the transition tables.
+     */
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchZonedDateTimeEpochSecond() {
+        return ZonedDateTime.of(
+            DateFields.year(fields), DateFields.month(fields), DateFields.day(fields),
+            DateFields.hour(fields), DateFields.minute(fields), DateFields.second(fields), 0,
+            zone
+        ).toEpochSecond();
+    }
+
+    @org.openjdk.jmh.annotations.Benchmark
+    public long benchToEpochSecond() {
+        return CharDateParser.toEpochSecond(fields, zone);
+    }
+}
@@ -0,0 +1,183 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.Set;
+
+/**
+ * A small cache from zone id characters to ZoneId, so that looking up a zone like Europe/Stockholm does not need a
+ * substring, a call to ZoneId.of, or an exception for ids that are not valid.
+ *
+ * The cache is a fixed size array indexed by a hash of the characters. Entries are immutable and replace each other
+ * on collisions, so there is no locking and the size is bounded. Threads may race to fill the same slot, which only
+ * means that a ZoneId is looked up more than once.
+ */
+final class ZoneIdCache {
+
+    private static final int SIZE = 256;
+
+    /**
+     * Longer ids than this are not cached. No zone id in tzdb is this long, so these are not valid anyway.
+     */
+    private static final int MAX_LENGTH = 64;
+
+    private static final Entry[] ENTRIES = new Entry[SIZE];
+
+    private ZoneIdCache() {
+    }
+
+    /**
+     * @return the zone for the characters from pos to end, or null if they are not a valid zone id.
+     */
+    static ZoneId get(CharSequence text, int pos, int end) {
+        int length = end - pos;
+        if (length > MAX_LENGTH) {
+            return lookup(text.subSequence(pos, end).toString());
+        }
+        int hash = 0;
+        for (int i = pos; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        Entry entry = ENTRIES[slot];
+        if (entry != null && entry.hash == hash && entry.matches(text, pos, end)) {
+            if (ParseStats.ENABLED) {
+                ParseStats.record(entry.zone != null ? ParseStats.Counter.ZONE_CACHE_HIT : ParseStats.Counter.ZONE_INVALID);
+            }
+            return entry.zone;
+        }
+        String id = text.subSequence(pos, end).toString();
+        entry = new Entry(hash, id, lookup(id));
+        ENTRIES[slot] = entry;
+        return entry.zone;
+    }
+
+    /**
+     * Same as for CharSequence. The bytes are read as ISO-8859-1, which is the same as UTF-8 for the ASCII characters
+     * that zone ids consist of. Since both hash the same characters, the entries are shared.
+     */
+    static ZoneId get(byte[] bytes, int pos, int end) {
+        int length = end - pos;
+        if (length > MAX_LENGTH) {
+            return lookup(new String(bytes, pos, length, StandardCharsets.ISO_8859_1));
+        }
+        int hash = 0;
+        for (int i = pos; i < end; i++) {
+            hash = 31 * hash + (bytes[i] & 0xFF);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        Entry entry = ENTRIES[slot];
+        if (entry != null && entry.hash == hash && entry.matches(bytes, pos, end)) {
+            if (ParseStats.ENABLED) {
+                ParseStats.record(entry.zone != null ? ParseStats.Counter.ZONE_CACHE_HIT : ParseStats.Counter.ZONE_INVALID);
+            }
+            return entry.zone;
+        }
+        String id = new String(bytes, pos, length, StandardCharsets.ISO_8859_1);
+        entry = new Entry(hash, id, lookup(id));
+        ENTRIES[slot] = entry;
+        return entry.zone;
+    }
+
+    private static ZoneId lookup(String id) {
+        ZoneId zone = ParseEvents.recording() ? timedLookup(id) : lookupZone(id);
+        if (ParseStats.ENABLED) {
+            ParseStats.record(zone != null ? ParseStats.Counter.ZONE_CACHE_MISS : ParseStats.Counter.ZONE_INVALID);
+        }
+        return zone;
+    }
+
+    private static ZoneId timedLookup(String id) {
+        ParseEvents.ZoneLookup event = new ParseEvents.ZoneLookup();
+        event.begin();
+        ZoneId zone = lookupZone(id);
+        if (event.shouldCommit()) {
+            event.id = id;
+            event.valid = zone != null;
+            event.commit();
+        }
+        return zone;
+    }
+
+    private static ZoneId lookupZone(String id) {
+        if (!mayBeZoneId(id)) {
+            return null;
+        }
+        try {
+            return ZoneId.of(id);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Region ids must be one of the available ids, so most invalid ids can be found without the exception from
+     * ZoneId.of. Offsets and prefixed offsets, like UTC+01:00, are left to ZoneId.of.
+     */
+    private static boolean mayBeZoneId(String id) {
+        if (id.isEmpty()) {
+            return false;
+        }
+        char c = id.charAt(0);
+        if (c == '+' || c == '-' || id.equals("Z") || id.startsWith("UT") || id.startsWith("GMT")) {
+            return true;
+        }
+        return AvailableIds.IDS.contains(id);
+    }
+
+    private static final class AvailableIds {
+        private static final Set<String> IDS = ZoneId.getAvailableZoneIds();
+    }
+
+    private static final class Entry {
+        private final int hash;
+        private final String id;
+        //Null if the id is not a valid zone, so that invalid ids don't throw every time.
+        private final ZoneId zone;
+
+        private Entry(int hash, String id, ZoneId zone) {
+            this.hash = hash;
+            this.id = id;
+            this.zone = zone;
+        }
+
+        private boolean matches(CharSequence text, int pos, int end) {
+            if (id.length() != end - pos) {
+                return false;
+            }
+            for (int i = 0; i < id.length(); i++) {
+                if (id.charAt(i) != text.charAt(pos + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean matches(byte[] bytes, int pos, int end) {
+            if (id.length() != end - pos) {
+                return false;
+            }
+            for (int i = 0; i < id.length(); i++) {
+                if (id.charAt(i) != (bytes[pos + i] & 0xFF)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
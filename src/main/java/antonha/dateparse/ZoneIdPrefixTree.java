@@ -0,0 +1,81 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.ZoneId;
+
+/**
+ * Finds the longest zone id at a position in a string, the way DateTimeFormatter does when parsing a zone id. Zone
+ * ids are allowed to be prefixes of each other (America/Argentina and America/Argentina/Cordoba, or Etc/GMT+1 and
+ * Etc/GMT+10), so the id can't be found by reading up to some delimiter.
+ *
+ * The ids are kept in a sorted array. All ids with the same prefix are next to each other in it, so the match narrows
+ * a range one character at a time without allocating.
+ */
+final class ZoneIdPrefixTree {
+
+    private ZoneIdPrefixTree() {
+    }
+
+    private static final class Holder {
+        private static final String[] IDS = ZoneId.getAvailableZoneIds().stream().sorted().toArray(String[]::new);
+    }
+
+    /**
+     * @return where the longest zone id starting at pos ends, or -1 if no zone id starts at pos.
+     */
+    static int match(CharSequence text, int pos) {
+        String[] ids = Holder.IDS;
+        int lo = 0;
+        int hi = ids.length;
+        int matched = -1;
+        for (int i = 0; pos + i < text.length() && lo < hi; i++) {
+            char c = text.charAt(pos + i);
+            //All ids in lo-hi share the first i characters, and any id with exactly i characters comes first.
+            lo = firstAtLeast(ids, lo, hi, i, c);
+            hi = firstAbove(ids, lo, hi, i, c);
+            if (lo < hi && ids[lo].length() == i + 1) {
+                matched = pos + i + 1;
+            }
+        }
+        return matched;
+    }
+
+    private static int firstAbove(String[] ids, int lo, int hi, int index, char c) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            String id = ids[mid];
+            if (id.length() <= index || id.charAt(index) <= c) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int firstAtLeast(String[] ids, int lo, int hi, int index, char c) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            String id = ids[mid];
+            if (id.length() <= index || id.charAt(index) < c) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
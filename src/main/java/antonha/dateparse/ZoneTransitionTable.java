@@ -0,0 +1,254 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the “Software”), to deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to
+ * permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE
+ * WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS
+ * OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneOffsetTransitionRule;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The offset transitions of a zone in primitive arrays, to convert a local date time to epoch seconds without
+ * ZonedDateTime. ZoneRules does the same, but allocates a LocalDateTime, transition arrays and offsets on the way.
+ *
+ * Gaps and overlaps are resolved like ZonedDateTime.of: a local time in a gap is moved forward by the length of the
+ * gap, and a local time in an overlap gets the earlier offset. Both come down to using the offset before the
+ * transition.
+ *
+ * Transitions are listed up to the year END_YEAR. Zones that still have daylight saving time after that are not
+ * covered for later dates, and are converted with ZonedDateTime as before. Tables are built the first time a zone is
+ * used, and kept for the lifetime of the JVM. There are about 600 zones, and a table is a few kilobytes at most.
+ *
+ * The transitions are the ones ZoneRules.nextTransition walks through: those saved in tzdb, and then those of the
+ * yearly rules. The yearly ones are computed here with plain arithmetic instead of by nextTransition, which creates
+ * a few objects per transition and was most of the time of the first parse of a zone on a cold JVM.
+ */
+final class ZoneTransitionTable {
+
+    static final int END_YEAR = 2100;
+
+    /**
+     * Returned by toEpochSecond for local date times that the table does not cover.
+     */
+    static final long NOT_COVERED = Long.MIN_VALUE;
+
+    /**
+     * Returned by offsetAt for epoch seconds that the table does not cover. No offset is this large.
+     */
+    static final int OFFSET_NOT_COVERED = Integer.MIN_VALUE;
+
+    private static final long END_EPOCH_SECOND = DateFields.epochDay(END_YEAR, 1, 1) * DateFields.SECONDS_PER_DAY;
+
+    private static final ConcurrentHashMap<ZoneId, ZoneTransitionTable> TABLES = new ConcurrentHashMap<>();
+
+    /*
+     * For transition i: the local time where it starts, which is the earliest of the local times just before and just
+     * after it, and the offsets before and after it. The local time where it ends is start + |after - before|.
+     */
+    private final long[] localStarts;
+    private final int[] offsetsBefore;
+    private final int[] offsetsAfter;
+    private final int initialOffset;
+    //The last local second that is covered, Long.MAX_VALUE if the zone has no more transitions.
+    private final long lastLocal;
+
+    private ZoneTransitionTable(
+        long[] localStarts, int[] offsetsBefore, int[] offsetsAfter, int initialOffset, long lastLocal
+    ) {
+        this.localStarts = localStarts;
+        this.offsetsBefore = offsetsBefore;
+        this.offsetsAfter = offsetsAfter;
+        this.initialOffset = initialOffset;
+        this.lastLocal = lastLocal;
+    }
+
+    static ZoneTransitionTable of(ZoneId zone) {
+        ZoneTransitionTable table = TABLES.get(zone);
+        if (table == null) {
+            table = TABLES.computeIfAbsent(zone, ZoneTransitionTable::build);
+        }
+        return table;
+    }
+
+    static ZoneTransitionTable build(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        List<ZoneOffsetTransition> saved = rules.getTransitions();
+        List<ZoneOffsetTransitionRule> yearly = rules.getTransitionRules();
+        Builder builder = new Builder(saved.size() + 2 * yearly.size() * 100);
+        //Whether there are transitions after END_YEAR, which makes the end of the table the end of what is covered.
+        boolean more = false;
+        for (ZoneOffsetTransition t : saved) {
+            if (t.toEpochSecond() >= END_EPOCH_SECOND) {
+                more = true;
+                break;
+            }
+            builder.add(t.toEpochSecond(), t.getOffsetBefore().getTotalSeconds(), t.getOffsetAfter().getTotalSeconds());
+        }
+        //Like nextTransition, the yearly rules take over from the year of the last saved transition.
+        if (!more && !saved.isEmpty() && !yearly.isEmpty()) {
+            more = true;
+            ZoneOffsetTransition last = saved.get(saved.size() - 1);
+            years:
+            for (int year = last.getDateTimeAfter().getYear(); ; year++) {
+                for (ZoneOffsetTransitionRule rule : yearly) {
+                    long epochSecond = epochSecond(rule, year);
+                    if (epochSecond >= END_EPOCH_SECOND) {
+                        break years;
+                    }
+                    if (epochSecond > last.toEpochSecond()) {
+                        builder.add(
+                            epochSecond, rule.getOffsetBefore().getTotalSeconds(), rule.getOffsetAfter().getTotalSeconds()
+                        );
+                    }
+                }
+            }
+        }
+        int initialOffset = builder.size == 0
+            ? rules.getOffset(Instant.EPOCH).getTotalSeconds()
+            : builder.offsetsBefore[0];
+        //Stay a day clear of the end, so that no offset can move a covered local time past a transition not listed.
+        long lastLocal = more ? END_EPOCH_SECOND - DateFields.SECONDS_PER_DAY : Long.MAX_VALUE;
+        return new ZoneTransitionTable(
+            Arrays.copyOf(builder.localStarts, builder.size),
+            Arrays.copyOf(builder.offsetsBefore, builder.size),
+            Arrays.copyOf(builder.offsetsAfter, builder.size),
+            initialOffset,
+            lastLocal
+        );
+    }
+
+    /**
+     * The epoch second of the transition of a yearly rule, the same as rule.createTransition(year).toEpochSecond().
+     */
+    private static long epochSecond(ZoneOffsetTransitionRule rule, int year) {
+        int month = rule.getMonth().getValue();
+        int indicator = rule.getDayOfMonthIndicator();
+        DayOfWeek dayOfWeek = rule.getDayOfWeek();
+        long epochDay;
+        if (indicator < 0) {
+            //Counted from the end of the month, and then the day of week on or before it.
+            epochDay = DateFields.epochDay(year, month, DateFields.lengthOfMonth(year, month) + 1 + indicator);
+            if (dayOfWeek != null) {
+                epochDay -= Math.floorMod(dayOfWeek(epochDay) - dayOfWeek.getValue(), 7);
+            }
+        } else {
+            epochDay = DateFields.epochDay(year, month, indicator);
+            if (dayOfWeek != null) {
+                epochDay += Math.floorMod(dayOfWeek.getValue() - dayOfWeek(epochDay), 7);
+            }
+        }
+        if (rule.isMidnightEndOfDay()) {
+            epochDay++;
+        }
+        long local = epochDay * DateFields.SECONDS_PER_DAY + rule.getLocalTime().toSecondOfDay();
+        switch (rule.getTimeDefinition()) {
+            case UTC:
+                return local;
+            case STANDARD:
+                return local - rule.getStandardOffset().getTotalSeconds();
+            default:
+                return local - rule.getOffsetBefore().getTotalSeconds();
+        }
+    }
+
+    /**
+     * @return the ISO day of week, 1 for Monday to 7 for Sunday. 1970-01-01 was a Thursday.
+     */
+    private static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+
+    /**
+     * @param localEpochSecond the local date time as seconds since 1970-01-01T00:00 local time.
+     * @return the epoch second, or NOT_COVERED if the local date time is after the transitions in the table.
+     */
+    long toEpochSecond(long localEpochSecond) {
+        if (localEpochSecond > lastLocal) {
+            return NOT_COVERED;
+        }
+        int i = Arrays.binarySearch(localStarts, localEpochSecond);
+        if (i < 0) {
+            //The transition before the insertion point.
+            i = -i - 2;
+        }
+        if (i < 0) {
+            return localEpochSecond - initialOffset;
+        }
+        int before = offsetsBefore[i];
+        int after = offsetsAfter[i];
+        long localEnd = localStarts[i] + Math.abs(after - before);
+        return localEpochSecond - (localEpochSecond >= localEnd ? after : before);
+    }
+
+    /**
+     * @return the offset at the epoch second, like ZoneRules.getOffset(Instant), or OFFSET_NOT_COVERED if it is after
+     * the transitions in the table.
+     */
+    int offsetAt(long epochSecond) {
+        if (lastLocal != Long.MAX_VALUE && epochSecond >= END_EPOCH_SECOND) {
+            return OFFSET_NOT_COVERED;
+        }
+        //The last transition at or before the epoch second. The offset after it applies from the transition on.
+        int low = 0;
+        int high = localStarts.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (localStarts[middle] - Math.min(offsetsBefore[middle], offsetsAfter[middle]) <= epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high < 0 ? initialOffset : offsetsAfter[high];
+    }
+
+    int transitions() {
+        return localStarts.length;
+    }
+
+    /**
+     * Collects the transitions into the arrays of the table, with the local start of each as described at the fields.
+     */
+    private static final class Builder {
+        private long[] localStarts;
+        private int[] offsetsBefore;
+        private int[] offsetsAfter;
+        private int size;
+
+        private Builder(int capacity) {
+            localStarts = new long[capacity];
+            offsetsBefore = new int[capacity];
+            offsetsAfter = new int[capacity];
+        }
+
+        private void add(long epochSecond, int before, int after) {
+            if (size == localStarts.length) {
+                int capacity = Math.max(16, size * 2);
+                localStarts = Arrays.copyOf(localStarts, capacity);
+                offsetsBefore = Arrays.copyOf(offsetsBefore, capacity);
+                offsetsAfter = Arrays.copyOf(offsetsAfter, capacity);
+            }
+            localStarts[size] = epochSecond + Math.min(before, after);
+            offsetsBefore[size] = before;
+            offsetsAfter[size] = after;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BatchDateParserTest {
+
+  private static final DateTimeFormatter MILLIS = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSX")
+      .withZone(java.time.ZoneOffset.UTC);
+
+  private final Random random = new Random();
+
+  @Test
+  public void testParsesSameAsCharDateParser() {
+    List<String> rows = new ArrayList<>();
+    long min = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("9999-12-31T23:59:59.999Z").toEpochMilli();
+    for (int i = 0; i < 10_000; i++) {
+      rows.add(MILLIS.format(Instant.ofEpochMilli(min + random.nextLong(max - min))));
+    }
+    //Rows that have the same width as the common shape, but that the vector kernel must leave to the scalar parser
+    rows.addAll(List.of(
+        "2023-02-30T01:01:01.000Z",
+        "2023-02-29T01:01:01.000Z",
+        "2024-02-29T01:01:01.000Z",
+        "2023-13-01T01:01:01.000Z",
+        "2023-00-01T01:01:01.000Z",
+        "2023-01-00T01:01:01.000Z",
+        "2023-01-01T24:01:01.000Z",
+        "2023-01-01T01:61:01.000Z",
+        "2023-01-01T01:01:61.000Z",
+        "2023-01-01T01:01:01.000X",
+        "2023-01-01T01:01:01,000Z",
+        "2023-01-01 01:01:01.000Z",
+        "2023-01-01T01:01:01.0a0Z",
+        "2023-01-01T01:01:01+0100",
+        "20230-01-01T01:01:01.00Z",
+        "2023-01-01T01:01:01.00ÅZ"
+    ));
+    //And rows of other shapes
+    rows.addAll(List.of(
+        "",
+        "fish",
+        "2023",
+        "2023-01-01",
+        "2023-01-01T01:01:01Z",
+        "2023-01-01T01:01:01.123456789Z",
+        "2023-01-01T01:01:01.000+01:00",
+        "2023-01-01T01:01:01.000Europe/Stockholm"
+    ));
+    //The last row is at the very end of the data, where a full vector can't be loaded
+    rows.add("2023-01-01T23:38:34.000Z");
+
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    int[] offsets = new int[rows.size()];
+    int[] lengths = new int[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      byte[] bytes = rows.get(i).getBytes(StandardCharsets.UTF_8);
+      offsets[i] = data.size();
+      lengths[i] = bytes.length;
+      data.writeBytes(bytes);
+    }
+    byte[] bytes = data.toByteArray();
+
+    long[] expected = new long[rows.size()];
+    byte[] expectedStatus = new byte[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      try {
+        expected[i] = CharDateParser.parseToEpochMillis(rows.get(i));
+        expectedStatus[i] = expected[i] == CharDateParser.NO_DATE ? BatchDateParser.NO_DATE : BatchDateParser.OK;
+      } catch (DateTimeException e) {
+        expectedStatus[i] = BatchDateParser.INVALID;
+      }
+    }
+
+    for (boolean vectorize : new boolean[]{true, false}) {
+      long[] out = new long[rows.size()];
+      byte[] status = new byte[rows.size()];
+      BatchDateParser.parse(bytes, offsets, lengths, rows.size(), out, status, vectorize);
+      assertArrayEquals(expectedStatus, status, "vectorize: " + vectorize);
+      for (int i = 0; i < rows.size(); i++) {
+        if (status[i] == BatchDateParser.OK) {
+          assertEquals(expected[i], out[i], rows.get(i));
+        }
+      }
+    }
+
+    long[] out = new long[rows.size()];
+    byte[] status = new byte[rows.size()];
+    BatchDateParser.parseToEpochMillis(rows.toArray(new CharSequence[0]), rows.size(), out, status);
+    assertArrayEquals(expectedStatus, status);
+  }
+
+  /*
+  Small batches that mix the common shape with other shapes, invalid rows and rows shorter than a vector, in random
+  order and at random places in the data, so that rows of the common shape are next to and at the end of anything.
+   */
+  @Test
+  public void testMixedBatchesSameAsTryParse() {
+    List<String> shapes = List.of(
+        "2023-01-01T23:38:34.000Z", "1970-01-01T00:00:00.000Z", "9999-12-31T23:59:59.999Z",
+        "2023-02-29T01:01:01.000Z", "2023-13-01T01:01:01.000Z", "2023-01-01T24:01:01.000Z",
+        "2023-01-01T01:01:01.000X", "2023-01-01T23:38:34.000Z ", "2023-01-01T23:38:34.0000Z",
+        "", "x", "2023", "2023-01", "2023-01-01", "2023-01-01T23", "2023-01-01T23:38:34Z", "2023-01-01T23:38:34.000",
+        "2023-01-01T23:38:34.0Z", "2023-01-01T23:38:34.000+01:00", "2023-02-30", "2023-01-01T23:38:34.000Europe/Oslo"
+    );
+    for (int batch = 0; batch < 2_000; batch++) {
+      int count = 1 + random.nextInt(40);
+      List<String> rows = new ArrayList<>();
+      ByteArrayOutputStream data = new ByteArrayOutputStream();
+      int[] offsets = new int[count];
+      int[] lengths = new int[count];
+      for (int i = 0; i < count; i++) {
+        String row = shapes.get(random.nextInt(shapes.size()));
+        data.writeBytes("\"".repeat(random.nextInt(3)).getBytes(StandardCharsets.UTF_8));
+        byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+        rows.add(row);
+        offsets[i] = data.size();
+        lengths[i] = bytes.length;
+        data.writeBytes(bytes);
+      }
+      byte[] bytes = data.toByteArray();
+
+      for (boolean vectorize : new boolean[]{true, false}) {
+        long[] out = new long[count];
+        byte[] status = new byte[count];
+        BatchDateParser.parse(bytes, offsets, lengths, count, out, status, vectorize);
+        for (int i = 0; i < count; i++) {
+          String message = rows + " row " + i + ", vectorize: " + vectorize;
+          long expected = CharDateParser.tryParseToEpochMillis(rows.get(i));
+          if (!ParseStatus.isError(expected)) {
+            assertEquals(BatchDateParser.OK, status[i], message);
+            assertEquals(expected, out[i], message);
+          } else if (ParseStatus.code(expected) == ParseStatus.NO_DATE) {
+            assertEquals(BatchDateParser.NO_DATE, status[i], message);
+          } else {
+            assertEquals(BatchDateParser.INVALID, status[i], message);
+          }
+        }
+      }
+    }
+  }
+}
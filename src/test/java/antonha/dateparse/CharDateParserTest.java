@@ -17,7 +17,12 @@
 package antonha.dateparse;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -29,6 +34,11 @@ import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
 import java.util.List;
 import java.util.Random;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DynamicContainer;
@@ -64,12 +74,95 @@ class CharDateParserTest {
         "3000-01-01T01:01:ab",
         "3000-01-01T01:01:01.ab",
         "3000-01-01T01:01:01.12abCET",
-        "3000-01-01T01:01:01Z is a date"
+        "3000-01-01T01:01:01Z is a date",
+        "3000-01-01T01:01:01.1234567891Z",
+        "3000-",
+        "3000-01-",
+        "3000-01-01T01:"
 
     ).map(dateString -> DynamicTest.dynamicTest(String.format("str: '%s'", dateString), () -> {
       Instant esParsed = toInstant(ElasticsearchParsers.doParse(dateString));
       Instant bytesParsed = toInstant(CharDateParser.parse(dateString));
       assertEquals(esParsed, bytesParsed);
+      assertAllInputsParseSame(dateString);
+      assertEpochSameAsParse(dateString);
+    }));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testEpochThrowsSameAsParse() {
+    return Stream.of(
+        "2023-01-01T25",
+        "2023-02-29T00:00:00+01:00",
+        "2023-02-29",
+        "2024-02-29",
+        "2023-02-30T01:01:01Z",
+        "2023-04-31",
+        "2023-00-01",
+        "2023-13",
+        "2023-01-00",
+        "2023-01-01T24",
+        "2023-01-01T23:59:59.999999999+18:00",
+        "1677-09-21T00:12:43.145224191Z",
+        "1677-09-21T00:12:43.145224192Z",
+        "1677-09-21T00:12:43.145224193Z",
+        "1677-09-21T00:12:43.999999999Z",
+        "1677-09-21T00:12:44Z",
+        "1677-09-21T01:12:43.5+01:00",
+        "2262-04-11T23:47:16.854775807Z",
+        "2262-04-11T23:47:16.854775808Z",
+        "0000-01-01T00:00:00Z",
+        "9999-12-31T23:59:59.999999999-18:00"
+    ).map(dateString -> DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+        () -> assertEpochSameAsParse(dateString)));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testTryParseStatus() {
+    return Stream.of(
+        "fish", "NO_DATE at 0",
+        "2023-13", "INVALID_MONTH at 5",
+        "2023-00-01", "INVALID_MONTH at 5",
+        "2023-02-29T01:01:01Z", "INVALID_DAY at 8",
+        "2023-04-31", "INVALID_DAY at 8",
+        "2023-01-00", "INVALID_DAY at 8",
+        "2023-01-01T24:00Z", "INVALID_HOUR at 11",
+        "2263-01-01T00:00:00Z", "OUT_OF_RANGE at 0"
+    ).collect(Collectors.collectingAndThen(Collectors.toList(), list ->
+        IntStream.range(0, list.size() / 2).mapToObj(i -> {
+          String dateString = list.get(2 * i);
+          String expected = list.get(2 * i + 1);
+          return DynamicTest.dynamicTest(String.format("str: '%s'", dateString), () -> {
+            long result = CharDateParser.tryParseToEpochNanos(dateString);
+            assertTrue(ParseStatus.isError(result));
+            assertEquals(expected, ParseStatus.toString(result));
+          });
+        })));
+  }
+
+  /*
+  The zone fast paths and the zone cache must give the same zone as ZoneId.of did, and treat invalid zones the same.
+  Each zone is parsed twice, so that the second parse comes from the cache.
+   */
+  @TestFactory
+  public Stream<DynamicTest> testZonesParseSameAsZoneIdOf() {
+    return Stream.of(
+        "Z", "+01", "+01:00", "+0100", "-05:30", "-0530", "+05:45", "+01:01", "+18:00", "-18", "+18:30", "+19",
+        "+01:60", "+1", "-00:00", "+00", "+01:00:00", "+010000", "+01:0", "+01:00x", "+", "-",
+        "UTC", "GMT", "UTC+01:00", "Europe/Stockholm", "America/Argentina/ComodRivadavia", "Europe/Nowhere",
+        "europe/stockholm", "CET", "EST", "Turkey", "abCET", "Europe/Stockholm ", "Europe/Stöckholm"
+    ).map(zone -> DynamicTest.dynamicTest(String.format("zone: '%s'", zone), () -> {
+      LocalDateTime local = LocalDateTime.of(2023, 1, 1, 1, 1, 1);
+      TemporalAccessor expected;
+      try {
+        expected = local.atZone(ZoneId.of(zone));
+      } catch (DateTimeException e) {
+        expected = local;
+      }
+      for (int i = 0; i < 2; i++) {
+        assertEquals(expected, CharDateParser.parse("2023-01-01T01:01:01" + zone));
+        assertAllInputsParseSame("2023-01-01T01:01:01" + zone);
+      }
     }));
   }
 
@@ -111,6 +204,8 @@ class CharDateParserTest {
                           Instant esParsed = toInstant(ElasticsearchParsers.doParse(dateString));
                           Instant bytesParsed = toInstant(CharDateParser.parse(dateString));
                           assertEquals(esParsed, bytesParsed);
+                          assertAllInputsParseSame(dateString);
+                          assertEpochSameAsParse(dateString);
                         });
                       })
                   )));
@@ -118,6 +213,316 @@ class CharDateParserTest {
     );
   }
 
+  @TestFactory
+  public Stream<DynamicTest> testRoundUpSameAsES() {
+    return Stream.of(
+        "2023",
+        "2023-01",
+        "2023-02",
+        "2024-02",
+        "2100-02",
+        "2000-02",
+        "2023-04",
+        "2023-12",
+        "2023-12-31",
+        "2024-02-29",
+        "2023-01-01T10",
+        "2023-01-01T10:15",
+        "2023-01-01T10:15:30",
+        "2023-01-01T10:15:30.5",
+        "2023-01-01T10:15:30.123456789",
+        "2023-01-01T10:15:30.Z",
+        "2023-01-01T10+01:00",
+        "2023-01-01T10:15Europe/Stockholm",
+        "2023-03-26T02Europe/Stockholm",
+        "2023-10-29T02:30Europe/Stockholm",
+        "2023-12-31T23:59:59-18:00",
+        "0000",
+        "9999",
+        "2023-13",
+        "2023-00",
+        "2023-02-29",
+        "2023-01-01T24",
+        "fish",
+        "2023-"
+    ).map(dateString -> DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+        () -> assertRoundUpSameAsES(dateString)));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testRandomRoundUpSameAsES() {
+    long min = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("9999-12-01T00:00:00Z").toEpochMilli();
+    Random random = new Random(19);
+    return formats.stream().flatMap(format -> {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+      return Stream.of("UTC", "Europe/Stockholm", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe")
+          .map(ZoneId::of)
+          .flatMap(zone -> Stream.generate(() -> Instant.ofEpochMilli(min + random.nextLong(max - min))
+                  .plusNanos(random.nextLong(1_000_000_000)).atZone(zone).format(formatter))
+              .limit(5));
+    }).map(dateString -> DynamicTest.dynamicTest(dateString, () -> assertRoundUpSameAsES(dateString)));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testDateNanosSameAsES() {
+    return Stream.of(
+        "1969",
+        "1969-12-31",
+        "1969-12-31T23:59:59.999999999Z",
+        "1970",
+        "1970-01-01",
+        "1970-01-01T00:00:00Z",
+        "1970-01-01T00:00:00.000000001Z",
+        "1970-01-01T00:00:00.123456789Z",
+        "1970-01-01T01:00:00+01:00",
+        "1970-01-01T00:59:59.999999999+01:00",
+        "1969-12-31T23:00:00-01:00",
+        "1969-12-31T22:59:59.999999999-01:00",
+        "1970-01-01T01:00:00Europe/Stockholm",
+        "1970-01-01T00:30:00Europe/Stockholm",
+        "2023-01-01T23:38:34.1Z",
+        "2023-01-01T23:38:34.12Z",
+        "2023-01-01T23:38:34.123Z",
+        "2023-01-01T23:38:34.123456Z",
+        "2023-01-01T23:38:34.123456789Z",
+        "2023-01-01T23:38:34.000000001Z",
+        "2262",
+        "2262-04",
+        "2262-04-11",
+        "2262-04-11T23:47:16.854775807Z",
+        "2262-04-11T23:47:16.854775808Z",
+        "2262-04-11T23:47:16.854775807-00:01",
+        "2262-04-12T00:47:16.854775807+01:00",
+        "2262-04-12T00:47:16.854775808+01:00",
+        "2262-04-12T01:47:16.854775807Europe/Stockholm",
+        "2262-04-12T01:47:16.854775808Europe/Stockholm",
+        "2262-04-12",
+        "2263",
+        "9999-12-31T23:59:59.999999999Z",
+        "0000-01-01T00:00:00Z",
+        "2023-02-29",
+        "2023-01-01T24",
+        "fish",
+        ""
+    ).map(dateString -> DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+        () -> assertDateNanosSameAsES(dateString)));
+  }
+
+  /*
+  Random date times around the first and the last date_nanos, with 0 to 9 fraction digits and different zones.
+   */
+  @TestFactory
+  public Stream<DynamicTest> testRandomDateNanosSameAsES() {
+    long day = 86_400_000_000_000L;
+    Random random = new Random(23);
+    return Stream.of(Instant.EPOCH, Instant.ofEpochSecond(0, Long.MAX_VALUE)).flatMap(boundary ->
+        Stream.of("Z", "+01:00", "-18:00", "+05:45", "Europe/Stockholm", "America/New_York").flatMap(zone ->
+            IntStream.rangeClosed(0, 9).mapToObj(digits -> {
+              Instant instant = boundary.plusNanos(random.nextLong(-day, day));
+              DateTimeFormatter formatter = DateTimeFormatter.ofPattern(
+                  "uuuu-MM-dd'T'HH:mm:ss" + (digits == 0 ? "" : "." + "S".repeat(digits)) + "VV");
+              return instant.atZone(ZoneId.of(zone)).format(formatter);
+            })
+        )
+    ).map(dateString -> DynamicTest.dynamicTest(dateString, () -> assertDateNanosSameAsES(dateString)));
+  }
+
+  /*
+  The same value, or the same message for dates that don't fit. java.time gives null for invalid dates, where
+  CharDateParser throws, so both count as no date.
+   */
+  static void assertDateNanosSameAsES(String dateString) {
+    byte[] bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    Object expected = dateNanosOutcome(() -> ElasticsearchParsers.doParseToDateNanos(dateString));
+    assertEquals(expected, dateNanosOutcome(() -> CharDateParser.parseToDateNanos(dateString)));
+    assertEquals(expected, dateNanosOutcome(() -> CharDateParser.parseToDateNanos(bytes, 0, bytes.length)));
+    assertEquals(expected, dateNanosOutcome(() -> CharDateParser.parseToDateNanos(direct, 0, bytes.length)));
+    if (expected instanceof Long && (Long) expected != CharDateParser.NO_DATE) {
+      assertEquals(expected, CharDateParser.parseToEpochNanos(dateString));
+    }
+  }
+
+  private static Object dateNanosOutcome(LongSupplier supplier) {
+    try {
+      return supplier.getAsLong();
+    } catch (IllegalArgumentException e) {
+      return e.getMessage();
+    } catch (DateTimeException e) {
+      return CharDateParser.NO_DATE;
+    }
+  }
+
+  /*
+  java.time gives null for invalid dates, where CharDateParser throws.
+   */
+  static void assertRoundUpSameAsES(String dateString) {
+    Instant expected = toInstant(ElasticsearchParsers.doParseRoundUp(dateString));
+    byte[] bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    Object noDate = expected == null ? CharDateParser.NO_DATE : expected.toEpochMilli();
+    assertEquals(expected, roundUpOrNull(() -> CharDateParser.parseRoundUp(dateString)));
+    assertEquals(expected, roundUpOrNull(() -> CharDateParser.parseRoundUp(bytes, 0, bytes.length)));
+    Object millis = outcome(() -> CharDateParser.parseToEpochMillisRoundUp(dateString));
+    assertEquals(noDate, millis == DateTimeException.class ? CharDateParser.NO_DATE : millis);
+    assertEquals(millis, outcome(() -> CharDateParser.parseToEpochMillisRoundUp(bytes, 0, bytes.length)));
+  }
+
+  private static Instant roundUpOrNull(Supplier<TemporalAccessor> parse) {
+    try {
+      return toInstant(parse.get());
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  /*
+  The byte and CharSequence variants must parse exactly like the String variant. The date string is put in the
+  middle of some other text, to make sure that offsets are respected.
+   */
+  static void assertAllInputsParseSame(String dateString) {
+    TemporalAccessor expected = CharDateParser.parse(dateString);
+    String padded = "{\"@timestamp\":\"" + dateString + "\"}";
+    int offset = padded.indexOf(dateString);
+    byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+    int byteOffset = padded.substring(0, offset).getBytes(StandardCharsets.UTF_8).length;
+    int byteLength = dateString.getBytes(StandardCharsets.UTF_8).length;
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+
+    assertEquals(expected, CharDateParser.parse(new StringBuilder(dateString)));
+    assertEquals(expected, CharDateParser.parse(padded, offset, dateString.length()));
+    assertEquals(expected, CharDateParser.parse(bytes, byteOffset, byteLength));
+    assertEquals(expected, CharDateParser.parse(ByteBuffer.wrap(bytes), byteOffset, byteLength));
+    assertEquals(expected, CharDateParser.parse(direct, byteOffset, byteLength));
+    assertEquals(expected, CharDateParser.parse(direct.slice(byteOffset, byteLength)));
+  }
+
+  /*
+  The epoch methods must give the same value as converting the parsed TemporalAccessor, and fail in the same way.
+   */
+  static void assertEpochSameAsParse(String dateString) {
+    byte[] bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    assertEquals(
+        outcome(() -> toEpoch(dateString, instant -> instant.toEpochMilli())),
+        outcome(() -> CharDateParser.parseToEpochMillis(dateString))
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, instant -> instant.toEpochMilli())),
+        outcome(() -> CharDateParser.parseToEpochMillis(bytes, 0, bytes.length))
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, CharDateParserTest::toParsedEpochNanos)),
+        outcome(() -> CharDateParser.parseToEpochNanos(dateString))
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, CharDateParserTest::toParsedEpochNanos)),
+        outcome(() -> CharDateParser.parseToEpochNanos(bytes, 0, bytes.length))
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, ElasticsearchParsers::toDateNanos)),
+        outcome(() -> CharDateParser.parseToDateNanos(dateString))
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, ElasticsearchParsers::toDateNanos)),
+        outcome(() -> CharDateParser.parseToDateNanos(bytes, 0, bytes.length))
+    );
+    assertEquals(
+        outcome(() -> CharDateParser.parseToEpochMillis(dateString)),
+        tryOutcome(CharDateParser.tryParseToEpochMillis(dateString))
+    );
+    assertEquals(
+        outcome(() -> CharDateParser.parseToEpochMillis(dateString)),
+        tryOutcome(CharDateParser.tryParseToEpochMillis(bytes, 0, bytes.length))
+    );
+    assertEquals(
+        tryNanosOutcome(dateString, outcome(() -> CharDateParser.parseToEpochNanos(dateString))),
+        tryOutcome(CharDateParser.tryParseToEpochNanos(dateString))
+    );
+    assertEquals(
+        tryNanosOutcome(dateString, outcome(() -> CharDateParser.parseToEpochNanos(bytes, 0, bytes.length))),
+        tryOutcome(CharDateParser.tryParseToEpochNanos(bytes, 0, bytes.length))
+    );
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    assertEquals(
+        outcome(() -> CharDateParser.parseToEpochMillis(dateString)),
+        tryOutcome(CharDateParser.tryParseToEpochMillis(direct, 0, bytes.length))
+    );
+    ParsedDate date = new ParsedDate();
+    assertEquals(
+        outcome(() -> CharDateParser.parseToEpochMillis(dateString)),
+        outcome(() -> CharDateParser.parseInto(dateString, date) ? date.toEpochMilli() : CharDateParser.NO_DATE)
+    );
+    assertEquals(
+        outcome(() -> toEpoch(dateString, CharDateParserTest::toEpochNanos)),
+        outcome(() -> CharDateParser.parseInto(bytes, 0, bytes.length, date)
+            ? date.toEpochNanos() : CharDateParser.NO_DATE)
+    );
+    assertEquals(
+        tryNanosOutcome(dateString, outcome(() -> CharDateParser.parseToEpochNanos(dateString))),
+        tryOutcome(CharDateParser.tryParseToEpochNanos(direct, 0, bytes.length))
+    );
+  }
+
+  private static long toEpoch(String dateString, ToLongFunction<Instant> toLong) {
+    Instant instant = toInstant(CharDateParser.parse(dateString));
+    return instant == null ? CharDateParser.NO_DATE : toLong.applyAsLong(instant);
+  }
+
+  static long toEpochNanos(Instant instant) {
+    return BigInteger.valueOf(instant.getEpochSecond()).multiply(BigInteger.valueOf(1_000_000_000L))
+        .add(BigInteger.valueOf(instant.getNano())).longValueExact();
+  }
+
+  /*
+  The first nanosecond that fits in a long is NO_DATE, so the parse methods don't return it.
+   */
+  private static long toParsedEpochNanos(Instant instant) {
+    long epochNanos = toEpochNanos(instant);
+    if (epochNanos == CharDateParser.NO_DATE) {
+      throw new ArithmeticException();
+    }
+    return epochNanos;
+  }
+
+  /*
+  The result of a tryParse method as the outcome of the throwing method it replaces.
+   */
+  static Object tryOutcome(long result) {
+    if (!ParseStatus.isError(result)) {
+      return result;
+    }
+    switch (ParseStatus.code(result)) {
+      case ParseStatus.NO_DATE:
+        return result;
+      case ParseStatus.OUT_OF_RANGE:
+        return ArithmeticException.class;
+      default:
+        return DateTimeException.class;
+    }
+  }
+
+  /*
+  Epoch nanos of dates that look like statuses are out of range for tryParseToEpochNanos. One of them is the same as
+  NO_DATE, which is why this needs the date string.
+   */
+  private static Object tryNanosOutcome(String dateString, Object outcome) {
+    if (outcome instanceof Long && ParseStatus.isError((Long) outcome) && CharDateParser.parse(dateString) != null) {
+      return ArithmeticException.class;
+    }
+    return outcome;
+  }
+
+  /*
+  Either the value, or the type of exception thrown, so that failures can be compared with assertEquals.
+   */
+  static Object outcome(LongSupplier supplier) {
+    try {
+      return supplier.getAsLong();
+    } catch (RuntimeException e) {
+      return e.getClass();
+    }
+  }
+
   static List<String> formats =
       Stream.concat(
           Stream.of(
@@ -0,0 +1,66 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.io.TempDir;
+
+class DateCorpusTest {
+
+  @TestFactory
+  Stream<DynamicTest> testValidDatesParse() {
+    return Arrays.stream(DateCorpus.Mix.values()).map(mix -> DynamicTest.dynamicTest(mix.name(), () -> {
+      for (String date : DateCorpus.generate(mix, 10_000, 0, 1)) {
+        assertNotNull(ElasticsearchParsers.doParse(date), date);
+        assertNotNull(CharDateParser.parse(date), date);
+      }
+    }));
+  }
+
+  @Test
+  void testInvalidPercent() {
+    String[] dates = DateCorpus.generate(DateCorpus.Mix.UTC_MILLIS, 10_000, 50, 1);
+    int invalid = 0;
+    for (String date : dates) {
+      if (ParseStatus.isError(CharDateParser.tryParseToEpochMillis(date))) {
+        invalid++;
+      }
+    }
+    assertTrue(invalid > 4500 && invalid < 5500, "Invalid dates: " + invalid);
+  }
+
+  @Test
+  void testLoadWritesAndReadsFile(@TempDir Path dir) throws IOException {
+    String[] generated = DateCorpus.load(dir, DateCorpus.Mix.MIXED, 1000, 5, 7);
+    assertArrayEquals(DateCorpus.generate(DateCorpus.Mix.MIXED, 1000, 5, 7), generated);
+    Path file = dir.resolve("mixed-1000-5-7.txt");
+    assertTrue(Files.exists(file));
+    assertArrayEquals(generated, DateCorpus.load(dir, DateCorpus.Mix.MIXED, 1000, 5, 7));
+  }
+}
@@ -0,0 +1,251 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class DateFormatCompilerTest {
+
+  private final Random random = new Random();
+
+  private static final List<String> STRICT_DATE_OPTIONAL_TIME_STRINGS = List.of(
+      "2023-01-01T23:38:34.000Z",
+      "2023-01-01T06:16:12Z",
+      "2023-01-01Z",
+      "2023-01-01",
+      "2023-01",
+      "2023",
+      "",
+      "fish",
+      "3000 cats",
+      "3000-ab",
+      "3000-01-01Taa",
+      "3000-01-01Turkey",
+      "3000-01-01T01:01:01.12abCET",
+      "3000-01-01T01:01:01Z is a date",
+      "3000-01-01T01:01:01.1234567891Z",
+      "3000-",
+      "3000-01-01T01:",
+      "2023-01-01T01:01:01,123Z",
+      "2023-01-01T01:01:01,Z",
+      "2023-01-01T01:01:01.Z",
+      "2023-01-01T01:01:01UTC",
+      "2023-01-01T01:01:01UTC+01:00",
+      "2023-01-01T01:01:01UTC+1",
+      "2023-01-01T01:01:01UT-05:30",
+      "2023-01-01T01:01:01UTC0",
+      "2023-01-01T01:01:01UTCZ",
+      "2023-01-01T01:01:01GMT",
+      "2023-01-01T01:01:01GMT0",
+      "2023-01-01T01:01:01GMT+01:00:30",
+      "2023-01-01T01:01:01GMT+19:00",
+      "2023-01-01T01:01:01+0100",
+      "2023-01-01T01:01:01+01",
+      "2023-01-01T01:01:01+01:3",
+      "2023-01-01T01:01:01+01:30:15",
+      "2023-01-01T01:01:01+19:00",
+      "2023-01-01T01:01:01+1900",
+      "2023-01-01T01:01:01-18:00",
+      "2023-01-01T01:01:01Europe/Stockholm",
+      "2023-01-01T01:01:01Europe/Stockholmx",
+      "2023-01-01T01:01:01America/Argentina/Cordoba",
+      "2023-01-01T01:01:01America/Argentina/Cordobas",
+      "2023-01-01T01:01:01Etc/GMT+10",
+      "2023-01-01T01:01:01Etc/GMT+1",
+      "2023-01-01T01:01:01Zulu",
+      "2023-01-01T01:01:01EST",
+      "2023-01-01T01:01:01EST5EDT",
+      "2023-01-01T01Z",
+      "2023-01-01T01:01Europe/Stockholm",
+      "2023-01-01TZ",
+      "2023-01-01T",
+      "2023-02-29",
+      "2024-02-29",
+      "2023-04-31T01:01:01Z",
+      "2023-13",
+      "2023-00-01",
+      "2023-01-01T24",
+      "2023-01-01T23:60",
+      "2023-01-01T23:59:60"
+  );
+
+  @TestFactory
+  public Stream<DynamicTest> testStrictDateOptionalTimeParsesSameAsES() {
+    CompiledDateParser parser = DateFormatCompiler.forName("strict_date_optional_time");
+    return STRICT_DATE_OPTIONAL_TIME_STRINGS.stream().map(dateString ->
+        DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+            () -> assertParsesSame(parser, ElasticsearchParsers::doParse, dateString)));
+  }
+
+  @TestFactory
+  public Stream<DynamicTest> testNanosParsesSameAsES() {
+    CompiledDateParser parser = DateFormatCompiler.forName("strict_date_optional_time_nanos");
+    return STRICT_DATE_OPTIONAL_TIME_STRINGS.stream().map(dateString ->
+        DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+            () -> assertParsesSame(parser, ElasticsearchParsers::doParseNanos, dateString)));
+  }
+
+  @Test
+  public void testNamedFormatsParseRandomDatesSameAsES() {
+    assertRandomParsesSame(
+        DateFormatCompiler.forName("strict_date_optional_time"), ElasticsearchParsers::doParse,
+        CharDateParserTest.formats
+    );
+    assertRandomParsesSame(
+        DateFormatCompiler.forName("strict_date_optional_time_nanos"), ElasticsearchParsers::doParseNanos,
+        CharDateParserTest.formats
+    );
+    assertRandomParsesSame(
+        DateFormatCompiler.forName("strict_date_time"), ElasticsearchParsers::doParseStrictDateTime,
+        List.of(
+            "uuuu-MM-dd'T'HH:mm:ss.SSSXXX",
+            "uuuu-MM-dd'T'HH:mm:ssX",
+            "uuuu-MM-dd'T'HH:mm:ss.SSSSSSSSSVV",
+            "uuuu-MM-dd'T'HH:mm:ss.SSxx",
+            "uuuu-MM-dd'T'HH:mm:ss"
+        )
+    );
+    assertRandomParsesSame(
+        DateFormatCompiler.forName("basic_date_time"), ElasticsearchParsers::doParseBasicDateTime,
+        List.of(
+            "uuuuMMdd'T'HHmmss.SSSX",
+            "uuuuMMdd'T'HHmmss.SSSXXX",
+            "uuuuMMdd'T'HHmmss.SVV",
+            "uuuuMMdd'T'HHmmssX"
+        )
+    );
+  }
+
+  @Test
+  public void testPatternsParseRandomDatesSameAsES() {
+    List<String> patterns = List.of(
+        "uuuu-MM-dd HH:mm:ss",
+        "uuuu/MM/dd HH:mm:ss",
+        "uuuuMMddHHmmss",
+        "uuuuMMdd",
+        "uuuuMMddHHmmssSSS",
+        "dd.MM.uuuu",
+        "d/M/uuuu H:m:s",
+        "uuuu-MM-dd'T'HH:mm:ss.SSSXXX",
+        "uuuu-MM-dd'T'HH:mm:ssZ",
+        "uuuu-MM-dd'T'HH:mm:ssxxxxx",
+        "uuuu-MM-dd HH:mm:ss.SSSSSS",
+        "uuuu-MM-dd[ HH:mm[:ss]]",
+        "uuuu-MM-dd'T'HH:mm:ss[.SSS]xxx",
+        "uuuu-MM-dd'T'HH:mm:ssVV",
+        "'date: 'uuuu-MM-dd''HH",
+        "uuuu-MM"
+    );
+    for (String pattern : patterns) {
+      DateTimeFormatter formatter = ElasticsearchParsers.patternFormatter(pattern);
+      assertRandomParsesSame(
+          DateFormatCompiler.compilePattern(pattern),
+          string -> ElasticsearchParsers.doParsePattern(formatter, string),
+          List.of(pattern)
+      );
+    }
+  }
+
+  /*
+  Elasticsearch reads y as the year, without needing an era, and so does the compiled parser.
+   */
+  @Test
+  public void testYearOfEraIsYear() {
+    CompiledDateParser parser = DateFormatCompiler.compilePattern("yyyy/MM/dd HH:mm:ss");
+    assertEquals(
+        Instant.parse("2023-06-01T12:13:14Z"),
+        CharDateParserTest.toInstant(parser.parse("2023/06/01 12:13:14"))
+    );
+  }
+
+  @Test
+  public void testCompileFindsNamedFormatsAndPatterns() {
+    assertEquals("strict_date_time", DateFormatCompiler.compile("strict_date_time").format());
+    assertEquals("uuuu-MM-dd", DateFormatCompiler.compile("uuuu-MM-dd").format());
+    assertNotNull(DateFormatCompiler.compile("uuuu-MM-dd").parse("2023-01-01"));
+  }
+
+  @Test
+  public void testUnsupportedPatternsThrow() {
+    for (String pattern : List.of("uuuu-MMM-dd", "yy-MM-dd", "EEE uuuu", "uuuu hh:mm a", "uuuu{", "'uuuu", "uuuu]",
+        "uuuu-MM-ddd", "uuuu zzz", "uuuu V")) {
+      assertThrows(RuntimeException.class, () -> DateFormatCompiler.compilePattern(pattern), pattern);
+    }
+  }
+
+  private void assertRandomParsesSame(
+      CompiledDateParser parser, Function<String, TemporalAccessor> reference, List<String> patterns) {
+    long min = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("9999-12-31T23:59:59.999Z").toEpochMilli();
+    List<ZoneId> zones = new ArrayList<>(List.of(
+        ZoneId.of("Z"), ZoneId.of("+05:30"), ZoneId.of("-03:00"), ZoneId.of("Europe/Stockholm"),
+        ZoneId.of("America/Argentina/Cordoba"), ZoneId.of("Australia/Lord_Howe"), ZoneId.of("Etc/GMT+10")
+    ));
+    for (int i = 0; i < 10; i++) {
+      zones.add(CharDateParserTest.timeZones.get(random.nextInt(CharDateParserTest.timeZones.size())));
+    }
+    for (String pattern : patterns) {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+      for (ZoneId zone : zones) {
+        for (int i = 0; i < 20; i++) {
+          Instant instant = Instant.ofEpochMilli(min + random.nextLong(max - min))
+              .plusNanos(random.nextLong(1_000_000_000));
+          String dateString = instant.atZone(zone).format(formatter);
+          assertParsesSame(parser, reference, dateString);
+          //Shorter strings go through the optional sections and the failure paths.
+          assertParsesSame(parser, reference, dateString.substring(0, random.nextInt(dateString.length())));
+        }
+      }
+    }
+  }
+
+  private static void assertParsesSame(
+      CompiledDateParser parser, Function<String, TemporalAccessor> reference, String dateString) {
+    Instant expected = toInstantOrNull(reference.apply(dateString));
+    assertEquals(expected, CharDateParserTest.toInstant(parser.parse(dateString)), dateString);
+    long expectedMillis = expected == null ? CharDateParser.NO_DATE : expected.toEpochMilli();
+    assertEquals(expectedMillis, parser.parseToEpochMillis(dateString), dateString);
+  }
+
+  /*
+  java.time can parse fields that don't make a date, like a month of 13. The compiled parser treats them as no match.
+   */
+  private static Instant toInstantOrNull(TemporalAccessor parsed) {
+    try {
+      return CharDateParserTest.toInstant(parsed);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+}
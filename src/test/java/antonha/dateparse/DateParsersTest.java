@@ -0,0 +1,146 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class DateParsersTest {
+
+  /*
+  Every parser supports millisecond UTC dates, and must parse them to the same instant.
+   */
+  @TestFactory
+  Stream<DynamicTest> testAllParseUtcMillis() {
+    String[] dates = DateCorpus.generate(DateCorpus.Mix.UTC_MILLIS, 1000, 0, 1);
+    return DateParsers.names().stream().map(name -> DynamicTest.dynamicTest(name, () -> {
+      DateParser parser = DateParsers.forName(name);
+      for (String date : dates) {
+        Instant expected = Instant.parse(date);
+        assertEquals(expected, DateParsers.toInstant(parser.parse(date)), date);
+        assertEquals(expected.toEpochMilli(), parser.parseToEpochMillis(date), date);
+      }
+    }));
+  }
+
+  @TestFactory
+  Stream<DynamicTest> testInvalidIsNull() {
+    List<String> invalid = List.of("", "x", "2023-02-30T00:00:00.000Z", "2023-13-01T00:00:00.000Z");
+    return DateParsers.names().stream().map(name -> DynamicTest.dynamicTest(name, () -> {
+      DateParser parser = DateParsers.forName(name);
+      for (String date : invalid) {
+        assertNull(parser.parse(date), date);
+        assertEquals(CharDateParser.NO_DATE, parser.parseToEpochMillis(date), date);
+      }
+    }));
+  }
+
+  /*
+  es_unresolved reads the fields without resolving them, and must still give the same instants as es, and reject the
+  same dates.
+   */
+  @Test
+  void testUnresolvedSameAsES() {
+    List<String> dates = new ArrayList<>(List.of(DateCorpus.generate(DateCorpus.Mix.MIXED, 10_000, 5, 2)));
+    dates.addAll(List.of(
+        "-2023-01-01", "2023", "2023-13", "2023-00", "2023-02-29", "2024-02-29", "2023-01-01T24",
+        "2023-01-01T23:59:60", "2023-01-01T00:00:00,5Z", "2023-01-01T00:00Z+0100", "2023-01-01T00:00+0530",
+        "2023-03-26T02:30Europe/Stockholm", "2023-10-29T02:30Europe/Stockholm", "0000-01-01T00:00Z", "x",
+        "2023-01-01T10:00:00+19:00", "2023-01-01T10:00:00+1900", "2023-01-01T10:00:00-18:00:01",
+        "2023-01-01T10:00:00+18:00"
+    ));
+    DateParser es = DateParsers.forName("es");
+    DateParser unresolved = DateParsers.forName("es_unresolved");
+    for (String date : dates) {
+      assertEquals(DateParsers.toInstant(es.parse(date)), DateParsers.toInstant(unresolved.parse(date)), date);
+      assertEquals(es.parseToEpochMillis(date), unresolved.parseToEpochMillis(date), date);
+    }
+  }
+
+  /*
+  The hybrid parser must give the same results as Elasticsearch for everything, including the negative years that
+  CharDateParser doesn't support, and what CharDateParser is lenient about after the time.
+   */
+  @Test
+  void testHybridSameAsES() {
+    List<String> dates = new ArrayList<>(List.of(DateCorpus.generate(DateCorpus.Mix.MIXED, 10_000, 5, 1)));
+    dates.addAll(List.of(
+        "-2023-01-01", "-0001-12-31T23:59:59.999Z", "-", "2023-01-01T01:01:01,123Z", "2023-01-01T01:01:01,123",
+        "2023-01-01T01:01:01Europe/Stockholmx", "2023-01-01T01:01:01+0100x", "2023-01-01T01:01:01+01:00x",
+        "2023-01-01T01:01:01.123+01:00 extra", "2023-01-01T01:01:01.Z", "2023-01-01T01:01:01.1234567891Z",
+        "2023-01-01T01:01Zx", "2023-01-01T01Z", "2023-01-01x", "2023-01-01T", "2023-01x", "20230101",
+        "2023-02-30", "2023-01-01T24:00:00Z", "2023-01-01T00:00:00UTC", "2023-01-01T00:00:00GMT+01:00"
+    ));
+    DateParser es = DateParsers.forName("es");
+    DateParser hybrid = DateParsers.forName("hybrid");
+    for (String date : dates) {
+      assertEquals(DateParsers.toInstant(es.parse(date)), DateParsers.toInstant(hybrid.parse(date)), date);
+      assertEquals(es.parseToEpochMillis(date), hybrid.parseToEpochMillis(date), date);
+    }
+    assertNotNull(hybrid.parse("-2023-01-01"));
+    assertNull(DateParsers.forName("char").parse("-2023-01-01"));
+  }
+
+  @Test
+  void testShadowVerify() {
+    List<String> mismatches = new ArrayList<>();
+    //Wrong for everything in 2023.
+    DateParser broken = date -> date.startsWith("2023") ? null : CharDateParser.parse(date);
+    ShadowVerifyingDateParser shadow = new ShadowVerifyingDateParser(
+        broken, DateParsers.forName("es"), 1, Runnable::run,
+        (date, parsed, expected) -> mismatches.add(date)
+    );
+    shadow.parse("2022-01-01T00:00:00Z");
+    shadow.parse("2023-01-01T00:00:00Z");
+    shadow.parseToEpochMillis("2024-01-01T00:00:00.123456Z");
+    shadow.parseToEpochMillis("2023-06-01");
+    assertEquals(4, shadow.verified());
+    assertEquals(2, shadow.mismatches());
+    assertEquals(List.of("2023-01-01T00:00:00Z", "2023-06-01"), mismatches);
+
+    ShadowVerifyingDateParser unsampled = new ShadowVerifyingDateParser(
+        broken, DateParsers.forName("es"), 0, Runnable::run,
+        (date, parsed, expected) -> mismatches.add(date)
+    );
+    unsampled.parse("2023-01-01T00:00:00Z");
+    assertEquals(0, unsampled.verified());
+  }
+
+  @Test
+  void testShared() {
+    for (String name : DateParsers.names()) {
+      assertSame(DateParsers.forName(name), DateParsers.forName(name), name);
+    }
+  }
+
+  @Test
+  void testUnknownName() {
+    assertThrows(IllegalArgumentException.class, () -> DateParsers.forName("nope"));
+  }
+}
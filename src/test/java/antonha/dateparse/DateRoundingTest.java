@@ -0,0 +1,204 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import antonha.dateparse.DateRounding.Unit;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class DateRoundingTest {
+
+  private static final List<String> ZONES = List.of(
+      "UTC", "+05:45", "-03:30", "Europe/Stockholm", "America/New_York", "Australia/Lord_Howe",
+      "America/Sao_Paulo", "Pacific/Chatham", "America/St_Johns", "Asia/Kolkata"
+  );
+
+  private static final long END_EPOCH_SECOND = LocalDate.of(2030, 1, 1).toEpochDay() * 86400;
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSVV");
+
+  /*
+  Around every transition of the zone: the start of the hour, day, week, month and year is then often in a gap or an
+  overlap, where the offset of the date decides the bucket key.
+   */
+  @TestFactory
+  Stream<DynamicTest> testAroundTransitionsSameAsJavaTime() {
+    return ZONES.stream().map(id -> DynamicTest.dynamicTest(id, () -> {
+      ZoneId zone = ZoneId.of(id);
+      List<Instant> instants = new ArrayList<>();
+      ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.EPOCH);
+      while (transition != null && transition.toEpochSecond() < END_EPOCH_SECOND) {
+        for (long delta : new long[]{-3600, -1, 0, 1, 1800, 3600}) {
+          instants.add(transition.getInstant().plusSeconds(delta));
+        }
+        transition = zone.getRules().nextTransition(transition.getInstant());
+      }
+      instants.add(Instant.parse("2023-06-15T12:34:56.789Z"));
+      for (Instant instant : instants) {
+        for (String dateZone : ZONES) {
+          assertSameAsJavaTime(instant.atZone(ZoneId.of(dateZone)).format(FORMATTER), zone);
+        }
+      }
+    }));
+  }
+
+  @TestFactory
+  Stream<DynamicTest> testRandomSameAsJavaTime() {
+    Random random = new Random(24);
+    long min = LocalDate.of(1800, 1, 1).toEpochDay() * 86400;
+    long max = LocalDate.of(2300, 1, 1).toEpochDay() * 86400;
+    return ZONES.stream().map(id -> DynamicTest.dynamicTest(id, () -> {
+      ZoneId zone = ZoneId.of(id);
+      for (int i = 0; i < 2000; i++) {
+        Instant instant = Instant.ofEpochSecond(random.nextLong(min, max), random.nextInt(1_000_000_000));
+        String dateZone = ZONES.get(random.nextInt(ZONES.size()));
+        assertSameAsJavaTime(instant.atZone(ZoneId.of(dateZone)).format(FORMATTER), zone);
+      }
+    }));
+  }
+
+  /*
+  Dates without time or zone, dates far after the transition tables, and the first and last dates the parser reads.
+   */
+  @TestFactory
+  Stream<DynamicTest> testEdgesSameAsJavaTime() {
+    return Stream.of(
+        "2023", "2023-03", "2023-03-26", "2023-03-26T02", "2023-03-26T02:30", "2023-10-29T02:30:00",
+        "2099-12-31T23:59:59Z", "2100-01-01T00:00:00Z", "2100-03-28T02:30:00+01:00", "2345-10-28T01:30:00-04:00",
+        "9999-12-31T23:59:59.999-18:00", "0000-01-01T00:00:00+18:00", "0000-01-01T00:00:00Z",
+        "0000-01-03T00:00:00Z", "1969-12-31T23:59:59.999Z", "1970-01-01T00:00:00Z"
+    ).map(dateString -> DynamicTest.dynamicTest(dateString, () -> {
+      for (String zone : ZONES) {
+        assertSameAsJavaTime(dateString, ZoneId.of(zone));
+      }
+      assertSameAsJavaTime(dateString, ZoneId.of("+18:00"));
+      assertSameAsJavaTime(dateString, ZoneId.of("-18:00"));
+    }));
+  }
+
+  /*
+  Epoch millis that are after the year 9999 in the zone, which the parser never gives but round takes.
+   */
+  @TestFactory
+  Stream<DynamicTest> testFarFutureSameAsJavaTime() {
+    List<String> zones = new ArrayList<>(ZONES);
+    zones.addAll(List.of("+05:30", "Asia/Tokyo", "+18:00", "-18:00"));
+    return zones.stream().map(id -> DynamicTest.dynamicTest(id, () -> {
+      ZoneId zone = ZoneId.of(id);
+      List<Instant> instants = new ArrayList<>(List.of(
+          Instant.parse("9999-12-31T23:59:59.999Z"), Instant.parse("+10000-01-01T00:00:00Z"),
+          Instant.parse("+16383-12-31T12:00:00Z"), Instant.parse("+16384-01-01T12:00:00Z")
+      ));
+      instants.add(Instant.ofEpochMilli(1_000_000_000_000_000L));
+      instants.add(Instant.ofEpochMilli(Long.MAX_VALUE / 1000));
+      for (Instant instant : instants) {
+        long epochMillis = instant.toEpochMilli();
+        for (Unit unit : Unit.values()) {
+          DateRounding rounding = new DateRounding(unit, zone);
+          assertEquals(round(instant, unit, zone), rounding.round(epochMillis), instant + " " + rounding);
+        }
+      }
+    }));
+  }
+
+  @Test
+  void testNoDate() {
+    DateRounding rounding = new DateRounding(Unit.DAY, ZoneId.of("Europe/Stockholm"));
+    assertEquals(CharDateParser.NO_DATE, rounding.parseToBucketKey("fish"));
+    byte[] bytes = "fish".getBytes(StandardCharsets.UTF_8);
+    assertEquals(CharDateParser.NO_DATE, rounding.parseToBucketKey(bytes, 0, bytes.length));
+  }
+
+  @Test
+  void testInvalidDate() {
+    DateRounding rounding = new DateRounding(Unit.DAY, ZoneId.of("Europe/Stockholm"));
+    assertThrows(DateTimeException.class, () -> rounding.parseToBucketKey("2023-02-29T12:00:00Z"));
+    byte[] bytes = "2023-13-01".getBytes(StandardCharsets.UTF_8);
+    assertThrows(DateTimeException.class, () -> rounding.parseToBucketKey(bytes, 0, bytes.length));
+  }
+
+  @Test
+  void testRange() {
+    DateRounding rounding = new DateRounding(Unit.HOUR, ZoneId.of("Asia/Kolkata"));
+    String text = "[\"2023-01-01T23:38:34.123Z\"]";
+    assertEquals(Instant.parse("2023-01-01T23:30:00Z").toEpochMilli(), rounding.parseToBucketKey(text, 2, 24));
+  }
+
+  private static void assertSameAsJavaTime(String dateString, ZoneId zone) {
+    Instant instant = DateParsers.toInstant(CharDateParser.parse(dateString));
+    byte[] bytes = dateString.getBytes(StandardCharsets.UTF_8);
+    for (Unit unit : Unit.values()) {
+      long expected = round(instant, unit, zone);
+      DateRounding rounding = new DateRounding(unit, zone);
+      String message = dateString + " " + rounding;
+      assertEquals(expected, rounding.parseToBucketKey(dateString), message);
+      assertEquals(expected, rounding.parseToBucketKey(bytes, 0, bytes.length), message);
+      assertEquals(expected, rounding.round(instant.toEpochMilli()), message);
+    }
+  }
+
+  /*
+  The way it is done with java.time: truncatedTo where it can be used, and otherwise the start of the period resolved
+  like truncatedTo resolves it, with the offset of the date preferred.
+   */
+  private static long round(Instant instant, Unit unit, ZoneId zone) {
+    ZonedDateTime date = instant.atZone(zone);
+    LocalDate day = date.toLocalDate();
+    switch (unit) {
+      case MINUTE:
+        return date.truncatedTo(ChronoUnit.MINUTES).toInstant().toEpochMilli();
+      case HOUR:
+        return date.truncatedTo(ChronoUnit.HOURS).toInstant().toEpochMilli();
+      case DAY:
+        return date.truncatedTo(ChronoUnit.DAYS).toInstant().toEpochMilli();
+      case WEEK:
+        return startOf(day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)), date);
+      case MONTH:
+        return startOf(day.withDayOfMonth(1), date);
+      case QUARTER:
+        return startOf(day.withMonth((day.getMonthValue() - 1) / 3 * 3 + 1).withDayOfMonth(1), date);
+      default:
+        return startOf(day.withDayOfYear(1), date);
+    }
+  }
+
+  private static long startOf(LocalDate day, ZonedDateTime date) {
+    LocalDateTime start = day.atStartOfDay();
+    return ZonedDateTime.ofLocal(start, date.getZone(), date.getOffset()).toInstant().toEpochMilli();
+  }
+}
@@ -0,0 +1,108 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static antonha.dateparse.CharDateParserTest.outcome;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class IncrementalDateParserTest {
+
+  private final Random random = new Random();
+
+  @Test
+  public void testMonotonicLogParsesSameAsCharDateParser() {
+    for (String pattern : CharDateParserTest.formats) {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+      List<ZoneId> zones = List.of(ZoneId.of("Z"), ZoneId.of("+05:30"), ZoneId.of("Europe/Stockholm"));
+      for (ZoneId zone : zones) {
+        List<String> log = new ArrayList<>();
+        Instant instant = Instant.parse("2023-03-26T00:59:58.123456789Z");
+        for (int i = 0; i < 2000; i++) {
+          instant = instant.plusNanos(random.nextLong(20_000_000_000L));
+          log.add(instant.atZone(zone).format(formatter));
+        }
+        assertParsesSame(log);
+      }
+    }
+  }
+
+  @Test
+  public void testChangesParseSameAsCharDateParser() {
+    List<String> dateStrings = List.of(
+        "2023-01-01T23:38:34.000Z",
+        "2023-01-01T23:38:34.001Z",
+        "2023-01-01T23:38:34.001Z",
+        "2023-01-01T23:38:35.001Z",
+        "2023-01-01T23:38:35.00aZ",
+        "2023-01-01T23:38:35.0011Z",
+        "2023-01-01T23:38:35.001+01:00",
+        "2023-01-01T23:38:35.001-01:00",
+        "2023-01-01T23:38:35.001Europe/Stockholm",
+        "2023-01-01T23:38:35.001Europe/Stockholm",
+        "2023-01-01T23:38:35.002Z",
+        "2023-01-01T23:38:95.002Z",
+        "2023-01-01T23:38:35,002Z",
+        "2023-01-01T23:78:35.002Z",
+        "2023-01-01T23-38:35.002Z",
+        "2023-01-01T24:38:35.002Z",
+        "2023-01-01T23:38:35.002Z",
+        "2023-01-01T33:38:35.002Z",
+        "2023-01-01T23:38:35.002Z",
+        "2023-01-01Ta3:38:35.002Z",
+        "2023-01-01T23:38:35.002Z",
+        "2023-01-02T23:38:35.002Z",
+        "2023-02-30T23:38:35.002Z",
+        "2023-02-28T23:38:35.002Z",
+        "2023-02-28T23:38",
+        "2023-02-28T23:39",
+        "2023-02-28T23:3a",
+        "2023-02-28T23:39",
+        "2023-02-28T23:39:ab",
+        "2023-02-28T23:40:ab",
+        "2023-02-28T23",
+        "2023-02-28T24",
+        "2023-02-28",
+        "2023-02-29",
+        "fish",
+        "2023-01-01T23:38:35.002Z and a lot of other text that makes this too long to remember",
+        "2023-01-01T23:38:35.002Z and a lot of other text that makes this too long to remember",
+        "2023-01-01T23:38:35.002Z"
+    );
+    assertParsesSame(dateStrings);
+  }
+
+  private void assertParsesSame(List<String> dateStrings) {
+    IncrementalDateParser parser = new IncrementalDateParser();
+    IncrementalDateParser bytesParser = new IncrementalDateParser();
+    for (String dateString : dateStrings) {
+      byte[] bytes = ("[" + dateString + "]").getBytes(StandardCharsets.UTF_8);
+      Object expected = outcome(() -> CharDateParser.parseToEpochMillis(dateString));
+      assertEquals(expected, outcome(() -> parser.parseToEpochMillis(dateString)), dateString);
+      assertEquals(expected, outcome(() -> bytesParser.parseToEpochMillis(bytes, 1, bytes.length - 2)), dateString);
+    }
+  }
+}
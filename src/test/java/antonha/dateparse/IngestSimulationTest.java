@@ -0,0 +1,58 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.jupiter.api.Test;
+
+class IngestSimulationTest {
+
+  @Test
+  void testAllDatesParse() {
+    byte[][] documents = IngestSimulation.documents(2000, 1);
+    for (IngestSimulation.Parser parser : IngestSimulation.Parser.values()) {
+      for (byte[] document : documents) {
+        assertEquals(0, IngestSimulation.parseDocument(parser, document), parser + ": " + new String(document));
+      }
+    }
+  }
+
+  @Test
+  void testRun() throws InterruptedException {
+    byte[][] documents = IngestSimulation.documents(100, 1);
+    IngestSimulation.Result result = IngestSimulation.run(
+        IngestSimulation.Parser.CHAR_PARSER_EPOCH_MILLIS, documents, 3, Thread::new, 10_000_000L);
+    assertTrue(result.documents > 0);
+    assertEquals(0, result.failed);
+  }
+
+  @Test
+  void testVirtualThreadFactory() throws InterruptedException {
+    assumeTrue(Runtime.version().feature() >= 21, "Virtual threads are final from Java 21");
+    ThreadFactory factory = IngestSimulation.virtualThreadFactory();
+    assertNotNull(factory);
+    IngestSimulation.Result result = IngestSimulation.run(
+        IngestSimulation.Parser.CHAR_PARSER_EPOCH_MILLIS, IngestSimulation.documents(100, 1), 3, factory, 10_000_000L);
+    assertTrue(result.documents > 0);
+  }
+}
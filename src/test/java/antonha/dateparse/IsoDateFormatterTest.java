@@ -0,0 +1,165 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class IsoDateFormatterTest {
+
+  private static final List<ZoneOffset> OFFSETS = List.of(
+      ZoneOffset.UTC,
+      ZoneOffset.ofHours(1),
+      ZoneOffset.ofHoursMinutes(5, 30),
+      ZoneOffset.ofHoursMinutes(-3, -30),
+      ZoneOffset.ofHours(-12),
+      ZoneOffset.ofHoursMinutesSeconds(1, 0, 30),
+      ZoneOffset.MAX,
+      ZoneOffset.MIN
+  );
+
+  private static final long MIN_SECOND = Instant.parse("0000-01-02T00:00:00Z").getEpochSecond();
+  private static final long MAX_SECOND = Instant.parse("9999-12-30T23:59:59Z").getEpochSecond();
+
+  @TestFactory
+  Stream<DynamicTest> testSameAsDateTimeFormatter() {
+    List<Instant> instants = instants();
+    List<DynamicTest> tests = new ArrayList<>();
+    for (ZoneOffset offset : OFFSETS) {
+      for (int digits = 0; digits <= 9; digits++) {
+        IsoDateFormatter formatter = IsoDateFormatter.of(digits, offset);
+        DateTimeFormatter reference = DateTimeFormatter.ofPattern(
+            "uuuu-MM-dd'T'HH:mm:ss" + (digits > 0 ? "." + "S".repeat(digits) : "") + "XXXXX");
+        tests.add(DynamicTest.dynamicTest(offset + " with " + digits + " digits", () -> {
+          for (Instant instant : instants) {
+            String expected = reference.format(instant.atOffset(offset));
+            assertEquals(expected, formatChars(formatter, instant), instant.toString());
+            assertEquals(expected, formatBytes(formatter, instant), instant.toString());
+            assertEquals(expected.length(), formatter.length());
+          }
+        }));
+      }
+    }
+    return tests.stream();
+  }
+
+  @TestFactory
+  Stream<DynamicTest> testRoundTrip() {
+    List<Instant> instants = instants();
+    List<DynamicTest> tests = new ArrayList<>();
+    for (ZoneOffset offset : OFFSETS) {
+      for (int digits : new int[]{0, 3, 6, 9}) {
+        IsoDateFormatter formatter = IsoDateFormatter.of(digits, offset);
+        ChronoUnit unit = digits == 0 ? ChronoUnit.SECONDS : digits == 3 ? ChronoUnit.MILLIS
+            : digits == 6 ? ChronoUnit.MICROS : ChronoUnit.NANOS;
+        tests.add(DynamicTest.dynamicTest(offset + " with " + digits + " digits", () -> {
+          for (Instant instant : instants) {
+            String formatted = formatChars(formatter, instant);
+            Instant truncated = instant.truncatedTo(unit);
+            assertEquals(truncated.toEpochMilli(), CharDateParser.parseToEpochMillis(formatted), formatted);
+            if (instant.getEpochSecond() >= -9223372036L && instant.getEpochSecond() < 9223372036L) {
+              assertEquals(truncated.getEpochSecond() * 1_000_000_000L + truncated.getNano(),
+                  CharDateParser.parseToEpochNanos(formatted), formatted);
+            }
+          }
+        }));
+      }
+    }
+    return tests.stream();
+  }
+
+  @Test
+  void testEpochMillis() {
+    Random random = new Random(42);
+    char[] chars = new char[IsoDateFormatter.MAX_LENGTH];
+    byte[] bytes = new byte[IsoDateFormatter.MAX_LENGTH];
+    for (int i = 0; i < 10_000; i++) {
+      long millis = MIN_SECOND * 1000 + (long) (random.nextDouble() * (MAX_SECOND - MIN_SECOND) * 1000);
+      String expected = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX")
+          .format(Instant.ofEpochMilli(millis).atOffset(ZoneOffset.UTC));
+      int end = IsoDateFormatter.MILLIS_UTC.formatEpochMillis(millis, chars, 0);
+      assertEquals(expected, new String(chars, 0, end));
+      end = IsoDateFormatter.MILLIS_UTC.formatEpochMillis(millis, bytes, 0);
+      assertEquals(expected, new String(bytes, 0, end, StandardCharsets.US_ASCII));
+      assertEquals(millis, CharDateParser.parseToEpochMillis(expected));
+    }
+  }
+
+  @Test
+  void testWritesAtOffset() {
+    char[] chars = new char[IsoDateFormatter.MAX_LENGTH + 3];
+    int end = IsoDateFormatter.MILLIS_UTC.formatEpochMillis(1672616314000L, chars, 3);
+    assertEquals(27, end);
+    assertEquals("2023-01-01T23:38:34.000Z", new String(chars, 3, end - 3));
+  }
+
+  @Test
+  void testOutOfRange() {
+    byte[] bytes = new byte[IsoDateFormatter.MAX_LENGTH];
+    assertThrows(DateTimeException.class, () -> IsoDateFormatter.MILLIS_UTC.formatEpochMillis(
+        Instant.parse("-0001-12-31T23:59:59Z").toEpochMilli(), bytes, 0));
+    assertThrows(DateTimeException.class, () -> IsoDateFormatter.MILLIS_UTC.formatEpochMillis(
+        Instant.parse("+10000-01-01T00:00:00Z").toEpochMilli(), bytes, 0));
+    assertThrows(DateTimeException.class, () -> IsoDateFormatter.of(3, ZoneOffset.ofHours(-1)).formatEpochMillis(
+        Instant.parse("0000-01-01T00:00:00Z").toEpochMilli(), bytes, 0));
+    assertThrows(IllegalArgumentException.class, () -> IsoDateFormatter.of(10, ZoneOffset.UTC));
+  }
+
+  private static List<Instant> instants() {
+    Random random = new Random(1);
+    List<Instant> instants = new ArrayList<>();
+    instants.add(Instant.EPOCH);
+    instants.add(Instant.parse("2023-01-01T23:38:34.123456789Z"));
+    instants.add(Instant.parse("2000-02-29T12:00:00Z"));
+    instants.add(Instant.parse("1900-03-01T00:00:00Z"));
+    instants.add(Instant.parse("1969-12-31T23:59:59.999999999Z"));
+    instants.add(Instant.ofEpochSecond(MIN_SECOND));
+    instants.add(Instant.ofEpochSecond(MAX_SECOND, 999_999_999));
+    for (int i = 0; i < 2000; i++) {
+      long second = MIN_SECOND + (long) (random.nextDouble() * (MAX_SECOND - MIN_SECOND));
+      instants.add(Instant.ofEpochSecond(second, random.nextInt(1_000_000_000)));
+    }
+    return instants;
+  }
+
+  private static String formatChars(IsoDateFormatter formatter, Instant instant) {
+    char[] chars = new char[IsoDateFormatter.MAX_LENGTH];
+    int end = formatter.format(instant.getEpochSecond(), instant.getNano(), chars, 0);
+    return new String(chars, 0, end);
+  }
+
+  private static String formatBytes(IsoDateFormatter formatter, Instant instant) {
+    byte[] bytes = new byte[IsoDateFormatter.MAX_LENGTH];
+    int end = formatter.format(instant.getEpochSecond(), instant.getNano(), bytes, 0);
+    return new String(bytes, 0, end, StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class MultiFormatDateParserTest {
+
+  private static final List<String> FORMATS = List.of(
+      "strict_date_optional_time||epoch_millis",
+      "epoch_millis||strict_date_optional_time",
+      "strict_date_optional_time||epoch_second",
+      "epoch_second",
+      "epoch_millis",
+      "uuuuMMdd||epoch_millis",
+      "strict_date_time||basic_date_time||epoch_second"
+  );
+
+  private static final List<String> DATE_STRINGS = List.of(
+      "2023-01-01T23:38:34.000Z",
+      "2023-01-01T23:38:34.000+01:00",
+      "2023-01-01T23:38:34.000+0100",
+      "2023-01-01T23:38:34.000+01",
+      "2023-01-01T23:38:34.000+1",
+      "2023-01-01T23:38:34.000+19:00",
+      "2023-01-01T23:38:34.000+01:60",
+      "2023-01-01T23:38:34.000Europe/Stockholm",
+      "2023-01-01T23:38:34.000Europe/Stockholmx",
+      "2023-01-01T23:38:34.000UTC+01:00",
+      "2023-01-01T23:38:34.000GMT",
+      "2023-01-01T23:38:34.000Zulu",
+      "2023-01-01T23:38:34.000Zx",
+      "2023-01-01T23:38:34,5Z",
+      "2023-01-01T23:38:34.",
+      "2023-01-01T23:38:34.Z",
+      "2023-01-01T23:38:34.1234567891Z",
+      "2023-01-01T23:38:34",
+      "2023-01-01T23:38",
+      "2023-01-01T23",
+      "2023-01-01T23Z",
+      "2023-01-01T",
+      "2023-01-01TZ",
+      "2023-01-01Z",
+      "2023-01-01 is a date",
+      "2023-01-01",
+      "2023-01",
+      "2023",
+      "2023-02-30",
+      "2023-13",
+      "20230101T233834.123Z",
+      "20230101",
+      "20231301",
+      "0",
+      "1",
+      "-1",
+      "1.5",
+      "-1.5",
+      "1.",
+      "-1.",
+      ".5",
+      "-",
+      "",
+      "1e3",
+      "+1",
+      "1672616314000",
+      "1672616314.123456789",
+      "1672616314.1234567891",
+      "1672616314000.123456",
+      "1672616314000.1234567",
+      "-1672616314000.000001",
+      "9223372036854775807",
+      "9223372036854775808",
+      "-9223372036854775807",
+      "12345678901234567890",
+      "9223372036854775",
+      "9223372036854776",
+      "fish"
+  );
+
+  @TestFactory
+  public Stream<DynamicTest> testParsesSameAsES() {
+    return FORMATS.stream().flatMap(formats -> {
+      MultiFormatDateParser parser = MultiFormatDateParser.of(formats);
+      return DATE_STRINGS.stream().map(dateString ->
+          DynamicTest.dynamicTest(String.format("%s: '%s'", formats, dateString),
+              () -> assertParsesSame(parser, dateString)));
+    });
+  }
+
+  private final Random random = new Random();
+
+  @Test
+  public void testRandomParsesSameAsES() {
+    long min = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("9999-12-31T23:59:59.999Z").toEpochMilli();
+    List<String> dateStrings = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Instant instant = Instant.ofEpochMilli(min + random.nextLong(max - min))
+          .plusNanos(random.nextLong(1_000_000_000));
+      String format = CharDateParserTest.formats.get(random.nextInt(CharDateParserTest.formats.size()));
+      ZoneId zone = CharDateParserTest.timeZones.get(random.nextInt(CharDateParserTest.timeZones.size()));
+      String dateString = instant.atZone(zone).format(DateTimeFormatter.ofPattern(format));
+      dateStrings.add(dateString);
+      dateStrings.add(dateString.substring(0, random.nextInt(dateString.length())));
+      dateStrings.add(Long.toString(random.nextLong()));
+      dateStrings.add(Long.toString(random.nextLong(max / 1000)));
+      dateStrings.add((random.nextBoolean() ? "-" : "") + random.nextLong(max) + "." + random.nextInt(1_000_000));
+      dateStrings.add((random.nextBoolean() ? "-" : "") + random.nextLong(max / 1000) + "." + random.nextInt());
+    }
+    for (String formats : FORMATS) {
+      MultiFormatDateParser parser = MultiFormatDateParser.of(formats);
+      for (String dateString : dateStrings) {
+        assertParsesSame(parser, dateString);
+      }
+    }
+  }
+
+  private static void assertParsesSame(MultiFormatDateParser parser, String dateString) {
+    long expected = toEpochMillis(dateString, parser.formats());
+    assertEquals(expected, parser.parseToEpochMillis(dateString), parser.formats() + ": " + dateString);
+  }
+
+  /*
+  Elasticsearch fails to parse dates that can't be resolved, or that don't fit in an Instant or in epoch millis, like
+  huge epoch_second values. The parser treats them as no date.
+   */
+  private static long toEpochMillis(String dateString, String formats) {
+    try {
+      TemporalAccessor parsed = ElasticsearchParsers.doParseMultiFormat(formats, dateString);
+      if (parsed == null) {
+        return CharDateParser.NO_DATE;
+      }
+      Instant instant = parsed instanceof Instant ? (Instant) parsed : CharDateParserTest.toInstant(parsed);
+      return instant.toEpochMilli();
+    } catch (DateTimeException | ArithmeticException e) {
+      return CharDateParser.NO_DATE;
+    }
+  }
+}
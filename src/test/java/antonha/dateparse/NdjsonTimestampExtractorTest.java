@@ -0,0 +1,106 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class NdjsonTimestampExtractorTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void testSameAsParsingEachLine() throws IOException {
+    String[] dates = DateCorpus.generate(DateCorpus.Mix.MIXED, 5000, 10, 1);
+    List<String> lines = new ArrayList<>();
+    List<Long> expected = new ArrayList<>();
+    long rejects = 0;
+    for (int i = 0; i < dates.length; i++) {
+      switch (i % 7) {
+        case 0:
+          lines.add("{\"message\":\"no timestamp\"}");
+          rejects++;
+          continue;
+        case 1:
+          lines.add("");
+          continue;
+        case 2:
+          lines.add("{\"host\":{\"name\":\"a\"}, \"@timestamp\" : \"" + dates[i] + "\"}\r");
+          break;
+        default:
+          lines.add("{\"@timestamp\":\"" + dates[i] + "\",\"message\":\"" + "x".repeat(i % 300) + "\"}");
+      }
+      long millis = CharDateParser.tryParseToEpochMillis(dates[i]);
+      if (ParseStatus.isError(millis)) {
+        rejects++;
+      } else {
+        expected.add(millis);
+      }
+    }
+    Path file = dir.resolve("logs.ndjson");
+    Files.write(file, lines, StandardCharsets.UTF_8);
+
+    for (int chunkSize : new int[]{1, 100, 4096, NdjsonTimestampExtractor.DEFAULT_CHUNK_SIZE}) {
+      for (int parallelism : new int[]{1, 3}) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        NdjsonTimestampExtractor.Result result = NdjsonTimestampExtractor.extract(file, "@timestamp", pool, chunkSize);
+        pool.shutdown();
+        long[] timestamps = new long[result.timestamps().size()];
+        for (int i = 0; i < timestamps.length; i++) {
+          timestamps[i] = result.timestamps().get(i);
+        }
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), timestamps);
+        assertEquals(rejects, result.rejects());
+        assertEquals(Files.size(file), result.bytes());
+      }
+    }
+  }
+
+  @Test
+  void testChunksEndAfterNewlines() throws IOException {
+    Path file = dir.resolve("chunks.ndjson");
+    Files.write(file, "aaaa\nbbbbbbbbbbbb\nc\n\ndd".getBytes(StandardCharsets.US_ASCII));
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      assertArrayEquals(new long[]{0, 5, 18, 20, 23}, NdjsonTimestampExtractor.chunkBounds(channel, 23, 1));
+      assertArrayEquals(new long[]{0, 18, 23}, NdjsonTimestampExtractor.chunkBounds(channel, 23, 6));
+      assertArrayEquals(new long[]{0, 23}, NdjsonTimestampExtractor.chunkBounds(channel, 23, 100));
+    }
+  }
+
+  @Test
+  void testEmptyFile() throws IOException {
+    Path file = dir.resolve("empty.ndjson");
+    Files.createFile(file);
+    NdjsonTimestampExtractor.Result result = NdjsonTimestampExtractor.extract(file, "@timestamp", ForkJoinPool.commonPool());
+    assertEquals(0, result.timestamps().size());
+    assertEquals(0, result.rejects());
+  }
+}
@@ -0,0 +1,145 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParseEventsTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void testSlowPathEvents() throws Exception {
+    String zone = "Nowhere/Zone" + System.nanoTime();
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(ParseEvents.ZoneLookup.class);
+      recording.enable(ParseEvents.InvalidDate.class);
+      recording.enable(ParseEvents.Fallback.class);
+      recording.enable(ParseEvents.BatchParse.class);
+      recording.start();
+      CharDateParser.parse("2023-01-01T00:00:00" + zone);
+      assertThrows(DateTimeException.class, () -> CharDateParser.parse("2023-02-30"));
+      new HybridDateParser().parseToEpochMillis("-2023-01-01");
+      MultiFormatDateParser.of("strict_date_optional_time||epoch_millis").parseToEpochMillis("2023-01-01T00:00:00,5Z");
+      BatchDateParser.parseToEpochMillis(new CharSequence[]{"2023-01-01", "x", "2023-13"}, 3, new long[3], new byte[3]);
+      recording.stop();
+      events = read(recording);
+    }
+
+    RecordedEvent lookup = only(events, "antonha.dateparse.ZoneLookup", e -> e.getString("id").equals(zone));
+    assertFalse(lookup.getBoolean("valid"));
+
+    RecordedEvent invalid = only(events, "antonha.dateparse.InvalidDate",
+        e -> e.getString("message").equals("Invalid date 'FEBRUARY 30'"));
+    assertTrue(invalid.getStackTrace() != null);
+
+    RecordedEvent hybrid = only(events, "antonha.dateparse.Fallback", e -> e.getString("parser").equals("hybrid"));
+    assertEquals("-2023-01-01", hybrid.getString("dateString"));
+    assertEquals("negative year", hybrid.getString("reason"));
+    RecordedEvent multi = only(events, "antonha.dateparse.Fallback",
+        e -> e.getString("parser").equals("strict_date_optional_time"));
+    assertEquals("zone", multi.getString("reason"));
+
+    RecordedEvent batch = only(events, "antonha.dateparse.BatchParse", e -> true);
+    assertEquals(3, batch.getInt("rows"));
+    assertEquals(1, batch.getInt("noDate"));
+    assertEquals(1, batch.getInt("invalid"));
+  }
+
+  @Test
+  void testNoEventsWhenDisabled() throws Exception {
+    try (Recording recording = new Recording()) {
+      recording.enable(ParseEvents.InvalidDate.class).withoutStackTrace();
+      recording.disable(ParseEvents.ZoneLookup.class);
+      recording.start();
+      CharDateParser.parse("2023-01-01T00:00:00Nowhere/Zone" + System.nanoTime());
+      recording.stop();
+      assertTrue(read(recording).isEmpty());
+    }
+  }
+
+  /*
+  ParseStats is switched on for this test by the surefire configuration, so the statistics are registered when it is
+  loaded. That is done before the recording starts, since a recording only picks up the period of a new periodic event
+  after a while.
+   */
+  @Test
+  void testStatistics() throws Exception {
+    assertTrue(ParseStats.enabled());
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(ParseEvents.ParseStatistics.class).withPeriod(Duration.ofMillis(50));
+      recording.start();
+      long end = System.nanoTime() + 300_000_000L;
+      while (System.nanoTime() < end) {
+        CharDateParser.tryParseToEpochMillis("2023-01-01T00:00:00.123Z");
+      }
+      recording.stop();
+      events = read(recording);
+    }
+    long dates = events.stream().mapToLong(e -> e.getLong("dates")).sum();
+    long millis = events.stream().mapToLong(e -> e.getLong("fraction3")).sum();
+    assertTrue(dates > 0);
+    assertTrue(millis > 0);
+  }
+
+  @Test
+  void testProfiler() throws Exception {
+    Path output = dir.resolve("batch.jfr");
+    String[] corpus = DateCorpus.generate(DateCorpus.Mix.MIXED, 2048, 5, 1);
+    long dates = ParseProfiler.record("batch", corpus, 100_000_000L, output);
+    assertTrue(dates >= corpus.length);
+    List<RecordedEvent> batches = RecordingFile.readAllEvents(output).stream()
+        .filter(e -> e.getEventType().getName().equals("antonha.dateparse.BatchParse"))
+        .collect(Collectors.toList());
+    assertEquals(dates, batches.stream().mapToLong(e -> e.getInt("rows")).sum());
+  }
+
+  private List<RecordedEvent> read(Recording recording) throws Exception {
+    Path file = Files.createTempFile(dir, "events", ".jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file);
+  }
+
+  private static RecordedEvent only(
+      List<RecordedEvent> events, String name, Predicate<RecordedEvent> filter) {
+    List<RecordedEvent> matching = events.stream()
+        .filter(e -> e.getEventType().getName().equals(name) && filter.test(e))
+        .collect(Collectors.toList());
+    assertEquals(1, matching.size(), name + " " + matching);
+    return matching.get(0);
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/*
+The counters are switched on for this test by the surefire configuration, which runs it in a fork of its own.
+ */
+class ParseStatsTest {
+
+  @BeforeEach
+  void reset() {
+    assertTrue(ParseStats.enabled());
+    ParseStats.reset();
+  }
+
+  @Test
+  void testPrecisions() {
+    CharDateParser.parse("2023");
+    CharDateParser.parse("2023-01");
+    CharDateParser.parseToEpochMillis("2023-01-01");
+    CharDateParser.tryParseToEpochMillis("2023-01-01T23");
+    byte[] bytes = "2023-01-01T23:38Z".getBytes(StandardCharsets.UTF_8);
+    CharDateParser.parseToEpochNanos(bytes, 0, bytes.length);
+    CharDateParser.parse("2023-01-01T23:38:34Z");
+    CharDateParser.parse("2023-01-01T23:38:34.1Z");
+    CharDateParser.parse("2023-01-01T23:38:34.123Z");
+    CharDateParser.tryParseToEpochNanos("2023-01-01T23:38:34.123456789Z");
+
+    ParseStats.Snapshot snapshot = ParseStats.snapshot();
+    assertEquals(1, snapshot.get(ParseStats.Counter.YEAR));
+    assertEquals(1, snapshot.get(ParseStats.Counter.MONTH));
+    assertEquals(1, snapshot.get(ParseStats.Counter.DAY));
+    assertEquals(1, snapshot.get(ParseStats.Counter.HOUR));
+    assertEquals(1, snapshot.get(ParseStats.Counter.MINUTE));
+    assertEquals(1, snapshot.get(ParseStats.Counter.SECOND));
+    assertEquals(3, snapshot.get(ParseStats.Counter.FRACTION));
+    assertEquals(1, snapshot.fractionDigits(1));
+    assertEquals(1, snapshot.fractionDigits(3));
+    assertEquals(1, snapshot.fractionDigits(9));
+    assertEquals(0, snapshot.fractionDigits(6));
+    assertEquals(0, snapshot.get(ParseStats.Counter.NO_DATE));
+  }
+
+  @Test
+  void testFailures() {
+    assertEquals(null, CharDateParser.parse("not a date"));
+    CharDateParser.tryParseToEpochMillis("23");
+    assertThrows(DateTimeException.class, () -> CharDateParser.parse("2023-13-01"));
+    CharDateParser.tryParseToEpochMillis("2023-02-30T00:00Z");
+    CharDateParser.tryParseToEpochMillis("2023-01-01T24:00Z");
+
+    ParseStats.Snapshot snapshot = ParseStats.snapshot();
+    assertEquals(2, snapshot.get(ParseStats.Counter.NO_DATE));
+    assertEquals(1, snapshot.get(ParseStats.Counter.INVALID_MONTH));
+    assertEquals(1, snapshot.get(ParseStats.Counter.INVALID_DAY));
+    assertEquals(1, snapshot.get(ParseStats.Counter.INVALID_HOUR));
+    //Invalid dates still count for their precision, no dates don't.
+    assertEquals(1, snapshot.get(ParseStats.Counter.DAY));
+    assertEquals(2, snapshot.get(ParseStats.Counter.MINUTE));
+  }
+
+  @Test
+  void testZones() {
+    CharDateParser.parse("2023-01-01T23:38:34Z");
+    CharDateParser.parse("2023-01-01T23:38:34+01:00");
+    CharDateParser.parse("2023-01-01T23:38:34-0530");
+    CharDateParser.parse("2023-01-01T23:38:34");
+    String zone = "America/Argentina/Rio_Gallegos";
+    CharDateParser.parse("2023-01-01T23:38:34" + zone);
+    CharDateParser.parse("2023-01-01T23:38:34" + zone);
+    CharDateParser.parse("2023-01-01T23:38:34Mars/Olympus_Mons");
+
+    ParseStats.Snapshot snapshot = ParseStats.snapshot();
+    assertEquals(1, snapshot.get(ParseStats.Counter.ZONE_UTC));
+    assertEquals(2, snapshot.get(ParseStats.Counter.ZONE_OFFSET));
+    //The zone may already be cached by another test, but not twice.
+    assertEquals(2, snapshot.get(ParseStats.Counter.ZONE_CACHE_HIT) + snapshot.get(ParseStats.Counter.ZONE_CACHE_MISS));
+    assertTrue(snapshot.get(ParseStats.Counter.ZONE_CACHE_HIT) >= 1);
+    assertEquals(1, snapshot.get(ParseStats.Counter.ZONE_INVALID));
+  }
+
+  @Test
+  void testReset() {
+    CharDateParser.parse("2023-01-01T23:38:34Z");
+    assertEquals(1, ParseStats.snapshot().get(ParseStats.Counter.SECOND));
+    ParseStats.reset();
+    assertEquals(0, ParseStats.snapshot().get(ParseStats.Counter.SECOND));
+    assertEquals(0, ParseStats.snapshot().get(ParseStats.Counter.ZONE_UTC));
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class ParsedDateTest {
+
+  @TestFactory
+  public Stream<DynamicTest> testPrecision() {
+    return Stream.of(
+        "2023", "YEAR",
+        "2023-05", "MONTH",
+        "2023-05-17", "DAY",
+        "2023-05-17T13", "HOUR",
+        "2023-05-17T13:01Z", "MINUTE",
+        "2023-05-17T13:01:02+01:00", "SECOND",
+        "2023-05-17T13:01:02.5Europe/Stockholm", "FRACTION",
+        "2023-05-17T13:01:02.Z", "FRACTION"
+    ).collect(Collectors.collectingAndThen(Collectors.toList(), list ->
+        IntStream.range(0, list.size() / 2).mapToObj(i -> {
+          String dateString = list.get(2 * i);
+          String precision = list.get(2 * i + 1);
+          return DynamicTest.dynamicTest(String.format("str: '%s'", dateString), () -> {
+            ParsedDate date = new ParsedDate();
+            assertTrue(CharDateParser.parseInto(dateString, date));
+            assertEquals(ParsedDate.Precision.valueOf(precision), date.precision());
+            assertEquals(CharDateParser.parse(dateString), date.toTemporalAccessor());
+            assertEquals(CharDateParser.parseToEpochMillis(dateString), date.toEpochMilli());
+            assertEquals(CharDateParser.parseToEpochNanos(dateString), date.toEpochNanos());
+            assertEquals(CharDateParserTest.toInstant(CharDateParser.parse(dateString)), date.toInstant());
+          });
+        })));
+  }
+
+  @Test
+  void testFields() {
+    ParsedDate date = new ParsedDate();
+    assertTrue(CharDateParser.parseInto("2023-05", date));
+    assertEquals(2023, date.year());
+    assertEquals(5, date.month());
+    assertEquals(1, date.day());
+    assertEquals(0, date.hour());
+    assertEquals(0, date.nano());
+    assertFalse(date.hasZone());
+    assertEquals(0, date.offsetSeconds());
+
+    assertTrue(CharDateParser.parseInto("2023-05-17T13:01:02.123456Z", date));
+    assertEquals(17, date.day());
+    assertEquals(13, date.hour());
+    assertEquals(1, date.minute());
+    assertEquals(2, date.second());
+    assertEquals(123_456_000, date.nano());
+    assertEquals(6, date.fractionDigits());
+    assertEquals(ZoneOffset.UTC, date.zone());
+  }
+
+  @Test
+  void testOffsets() {
+    ParsedDate date = new ParsedDate();
+    assertTrue(CharDateParser.parseInto("2023-05-17T13:01:02-05:30", date));
+    assertEquals(-5 * 3600 - 30 * 60, date.offsetSeconds());
+    assertTrue(CharDateParser.parseInto("2023-05-17T13:01:02Europe/Stockholm", date));
+    assertEquals(ZoneId.of("Europe/Stockholm"), date.zone());
+    assertEquals(7200, date.offsetSeconds());
+    assertTrue(CharDateParser.parseInto("2023-01-17T13:01:02Europe/Stockholm", date));
+    assertEquals(3600, date.offsetSeconds());
+  }
+
+  /*
+  The fields are those of the date string also when the local time falls in a gap, while ZonedDateTime moves them.
+   */
+  @Test
+  void testGap() {
+    ParsedDate date = new ParsedDate();
+    String dateString = "2023-03-26T02:30:00Europe/Stockholm";
+    assertTrue(CharDateParser.parseInto(dateString, date));
+    assertEquals(2, date.hour());
+    assertEquals(3600, date.offsetSeconds());
+    assertEquals(CharDateParserTest.toInstant(CharDateParser.parse(dateString)), date.toInstant());
+    assertEquals(CharDateParser.parse(dateString), date.toTemporalAccessor());
+  }
+
+  @Test
+  void testNoDateAndInvalidLeaveDateUnchanged() {
+    ParsedDate date = new ParsedDate();
+    assertTrue(CharDateParser.parseInto("2023-05-17T13:01:02Z", date));
+    assertFalse(CharDateParser.parseInto("fish", date));
+    assertThrows(DateTimeException.class, () -> CharDateParser.parseInto("2023-02-30T00:00Z", date));
+    assertEquals(17, date.day());
+    assertEquals(ParsedDate.Precision.SECOND, date.precision());
+  }
+
+  @Test
+  void testInputs() {
+    String dateString = "2023-05-17T13:01:02.123+01:00";
+    byte[] bytes = ("{\"@timestamp\":\"" + dateString + "\"}").getBytes(StandardCharsets.UTF_8);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    long expected = CharDateParser.parseToEpochMillis(dateString);
+    ParsedDate date = new ParsedDate();
+    assertTrue(CharDateParser.parseInto(bytes, 15, dateString.length(), date));
+    assertEquals(expected, date.toEpochMilli());
+    assertTrue(CharDateParser.parseInto(direct, 15, dateString.length(), date));
+    assertEquals(expected, date.toEpochMilli());
+    assertTrue(CharDateParser.parseInto(new String(bytes, StandardCharsets.UTF_8), 15, dateString.length(), date));
+    assertEquals(expected, date.toEpochMilli());
+  }
+
+  @Test
+  void testDoesNotAllocate() {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assertTrue(threads.isThreadAllocatedMemoryEnabled());
+    byte[][] dates = Stream.of(
+        "2023-05-17T13:01:02.123Z", "2023-05-17T13:01:02+01:00", "2023-05-17T13:01Europe/Stockholm", "2023-05-17"
+    ).map(s -> s.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    ParsedDate date = new ParsedDate();
+    long sum = 0;
+    for (int round = 0; round < 2; round++) {
+      long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+      for (int i = 0; i < 10_000; i++) {
+        byte[] bytes = dates[i & 3];
+        CharDateParser.parseInto(bytes, 0, bytes.length, date);
+        sum += date.toEpochMilli() + date.offsetSeconds();
+      }
+      long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+      //The first round may fill caches.
+      if (round == 1) {
+        assertTrue(allocated < 1_000, allocated + " bytes allocated");
+      }
+    }
+    assertTrue(sum != 0);
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicContainer;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+class StrictCharDateParserTest {
+
+  @TestFactory
+  public Stream<DynamicTest> testParsesSameAsES() {
+    return Stream.of(
+        "2023-01-01T23:38:34.000Z",
+        "2023-01-01T06:16:12.542",
+        "2023-01-01T06:16:12",
+        "2023-01-01T06:16:12Z",
+        "2023-01-01T06:16:12.123456789",
+        "2023-01-01T06:16:12.1234567891",
+        "2023-01-01T06:16:12.",
+        "2023-01-01T06:16:12.a",
+        "2023-01-01T06:16:12,123",
+        "2023-01-01T06:16:12 is a date",
+        "2023-01T06:16:12",
+        "2023T06:16:12.5",
+        "2023-1T06:16:12",
+        "2023-01-1T06:16:12",
+        "2023-13T06:16:12",
+
+        //Partial dates and times are not dates
+        "",
+        "fish",
+        "2023",
+        "2023-01",
+        "2023-01-01",
+        "2023-01-01Z",
+        "2023-01-01T",
+        "2023-01-01T06",
+        "2023-01-01T06:16",
+        "2023-01-01T06:16Z",
+        "2023-01-01T06:16:1",
+        "2023-01-01T6:16:12",
+        "2023-01-01 06:16:12",
+
+        //Neither are invalid values
+        "2023-02-29T00:00:00",
+        "2024-02-29T00:00:00",
+        "2023-04-31T00:00:00",
+        "2023-00-01T00:00:00",
+        "2023-01-00T00:00:00",
+        "2023-01-01T24:00:00",
+        "2023-01-01T23:60:00",
+        "2023-01-01T23:59:60",
+        "0000-01-01T00:00:00",
+        "9999-12-31T23:59:59.999999999"
+    ).map(dateString -> DynamicTest.dynamicTest(String.format("str: '%s'", dateString),
+        () -> assertParsesSame(dateString)));
+  }
+
+  private final Random random = new Random();
+
+  /*
+  Same as the random tests for CharDateParser, but with fewer instants per zone. Formats without a time are included,
+  since the strict parser must reject them.
+   */
+  @TestFactory
+  @Execution(ExecutionMode.CONCURRENT)
+  public Stream<DynamicContainer> testRandomParsesSameAsES() {
+    long min = Instant.parse("0000-01-01T00:00:00Z").toEpochMilli();
+    long max = Instant.parse("9999-12-31T23:59:59.999Z").toEpochMilli();
+    return Stream.concat(
+        CharDateParserTest.formats.stream().map(format -> format.replace("hh", "HH")),
+        Stream.of("uuuu'T'HH:mm:ss", "uuuu-MM'T'HH:mm:ss.SSS", "uuuu-MM-dd'T'HH:mm:ss.SSSSSSSSS'1'XXX")
+    ).map(format -> {
+      DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+      return DynamicContainer.dynamicContainer(
+          format,
+          CharDateParserTest.timeZones.stream().map(zone ->
+              DynamicContainer.dynamicContainer(
+                  zone.toString(),
+                  Stream.generate(
+                      () -> Instant.ofEpochMilli(min + random.nextLong(max - min))
+                          .plusNanos(random.nextLong(1_000_000_000))
+                  ).limit(3).map(instant -> {
+                    String dateString = instant.atZone(zone).format(formatter);
+                    return DynamicTest.dynamicTest(dateString, () -> assertParsesSame(dateString));
+                  })
+              )));
+    });
+  }
+
+  private static void assertParsesSame(String dateString) {
+    Instant expected = toInstantOrNull(ElasticsearchParsers.doParseStrict(dateString));
+    assertEquals(expected, CharDateParserTest.toInstant(StrictCharDateParser.parse(dateString)));
+    long expectedMillis = expected == null ? CharDateParser.NO_DATE : expected.toEpochMilli();
+    assertEquals(expectedMillis, StrictCharDateParser.parseToEpochMillis(dateString));
+
+    String padded = "{\"@timestamp\":\"" + dateString + "\"}";
+    int offset = padded.indexOf(dateString);
+    byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+    assertEquals(expected,
+        CharDateParserTest.toInstant(StrictCharDateParser.parse(padded, offset, dateString.length())));
+    assertEquals(expected,
+        CharDateParserTest.toInstant(StrictCharDateParser.parse(bytes, offset, dateString.length())));
+    assertEquals(expectedMillis, StrictCharDateParser.parseToEpochMillis(bytes, offset, dateString.length()));
+  }
+
+  /*
+  The formatter can parse fields that don't make a date, like a month of 13, which the tests can't turn into an
+  Instant. The strict parser treats them as not a date.
+   */
+  private static Instant toInstantOrNull(TemporalAccessor parsed) {
+    try {
+      return CharDateParserTest.toInstant(parsed);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/*
+The SWAR scan must give the same fields as the scalar scan whenever it gives any. The char scanner is the reference,
+it is the same as the scalar byte scanner.
+ */
+class SwarScannerTest {
+
+  private static final String[] DATES = {
+      "2023-01-01T23:38:34",
+      "2023-01-01T23:38:34Z",
+      "2023-01-01T23:38:34.1",
+      "2023-12-31T00:00:00.123456789+01:00",
+      "0000-01-01T00:00:00.12345678",
+      "9999-09-29T19:59:59.1234567891234Z",
+  };
+
+  @Test
+  void testFullDates() {
+    for (String date : DATES) {
+      byte[] bytes = date.getBytes(StandardCharsets.ISO_8859_1);
+      long fields = SwarScanner.scan(bytes, 0, bytes.length);
+      assertNotEquals(DateFields.NONE, fields, date);
+      assertEquals(CharDateParser.scan(date, 0, date.length()), fields, date);
+    }
+  }
+
+  @Test
+  void testEveryByteAtEveryPosition() {
+    for (String date : DATES) {
+      byte[] bytes = date.getBytes(StandardCharsets.ISO_8859_1);
+      for (int pos = 0; pos < bytes.length; pos++) {
+        byte original = bytes[pos];
+        for (int b = 0; b < 256; b++) {
+          bytes[pos] = (byte) b;
+          assertSameAsScalar(bytes, 0, bytes.length);
+        }
+        bytes[pos] = original;
+      }
+    }
+  }
+
+  @Test
+  void testLengthsAndOffsets() {
+    for (String date : DATES) {
+      byte[] padded = ("xx" + date + "12345678").getBytes(StandardCharsets.ISO_8859_1);
+      for (int length = 19; length <= date.length(); length++) {
+        assertSameAsScalar(padded, 2, length);
+        byte[] exact = Arrays.copyOf(date.getBytes(StandardCharsets.ISO_8859_1), length);
+        assertSameAsScalar(exact, 0, length);
+      }
+    }
+  }
+
+  @Test
+  void testCorpus() {
+    for (String date : DateCorpus.generate(DateCorpus.Mix.MIXED, 10_000, 5, 17)) {
+      byte[] bytes = date.getBytes(StandardCharsets.ISO_8859_1);
+      if (bytes.length >= 19) {
+        assertSameAsScalar(bytes, 0, bytes.length);
+      }
+    }
+  }
+
+  private static void assertSameAsScalar(byte[] bytes, int offset, int length) {
+    long fields = SwarScanner.scan(bytes, offset, length);
+    if (fields != DateFields.NONE) {
+      String date = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+      assertEquals(CharDateParser.scan(date, 0, length), fields, date);
+    }
+  }
+}
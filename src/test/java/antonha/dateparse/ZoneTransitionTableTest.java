@@ -0,0 +1,112 @@
+/**
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and
+ * associated documentation files (the “Software”), to deal in the Software without restriction,
+ * including without limitation the rights to use, copy, modify, merge, publish, distribute,
+ * sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * <p>
+ * The above copyright notice and this permission notice shall be included in all copies or
+ * substantial portions of the Software.
+ * <p>
+ * THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT
+ * NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM,
+ * DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package antonha.dateparse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+class ZoneTransitionTableTest {
+
+  private static final long MIN_LOCAL = LocalDate.of(1800, 1, 1).toEpochDay() * 86400;
+  private static final long MAX_LOCAL = LocalDate.of(2200, 1, 1).toEpochDay() * 86400;
+  private static final long END_LOCAL = LocalDate.of(ZoneTransitionTable.END_YEAR, 1, 1).toEpochDay() * 86400;
+
+  /*
+  For every zone in tzdb: the local times around every transition, where gaps and overlaps are, and random local
+  times, must give the same epoch second as ZonedDateTime.of.
+   */
+  @TestFactory
+  Stream<DynamicTest> testSameAsZonedDateTime() {
+    return ZoneId.getAvailableZoneIds().stream().sorted().map(id -> DynamicTest.dynamicTest(id, () -> {
+      ZoneId zone = ZoneId.of(id);
+      ZoneTransitionTable table = ZoneTransitionTable.build(zone);
+      ZoneRules rules = zone.getRules();
+      int transitions = 0;
+      ZoneOffsetTransition transition = rules.nextTransition(Instant.MIN);
+      while (transition != null && transition.toEpochSecond() < END_LOCAL) {
+        transitions++;
+        long before = transition.getDateTimeBefore().toEpochSecond(ZoneOffset.UTC);
+        long after = transition.getDateTimeAfter().toEpochSecond(ZoneOffset.UTC);
+        for (long local : new long[]{before, after}) {
+          for (long delta = -2; delta <= 2; delta++) {
+            assertSameAsZonedDateTime(table, zone, local + delta);
+          }
+        }
+        assertSameAsZonedDateTime(table, zone, (before + after) / 2);
+        transition = rules.nextTransition(transition.getInstant());
+      }
+      assertEquals(transitions, table.transitions());
+
+      Random random = new Random(id.hashCode());
+      for (int i = 0; i < 500; i++) {
+        assertSameAsZonedDateTime(table, zone, MIN_LOCAL + (long) (random.nextDouble() * (MAX_LOCAL - MIN_LOCAL)));
+      }
+    }));
+  }
+
+  private static void assertSameAsZonedDateTime(ZoneTransitionTable table, ZoneId zone, long local) {
+    LocalDateTime localDateTime = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+    long epochSecond = table.toEpochSecond(local);
+    if (epochSecond == ZoneTransitionTable.NOT_COVERED) {
+      assertTrue(local > END_LOCAL - 86400, localDateTime.toString());
+      return;
+    }
+    assertEquals(ZonedDateTime.of(localDateTime, zone).toEpochSecond(), epochSecond, localDateTime + " " + zone);
+  }
+
+  @Test
+  void testCoverage() {
+    ZoneTransitionTable stockholm = ZoneTransitionTable.of(ZoneId.of("Europe/Stockholm"));
+    assertSame(stockholm, ZoneTransitionTable.of(ZoneId.of("Europe/Stockholm")));
+    assertEquals(ZoneTransitionTable.NOT_COVERED, stockholm.toEpochSecond(END_LOCAL));
+    //No daylight saving time after 2100, so always covered.
+    ZoneTransitionTable tokyo = ZoneTransitionTable.of(ZoneId.of("Asia/Tokyo"));
+    assertNotEquals(ZoneTransitionTable.NOT_COVERED, tokyo.toEpochSecond(MAX_LOCAL));
+    assertEquals(0, ZoneTransitionTable.of(ZoneId.of("Etc/GMT+5")).transitions());
+  }
+
+  @Test
+  void testGapsAndOverlapsInParser() {
+    for (String dateString : new String[]{
+        "2023-03-26T02:30:00Europe/Stockholm",
+        "2023-10-29T02:30:00Europe/Stockholm",
+        "2023-03-12T02:15:00America/New_York",
+        "2023-11-05T01:15:00America/New_York",
+        "2150-03-26T02:30:00Europe/Stockholm",
+    }) {
+      ZonedDateTime expected = (ZonedDateTime) CharDateParser.parse(dateString);
+      assertEquals(expected.toInstant().toEpochMilli(), CharDateParser.parseToEpochMillis(dateString), dateString);
+    }
+  }
+}